@@ -0,0 +1,57 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.dto.CartResponse;
+import com.ecommerce.service.CartService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code CartService.getCart} on carts already held in memory: building the response,
+ * line subtotals and the cart total. Every seeded cart is loaded once during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartBenchmark {
+
+    private SeededApplication app;
+    private CartService cartService;
+    private long[] cartOwners;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void start() {
+        app = SeededApplication.start();
+        cartService = app.bean(CartService.class);
+        cartOwners = app.ids("SELECT user_id FROM cart ORDER BY user_id");
+        for (long userId : cartOwners) {
+            cartService.getCart(userId);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        app.close();
+    }
+
+    @Benchmark
+    public CartResponse getCart() {
+        next = (next + 1) % cartOwners.length;
+        return cartService.getCart(cartOwners[next]);
+    }
+}
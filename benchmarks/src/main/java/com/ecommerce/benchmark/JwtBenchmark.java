@@ -0,0 +1,99 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.security.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.Key;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code JwtService} token generation and validation. Validation is measured on a token the
+ * verified-token cache already holds and on tokens it does not (a one-entry cache cycled through
+ * many tokens), which is the full parse and HMAC check. {@code authenticateBaseline} is the
+ * request filter's path before the key and parser were built once: key and parser per call and
+ * the token parsed twice. Each is reported as latency and as throughput. No database is involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret";
+    private static final long EXPIRATION_MS = 3_600_000;
+    private static final int TOKENS = 4096;
+
+    private JwtService jwtService;
+    private JwtService uncachedJwtService;
+    private String cachedToken;
+    private String[] tokens;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void start() {
+        jwtService = new JwtService(SECRET, EXPIRATION_MS, 100_000);
+        uncachedJwtService = new JwtService(SECRET, EXPIRATION_MS, 1);
+        cachedToken = jwtService.generateToken("user1@example.com");
+        jwtService.authenticate(cachedToken);
+        tokens = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            tokens[i] = jwtService.generateToken("user" + (i + 1) + "@example.com");
+        }
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken("user1@example.com");
+    }
+
+    @Benchmark
+    public JwtService.VerifiedToken authenticateCached() {
+        return jwtService.authenticate(cachedToken);
+    }
+
+    @Benchmark
+    public JwtService.VerifiedToken authenticateUncached() {
+        next = (next + 1) % TOKENS;
+        return uncachedJwtService.authenticate(tokens[next]);
+    }
+
+    @Benchmark
+    public String authenticateBaseline() {
+        next = (next + 1) % TOKENS;
+        String token = tokens[next];
+        // JwtAuthenticationFilter called extractUsername and then validateToken on the same token
+        String username = baselineParse(token).getSubject();
+        try {
+            baselineParse(token);
+        } catch (JwtException e) {
+            return null;
+        }
+        return username;
+    }
+
+    // The old JwtService.parseClaims: the key derived and a parser built for every token
+    private static Claims baselineParse(String token) {
+        Key key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
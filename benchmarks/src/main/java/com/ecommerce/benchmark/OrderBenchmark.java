@@ -0,0 +1,67 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.dto.OrderResponse;
+import com.ecommerce.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order responses: one order through {@code OrderService.mapToResponse} (entity, transaction
+ * and item lookups), and a customer's order history through the batched projection path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderBenchmark {
+
+    private static final int STRIDE = 7919;
+
+    private SeededApplication app;
+    private OrderService orderService;
+    private long[] orderIds;
+    private long[] customerIds;
+    private int nextOrder;
+    private int nextCustomer;
+
+    @Setup(Level.Trial)
+    public void start() {
+        app = SeededApplication.start();
+        orderService = app.bean(OrderService.class);
+        orderIds = app.ids("SELECT order_id FROM orders ORDER BY order_id");
+        customerIds = app.ids("SELECT DISTINCT user_id FROM orders ORDER BY user_id");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        app.close();
+    }
+
+    @Benchmark
+    public OrderResponse orderById() {
+        // Stride through the ids so consecutive calls do not read neighbouring rows
+        nextOrder = (nextOrder + STRIDE) % orderIds.length;
+        return orderService.getOrderById(orderIds[nextOrder]);
+    }
+
+    @Benchmark
+    public List<OrderResponse> ordersForCustomer() {
+        nextCustomer = (nextCustomer + STRIDE) % customerIds.length;
+        return orderService.getOrdersForUser(customerIds[nextCustomer]);
+    }
+}
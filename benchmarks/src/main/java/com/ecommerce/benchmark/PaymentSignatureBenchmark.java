@@ -0,0 +1,93 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.payment.WebhookSignature;
+import com.razorpay.RazorpayException;
+import com.razorpay.Utils;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Razorpay signature checks: the checkout callback as {@code PaymentService.verifyPayment} does it
+ * (SDK, new Mac per call), and a webhook body through {@link WebhookSignature} (one Mac per thread)
+ * next to the SDK's own webhook check. No database is involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentSignatureBenchmark {
+
+    private static final String KEY_SECRET = "benchmark_key_secret_0123456789";
+    private static final String WEBHOOK_SECRET = "benchmark_webhook_secret";
+
+    private JSONObject callback;
+    private WebhookSignature webhookSignature;
+    private String webhookBody;
+    private byte[] webhookBytes;
+    private String webhookHeader;
+
+    @Setup(Level.Trial)
+    public void start() throws GeneralSecurityException {
+        String orderId = "order_Nb3x2GkF8YwQ1Z";
+        String paymentId = "pay_Nb3x4Tq7LmP0aR";
+        callback = new JSONObject();
+        callback.put("razorpay_order_id", orderId);
+        callback.put("razorpay_payment_id", paymentId);
+        callback.put("razorpay_signature", hmacHex(KEY_SECRET, orderId + "|" + paymentId));
+
+        // Shape and size of a payment.captured event
+        webhookBody = "{\"entity\":\"event\",\"account_id\":\"acc_BFQ7uQEaa7j2z7\",\"event\":\"payment.captured\","
+                + "\"contains\":[\"payment\"],\"payload\":{\"payment\":{\"entity\":{\"id\":\"" + paymentId + "\","
+                + "\"entity\":\"payment\",\"amount\":249900,\"currency\":\"INR\",\"status\":\"captured\","
+                + "\"order_id\":\"" + orderId + "\",\"invoice_id\":null,\"international\":false,\"method\":\"upi\","
+                + "\"amount_refunded\":0,\"refund_status\":null,\"captured\":true,\"description\":\"Order 1042\","
+                + "\"card_id\":null,\"bank\":null,\"wallet\":null,\"vpa\":\"customer@okbank\","
+                + "\"email\":\"user1042@example.com\",\"contact\":\"+919000001042\",\"notes\":{\"orderId\":\"1042\"},"
+                + "\"fee\":5898,\"tax\":900,\"error_code\":null,\"error_description\":null,"
+                + "\"acquirer_data\":{\"rrn\":\"412345678901\",\"upi_transaction_id\":\"AXI0123456789\"},"
+                + "\"created_at\":1767225600}}},\"created_at\":1767225602}";
+        webhookBytes = webhookBody.getBytes(StandardCharsets.UTF_8);
+        webhookHeader = hmacHex(WEBHOOK_SECRET, webhookBody);
+        webhookSignature = new WebhookSignature(WEBHOOK_SECRET);
+    }
+
+    @Benchmark
+    public boolean checkoutCallback() throws RazorpayException {
+        return Utils.verifyPaymentSignature(callback, KEY_SECRET);
+    }
+
+    @Benchmark
+    public boolean webhook() {
+        return webhookSignature.matches(webhookBytes, webhookHeader);
+    }
+
+    @Benchmark
+    public boolean webhookSdk() throws RazorpayException {
+        return Utils.verifyWebhookSignature(webhookBody, webhookHeader, WEBHOOK_SECRET);
+    }
+
+    private static String hmacHex(String secret, String payload) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+    }
+}
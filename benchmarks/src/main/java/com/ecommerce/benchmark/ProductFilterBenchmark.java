@@ -0,0 +1,71 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.dto.ProductResponse;
+import com.ecommerce.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code ProductService.filterProducts} with its cache disabled, so every call is a miss: a price
+ * range over the whole catalog, and the same range within one category, in each sort order,
+ * from the catalog snapshot or from the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductFilterBenchmark {
+
+    private static final double MIN_PRICE = 1000;
+    private static final double MAX_PRICE = 50000;
+
+    @Param({"true", "false"})
+    public boolean snapshot;
+
+    @Param({"price_asc", "price_desc", "rating", "newest"})
+    public String sort;
+
+    private SeededApplication app;
+    private ProductService productService;
+    private long[] categoryIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void start() {
+        app = SeededApplication.start("--catalog.snapshot.enabled=" + snapshot, SeededApplication.NO_PRODUCT_CACHES);
+        productService = app.bean(ProductService.class);
+        categoryIds = app.ids("SELECT category_id FROM product_category ORDER BY category_id");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        app.close();
+    }
+
+    @Benchmark
+    public List<ProductResponse> priceRange() {
+        return productService.filterProducts(null, null, MIN_PRICE, MAX_PRICE, sort);
+    }
+
+    @Benchmark
+    public List<ProductResponse> priceRangeInCategory() {
+        next = (next + 1) % categoryIds.length;
+        return productService.filterProducts(null, categoryIds[next], MIN_PRICE, MAX_PRICE, sort);
+    }
+}
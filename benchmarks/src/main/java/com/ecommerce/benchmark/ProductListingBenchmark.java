@@ -0,0 +1,96 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.dto.CursorPageResponse;
+import com.ecommerce.dto.ProductResponse;
+import com.ecommerce.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product listings with the response caches disabled, so every call is a miss: the full catalog and
+ * one category from the columnar {@code CatalogSnapshot} ({@code snapshot=true}) against the
+ * entity path it replaced ({@code snapshot=false}), keyset pages through the entity-to-response
+ * mapping, and JSON serialization of a listing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductListingBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"true", "false"})
+    public boolean snapshot;
+
+    private SeededApplication app;
+    private ProductService productService;
+    private ObjectMapper objectMapper;
+    private long[] categoryIds;
+    private List<String> pageCursors;
+    private List<ProductResponse> categoryListing;
+    private int nextCategory;
+    private int nextPage;
+
+    @Setup(Level.Trial)
+    public void start() {
+        app = SeededApplication.start("--catalog.snapshot.enabled=" + snapshot, SeededApplication.NO_PRODUCT_CACHES);
+        productService = app.bean(ProductService.class);
+        objectMapper = app.bean(ObjectMapper.class);
+        categoryIds = app.ids("SELECT category_id FROM product_category ORDER BY category_id");
+        categoryListing = productService.getProductsByCategory(categoryIds[0]);
+
+        // Cursors of the first pages, so each call reads a different page
+        pageCursors = new ArrayList<>();
+        String cursor = null;
+        do {
+            pageCursors.add(cursor);
+            cursor = productService.getProductPage(null, cursor, PAGE_SIZE).getNextCursor();
+        } while (cursor != null && pageCursors.size() < 100);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        app.close();
+    }
+
+    @Benchmark
+    public List<ProductResponse> allProducts() {
+        return productService.getAllProducts();
+    }
+
+    @Benchmark
+    public List<ProductResponse> productsByCategory() {
+        nextCategory = (nextCategory + 1) % categoryIds.length;
+        return productService.getProductsByCategory(categoryIds[nextCategory]);
+    }
+
+    @Benchmark
+    public CursorPageResponse<ProductResponse> productPage() {
+        nextPage = (nextPage + 1) % pageCursors.size();
+        return productService.getProductPage(null, pageCursors.get(nextPage), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public byte[] serializeCategoryListing() {
+        return objectMapper.writeValueAsBytes(categoryListing);
+    }
+}
@@ -0,0 +1,88 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.EcommerceApplication;
+import com.ecommerce.config.CacheConfig;
+import com.ecommerce.search.CatalogSnapshot;
+import com.ecommerce.search.ProductFacetIndex;
+import com.ecommerce.search.ProductSearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The application started on an embedded H2 database seeded by the {@code datagen} profile
+ * (sizes in {@code application-benchmark.properties}). Returns once the data is written and
+ * the in-memory catalog indexes are built, so background work does not leak into a measurement.
+ */
+final class SeededApplication implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SeededApplication.class);
+
+    private static final long READY_TIMEOUT_MS = 10 * 60 * 1000;
+
+    // Start argument that turns the listing caches off, so every call runs the service method
+    static final String NO_PRODUCT_CACHES = "--cache.disabled=" + String.join(",", CacheConfig.PRODUCTS,
+            CacheConfig.PRODUCTS_BY_CATEGORY, CacheConfig.PRODUCT_FILTER, CacheConfig.PRODUCT_BY_ID);
+
+    private final ConfigurableApplicationContext context;
+
+    private SeededApplication(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    // args are Spring Boot command-line properties, e.g. --catalog.snapshot.enabled=false
+    static SeededApplication start(String... args) {
+        long start = System.nanoTime();
+        SpringApplication application = new SpringApplication(EcommerceApplication.class);
+        application.setAdditionalProfiles("datagen", "benchmark");
+        SeededApplication app = new SeededApplication(application.run(args));
+
+        boolean snapshotEnabled = app.context.getEnvironment()
+                .getProperty("catalog.snapshot.enabled", Boolean.class, true);
+        if (snapshotEnabled) {
+            app.awaitReady("catalog snapshot", app.bean(CatalogSnapshot.class)::isReady);
+        }
+        app.awaitReady("search index", app.bean(ProductSearchIndex.class)::isReady);
+        app.awaitReady("facet index", app.bean(ProductFacetIndex.class)::isReady);
+        log.info("Seeded application ready in {} ms", (System.nanoTime() - start) / 1_000_000);
+        return app;
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    // First column of the query as ids, for benchmarks to cycle through
+    long[] ids(String sql) {
+        List<Long> rows = bean(JdbcTemplate.class).queryForList(sql, Long.class);
+        if (rows.isEmpty()) {
+            throw new IllegalStateException("Seeded dataset has no rows for: " + sql);
+        }
+        return rows.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private void awaitReady(String what, BooleanSupplier ready) {
+        long deadline = System.currentTimeMillis() + READY_TIMEOUT_MS;
+        while (!ready.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Timed out waiting for the " + what);
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for the " + what, e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,65 @@
+package com.ecommerce.bulk;
+
+import com.ecommerce.dto.ImportReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Command-line import: start the app with {@code --catalog.import.file=products.csv}
+ * (with {@code --server.port=0} if a server already holds the port). The file
+ * is imported, the first errors are logged, and the process exits with status 1 if any
+ * row was rejected. Format comes from {@code catalog.import.format} or the file extension;
+ * {@code .gz} files are decompressed on the fly.
+ */
+@Component
+@ConditionalOnProperty("catalog.import.file")
+public class CatalogImportRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogImportRunner.class);
+    private static final int LOGGED_ERRORS = 20;
+
+    private final CatalogImportService importService;
+    private final ConfigurableApplicationContext context;
+    private final Environment env;
+
+    public CatalogImportRunner(CatalogImportService importService,
+                               ConfigurableApplicationContext context,
+                               Environment env) {
+        this.importService = importService;
+        this.context = context;
+        this.env = env;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        Path file = Path.of(env.getRequiredProperty("catalog.import.file"));
+        String name = file.getFileName().toString();
+        DataFormat format = DataFormat.resolve(env.getProperty("catalog.import.format"), name.replaceAll("\\.gz$", ""));
+
+        ImportReport report;
+        try (InputStream raw = Files.newInputStream(file);
+             InputStream in = name.endsWith(".gz") ? new GZIPInputStream(raw, 1 << 16) : raw) {
+            report = importService.importProducts(in, format, false);
+        }
+        report.errors().stream().limit(LOGGED_ERRORS).forEach(e ->
+                log.warn("Line {} (sku {}): {}", e.line(), e.sku(), e.message()));
+        if (report.failed() > LOGGED_ERRORS) {
+            log.warn("... {} more rejected rows", report.failed() - LOGGED_ERRORS);
+        }
+        int status = report.failed() > 0 ? 1 : 0;
+        System.exit(SpringApplication.exit(context, () -> status));
+    }
+}
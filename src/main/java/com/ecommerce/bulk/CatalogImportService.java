@@ -0,0 +1,387 @@
+package com.ecommerce.bulk;
+
+import com.ecommerce.dto.ImportReport;
+import com.ecommerce.dto.ProductImportRow;
+import com.ecommerce.model.ProductCategory;
+import com.ecommerce.repository.ProductCategoryRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.search.CatalogSnapshot;
+import com.ecommerce.search.ProductFacetIndex;
+import com.ecommerce.search.ProductSearchIndex;
+import com.ecommerce.search.SuggestIndex;
+import com.ecommerce.service.ProductCacheEvictor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Streaming bulk import of products from CSV or NDJSON.
+ *
+ * The calling thread parses and validates one row at a time: categories (by id, or by
+ * name, created on first use) and SKUs are checked against in-memory sets loaded once
+ * up front, so a row costs no lookup queries. Valid rows are grouped into batches of
+ * {@code catalog.import.batch-size} and inserted by up to {@code catalog.import.workers}
+ * concurrent writers, each batch one JDBC batch in its own transaction. The reader waits
+ * when every writer is busy, so memory holds at most workers + 1 batches however big
+ * the input is.
+ *
+ * A batch the database rejects is retried row by row to pin the failure on its rows.
+ * Every rejected row is reported with its line number. Caches and catalog indexes are
+ * refreshed once at the end instead of per product.
+ */
+@Service
+public class CatalogImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogImportService.class);
+
+    private final ProductRepository productRepository;
+    private final ProductCategoryRepository categoryRepository;
+    private final ObjectMapper objectMapper;
+    private final ProductCacheEvictor cacheEvictor;
+    private final CatalogSnapshot catalogSnapshot;
+    private final ProductSearchIndex searchIndex;
+    private final ProductFacetIndex facetIndex;
+    private final SuggestIndex suggestIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTx;
+    private final int batchSize;
+    private final int workers;
+    private final int maxErrors;
+
+    public CatalogImportService(ProductRepository productRepository,
+                                ProductCategoryRepository categoryRepository,
+                                ObjectMapper objectMapper,
+                                ProductCacheEvictor cacheEvictor,
+                                CatalogSnapshot catalogSnapshot,
+                                ProductSearchIndex searchIndex,
+                                ProductFacetIndex facetIndex,
+                                SuggestIndex suggestIndex,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${catalog.import.batch-size:1000}") int batchSize,
+                                @Value("${catalog.import.workers:4}") int workers,
+                                @Value("${catalog.import.max-errors:1000}") int maxErrors) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.objectMapper = objectMapper;
+        this.cacheEvictor = cacheEvictor;
+        this.catalogSnapshot = catalogSnapshot;
+        this.searchIndex = searchIndex;
+        this.facetIndex = facetIndex;
+        this.suggestIndex = suggestIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.batchSize = batchSize;
+        this.workers = workers;
+        this.maxErrors = maxErrors;
+    }
+
+    record ParsedRow(long line, ProductImportRow row) {
+    }
+
+    // State of one import; the lookup sets are only touched by the reading thread
+    private final class Run {
+        final Set<String> skus = new HashSet<>();
+        final Set<Long> categoryIds = new HashSet<>();
+        final Map<String, Long> categoriesByName = new HashMap<>();
+        final Set<Long> touchedCategories = new HashSet<>();
+        int categoriesCreated;
+        long rowsRead;
+        final AtomicLong imported = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final List<ImportReport.RowError> errors = new ArrayList<>();
+
+        void error(long line, String sku, String message) {
+            failed.incrementAndGet();
+            synchronized (errors) {
+                if (errors.size() < maxErrors) {
+                    errors.add(new ImportReport.RowError(line, sku, message));
+                }
+            }
+        }
+    }
+
+    /**
+     * Imports every row of the input. Rows that fail validation or insertion are skipped
+     * and reported; the others are committed batch by batch, so a failed import is never
+     * rolled back as a whole.
+     *
+     * @param refreshCatalog rebuild the catalog indexes and evict listing caches afterwards;
+     *                       off for the command-line import, which exits right after
+     */
+    public ImportReport importProducts(InputStream in, DataFormat format, boolean refreshCatalog) {
+        long start = System.nanoTime();
+        Run run = new Run();
+        loadLookups(run);
+
+        try (ExecutorService pool = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("catalog-import-", 0).factory())) {
+            Batcher batcher = new Batcher(pool, run);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+            try {
+                if (format == DataFormat.CSV) {
+                    readCsv(reader, run, batcher);
+                } else {
+                    readNdjson(reader, run, batcher);
+                }
+            } catch (IOException e) {
+                // Keep what was read so far; the report says where the input broke off
+                run.error(run.rowsRead + 1, null, "Could not read input: " + e.getMessage());
+            }
+            batcher.finish();
+        } // close() waits for the writers
+
+        if (refreshCatalog && run.imported.get() > 0) {
+            refreshCatalog(run);
+        }
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Catalog import: {} rows read, {} imported, {} failed, {} categories created in {} ms",
+                run.rowsRead, run.imported.get(), run.failed.get(), run.categoriesCreated, durationMs);
+        List<ImportReport.RowError> errors = List.copyOf(run.errors);
+        return new ImportReport(run.rowsRead, run.imported.get(), run.failed.get(), run.categoriesCreated,
+                durationMs, errors, run.failed.get() > errors.size());
+    }
+
+    private void loadLookups(Run run) {
+        readOnlyTx.executeWithoutResult(status -> {
+            try (var skus = productRepository.streamSkus()) {
+                skus.forEach(run.skus::add);
+            }
+            for (ProductCategory category : categoryRepository.findAll()) {
+                run.categoryIds.add(category.getCategoryId());
+                if (category.getName() != null) {
+                    run.categoriesByName.putIfAbsent(category.getName().trim().toLowerCase(Locale.ROOT), category.getCategoryId());
+                }
+            }
+        });
+    }
+
+    private void readCsv(BufferedReader reader, Run run, Consumer<ParsedRow> sink) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(normalize(header.get(i)), i);
+        }
+        if (!columns.containsKey("productname") || !columns.containsKey("sku") || !columns.containsKey("baseprice")) {
+            throw new RuntimeException("CSV header must include productName, sku and basePrice");
+        }
+        List<String> fields;
+        while ((fields = csv.next()) != null) {
+            run.rowsRead++;
+            long line = csv.recordLine();
+            ProductImportRow row;
+            try {
+                row = new ProductImportRow(
+                        field(fields, columns, "productName"),
+                        field(fields, columns, "productDescription"),
+                        field(fields, columns, "sku"),
+                        field(fields, columns, "picture"),
+                        number(fields, columns, "basePrice", Double::valueOf),
+                        number(fields, columns, "stockQty", Integer::valueOf),
+                        number(fields, columns, "categoryId", Long::valueOf),
+                        field(fields, columns, "categoryName"));
+            } catch (NumberFormatException e) {
+                run.error(line, field(fields, columns, "sku"), e.getMessage());
+                continue;
+            }
+            accept(line, row, run, sink);
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, Run run, Consumer<ParsedRow> sink) throws IOException {
+        long line = 0;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            run.rowsRead++;
+            ProductImportRow row;
+            try {
+                row = objectMapper.readValue(text, ProductImportRow.class);
+            } catch (JacksonException e) {
+                run.error(line, null, "Invalid JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            accept(line, row, run, sink);
+        }
+    }
+
+    // Validates the row and resolves its category; rejected rows go to the report
+    private void accept(long line, ProductImportRow row, Run run, Consumer<ParsedRow> sink) {
+        String problem = null;
+        if (isBlank(row.productName())) {
+            problem = "productName is required";
+        } else if (isBlank(row.sku())) {
+            problem = "sku is required";
+        } else if (row.basePrice() == null || !(row.basePrice() > 0)) {
+            problem = "basePrice must be positive";
+        } else if (row.stockQty() != null && row.stockQty() < 0) {
+            problem = "stockQty must not be negative";
+        } else if (row.categoryId() == null && isBlank(row.categoryName())) {
+            problem = "categoryId or categoryName is required";
+        } else if (row.categoryId() != null && !run.categoryIds.contains(row.categoryId())) {
+            problem = "Category not found: " + row.categoryId();
+        } else if (run.skus.contains(row.sku())) {
+            problem = "Duplicate SKU";
+        }
+        if (problem != null) {
+            run.error(line, row.sku(), problem);
+            return;
+        }
+        Long categoryId = row.categoryId() != null ? row.categoryId() : categoryByName(row.categoryName(), run);
+        run.skus.add(row.sku());
+        run.touchedCategories.add(categoryId);
+        sink.accept(new ParsedRow(line, row.withCategoryId(categoryId)));
+    }
+
+    private Long categoryByName(String name, Run run) {
+        String key = name.trim().toLowerCase(Locale.ROOT);
+        Long id = run.categoriesByName.get(key);
+        if (id == null) {
+            ProductCategory category = new ProductCategory();
+            category.setName(name.trim());
+            id = categoryRepository.save(category).getCategoryId();
+            run.categoriesByName.put(key, id);
+            run.categoryIds.add(id);
+            run.categoriesCreated++;
+        }
+        return id;
+    }
+
+    // Hands full batches to the writers; the reader blocks while all of them are busy
+    private final class Batcher implements Consumer<ParsedRow> {
+        private final ExecutorService pool;
+        private final Run run;
+        private final Semaphore writers = new Semaphore(workers);
+        private List<ParsedRow> batch = new ArrayList<>(batchSize);
+
+        Batcher(ExecutorService pool, Run run) {
+            this.pool = pool;
+            this.run = run;
+        }
+
+        @Override
+        public void accept(ParsedRow row) {
+            batch.add(row);
+            if (batch.size() == batchSize) {
+                submit();
+            }
+        }
+
+        void finish() {
+            if (!batch.isEmpty()) {
+                submit();
+            }
+        }
+
+        private void submit() {
+            List<ParsedRow> full = batch;
+            batch = new ArrayList<>(batchSize);
+            writers.acquireUninterruptibly();
+            pool.execute(() -> {
+                try {
+                    write(full, run);
+                } finally {
+                    writers.release();
+                }
+            });
+        }
+    }
+
+    private void write(List<ParsedRow> batch, Run run) {
+        try {
+            List<ProductImportRow> rows = batch.stream().map(ParsedRow::row).toList();
+            transactionTemplate.executeWithoutResult(status -> productRepository.insertProducts(rows));
+            run.imported.addAndGet(rows.size());
+        } catch (RuntimeException batchFailure) {
+            // Something in the batch was rejected; insert one by one to find out which rows
+            for (ParsedRow parsed : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> productRepository.insertProducts(List.of(parsed.row())));
+                    run.imported.incrementAndGet();
+                } catch (RuntimeException e) {
+                    run.error(parsed.line(), parsed.row().sku(), rootMessage(e));
+                }
+            }
+        }
+    }
+
+    // One rebuild of each index and one round of evictions for the whole import
+    private void refreshCatalog(Run run) {
+        catalogSnapshot.rebuild();
+        searchIndex.rebuild();
+        facetIndex.rebuild();
+        suggestIndex.reload();
+        cacheEvictor.productsChanged(List.of(), run.touchedCategories);
+        if (run.categoriesCreated > 0) {
+            cacheEvictor.categoriesChanged();
+        }
+    }
+
+    private static String normalize(String column) {
+        return column.trim().replace("_", "").replace("\uFEFF", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer i = columns.get(normalize(column));
+        if (i == null || i >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(i).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static <T> T number(List<String> fields, Map<String, Integer> columns, String column,
+                                Function<String, T> parse) {
+        String value = field(fields, columns, column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parse.apply(value);
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException(column + " is not a number: " + value);
+        }
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+}
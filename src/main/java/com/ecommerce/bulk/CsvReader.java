@@ -0,0 +1,98 @@
+package com.ecommerce.bulk;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 reader: comma separated, fields optionally in double quotes, a doubled
+ * quote inside quotes is a literal quote, and quoted fields may span lines. Reads one
+ * record at a time from the underlying reader, so memory does not grow with the file.
+ */
+final class CsvReader {
+
+    private final Reader in;
+    private long line = 1;        // line the next record starts on
+    private long recordLine;      // line the last returned record started on
+    private int pushedBack = -2;  // -2: nothing pushed back
+
+    CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    long recordLine() {
+        return recordLine;
+    }
+
+    /**
+     * @return the fields of the next non-empty record, or null at end of input
+     */
+    List<String> next() throws IOException {
+        while (true) {
+            recordLine = line;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean any = false;
+            int c;
+            while ((c = read()) != -1) {
+                any = true;
+                if (quoted) {
+                    if (c == '"') {
+                        int d = read();
+                        if (d == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            unread(d);
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == '\r') {
+                    if (c == '\r') {
+                        int d = read();
+                        if (d != '\n') {
+                            unread(d);
+                        }
+                    }
+                    line++;
+                    break;
+                } else {
+                    field.append((char) c);
+                }
+            }
+            if (!any) {
+                return null;
+            }
+            fields.add(field.toString());
+            // Skip blank lines
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            return fields;
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        return in.read();
+    }
+
+    private void unread(int c) {
+        pushedBack = c;
+    }
+}
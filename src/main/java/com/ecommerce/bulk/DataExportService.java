@@ -0,0 +1,241 @@
+package com.ecommerce.bulk;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streams a table out as CSV or NDJSON straight from a forward-only JDBC cursor. Rows are
+ * fetched {@code export.fetch-size} at a time and written as they are read, so heap use
+ * does not depend on how many rows match. The cursor runs in a read-only transaction
+ * because PostgreSQL only honours the fetch size with auto-commit off.
+ */
+@Service
+public class DataExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(DataExportService.class);
+
+    private final JdbcTemplate cursorTemplate;
+    private final TransactionTemplate readOnlyTx;
+    private final ObjectMapper objectMapper;
+
+    public DataExportService(DataSource dataSource,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             @Value("${export.fetch-size:1000}") int fetchSize) {
+        this.cursorTemplate = new JdbcTemplate(dataSource);
+        this.cursorTemplate.setFetchSize(fetchSize);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes the rows with id greater than {@code sinceId} and date in [{@code from}, {@code to})
+     * in id order. Every bound is optional. Does not close {@code out}.
+     *
+     * @return number of rows written
+     */
+    public long export(ExportDataset dataset, DataFormat format, Long sinceId,
+                       LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        if ((from != null || to != null) && !dataset.hasDate()) {
+            throw new RuntimeException("Export " + dataset.name().toLowerCase(Locale.ROOT) + " has no date to filter on");
+        }
+        StringBuilder sql = new StringBuilder(dataset.select).append(" WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (sinceId != null) {
+            sql.append(" AND ").append(dataset.idColumn).append(" > ?");
+            args.add(sinceId);
+        }
+        if (from != null) {
+            sql.append(" AND ").append(dataset.dateColumn).append(" >= ?");
+            args.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND ").append(dataset.dateColumn).append(" < ?");
+            args.add(Timestamp.valueOf(to));
+        }
+        sql.append(" ORDER BY ").append(dataset.idColumn);
+
+        long start = System.nanoTime();
+        RowSink sink = format == DataFormat.CSV ? new CsvSink(out) : new NdjsonSink(objectMapper, out);
+        ResultSetExtractor<Long> writeAll = rs -> {
+            ResultSetMetaData meta = rs.getMetaData();
+            String[] names = new String[meta.getColumnCount()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = camelCase(meta.getColumnLabel(i + 1));
+            }
+            Object[] values = new Object[names.length];
+            long rows = 0;
+            try {
+                sink.header(names);
+                while (rs.next()) {
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = rs.getObject(i + 1);
+                    }
+                    sink.row(names, values);
+                    rows++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return rows;
+        };
+        long rows;
+        try {
+            rows = readOnlyTx.execute(status -> cursorTemplate.query(sql.toString(), writeAll, args.toArray()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // client went away
+        }
+        sink.finish();
+        log.info("Exported {} {} rows as {} in {} ms", rows, dataset.name().toLowerCase(Locale.ROOT), format,
+                (System.nanoTime() - start) / 1_000_000);
+        return rows;
+    }
+
+    private interface RowSink {
+        void header(String[] names) throws IOException;
+
+        void row(String[] names, Object[] values) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    private static final class CsvSink implements RowSink {
+        private final Writer out;
+
+        CsvSink(OutputStream out) {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+        }
+
+        @Override
+        public void header(String[] names) throws IOException {
+            line(names);
+        }
+
+        @Override
+        public void row(String[] names, Object[] values) throws IOException {
+            line(values);
+        }
+
+        private void line(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                Object v = values[i];
+                if (v != null) {
+                    String s = v instanceof Timestamp ts ? ts.toLocalDateTime().toString() : v.toString();
+                    if (s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0) {
+                        out.write('"');
+                        out.write(s.replace("\"", "\"\""));
+                        out.write('"');
+                    } else {
+                        out.write(s);
+                    }
+                }
+            }
+            out.write('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            out.flush();
+        }
+    }
+
+    private static final class NdjsonSink implements RowSink {
+        private final JsonGenerator json;
+
+        NdjsonSink(ObjectMapper objectMapper, OutputStream out) {
+            // One object per line; the caller owns the stream
+            this.json = objectMapper.writer().withRootValueSeparator("").createGenerator(new NonClosing(out));
+        }
+
+        @Override
+        public void header(String[] names) {
+        }
+
+        @Override
+        public void row(String[] names, Object[] values) {
+            json.writeStartObject();
+            for (int i = 0; i < names.length; i++) {
+                json.writeName(names[i]);
+                switch (values[i]) {
+                    case null -> json.writeNull();
+                    case String s -> json.writeString(s);
+                    case Integer n -> json.writeNumber(n);
+                    case Long n -> json.writeNumber(n);
+                    case BigDecimal n -> json.writeNumber(n);
+                    case Number n -> json.writeNumber(n.doubleValue());
+                    case Boolean b -> json.writeBoolean(b);
+                    case Timestamp ts -> json.writeString(ts.toLocalDateTime().toString());
+                    default -> json.writeString(values[i].toString());
+                }
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() {
+            json.close(); // flushes; the target stays open
+        }
+    }
+
+    private static final class NonClosing extends FilterOutputStream {
+        NonClosing(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    // product_id -> productId, matching the field names of the JSON API
+    private static String camelCase(String column) {
+        String lower = column.toLowerCase(Locale.ROOT);
+        StringBuilder name = new StringBuilder(lower.length());
+        boolean upper = false;
+        for (char c : lower.toCharArray()) {
+            if (c == '_') {
+                upper = true;
+            } else {
+                name.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return name.toString();
+    }
+}
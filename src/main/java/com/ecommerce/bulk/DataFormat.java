@@ -0,0 +1,36 @@
+package com.ecommerce.bulk;
+
+import java.util.Locale;
+
+// Row formats for bulk import and export
+public enum DataFormat {
+    CSV,
+    NDJSON;
+
+    // Explicit format wins; otherwise a content type, Accept header or file name
+    public static DataFormat resolve(String format, String hint) {
+        DataFormat resolved = resolve(format, hint, null);
+        if (resolved == null) {
+            throw new RuntimeException("Format unknown; send text/csv or application/x-ndjson, or pass format=csv|ndjson");
+        }
+        return resolved;
+    }
+
+    public static DataFormat resolve(String format, String hint, DataFormat fallback) {
+        if (format != null && !format.isBlank()) {
+            try {
+                return valueOf(format.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Unsupported format: " + format);
+            }
+        }
+        String h = hint == null ? "" : hint.toLowerCase(Locale.ROOT);
+        if (h.contains("csv")) {
+            return CSV;
+        }
+        if (h.contains("ndjson") || h.contains("jsonl") || h.contains("json")) {
+            return NDJSON;
+        }
+        return fallback;
+    }
+}
@@ -0,0 +1,55 @@
+package com.ecommerce.bulk;
+
+import java.util.Locale;
+
+/**
+ * Tables that can be exported. Each is read in primary-key order, so a consumer can resume
+ * from the last id it saw with {@code sinceId}; datasets with a date column also accept a
+ * date range.
+ */
+public enum ExportDataset {
+
+    PRODUCTS("""
+            SELECT p.product_id, p.product_name, p.product_description, p.sku, p.picture,
+                   p.base_price, p.stock_qty, p.category_id, c.name AS category_name
+            FROM product p LEFT JOIN product_category c ON c.category_id = p.category_id
+            """, "p.product_id", null),
+
+    ORDERS("""
+            SELECT o.order_id, o.user_id, o.order_date, o.status, o.payment_status, o.total_amount,
+                   o.razorpay_order_id, o.transaction_id, o.shipping_address
+            FROM orders o
+            """, "o.order_id", "o.order_date"),
+
+    TRANSACTIONS("""
+            SELECT t.transaction_id, t.order_id, t.user_id, t.transaction_date, t.amount,
+                   t.payment_mode, t.payment_status, t.payment_gateway_ref
+            FROM transaction t
+            """, "t.transaction_id", "t.transaction_date");
+
+    final String select;
+    final String idColumn;
+    final String dateColumn;
+
+    ExportDataset(String select, String idColumn, String dateColumn) {
+        this.select = select;
+        this.idColumn = idColumn;
+        this.dateColumn = dateColumn;
+    }
+
+    public String fileName(DataFormat format) {
+        return name().toLowerCase(Locale.ROOT) + (format == DataFormat.CSV ? ".csv" : ".ndjson");
+    }
+
+    public boolean hasDate() {
+        return dateColumn != null;
+    }
+
+    public static ExportDataset of(String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unknown export: " + name);
+        }
+    }
+}
@@ -0,0 +1,577 @@
+package com.ecommerce.bulk;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Synthetic data for load tests: users, categories, products, reviews (with rating stats),
+ * carts and orders with their items and payment transactions, added to whatever the
+ * database already holds.
+ *
+ * Popularity is skewed the way real traffic is: products are drawn for order lines, cart
+ * lines and reviews from a Zipf distribution ({@code datagen.product-skew}), and buyers
+ * from a flatter one ({@code datagen.user-skew}), so a few products and customers carry
+ * most of the volume. Order ids follow order dates, and recent orders are still pending,
+ * confirmed or shipped while older ones are delivered or cancelled.
+ *
+ * Ids are assigned here, continuing after the current maximum of each table, and every
+ * chunk of {@code datagen.batch-size} rows draws from its own random stream derived from
+ * {@code datagen.seed}. The same seed and counts therefore give the same rows whatever the
+ * thread count. Chunks are written by {@code datagen.threads} workers, each as JDBC
+ * batches in its own transaction. Identity columns and order_item_seq are moved past the
+ * new rows at the end so the application keeps inserting after them.
+ */
+@Service
+@Profile("datagen")
+public class SyntheticDataGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    private static final int MAX_ORDER_ITEMS = 5;
+    private static final int MAX_CART_ITEMS = 4;
+    // Hibernate takes order_item ids from order_item_seq in blocks of this size (OrderItem)
+    private static final int ORDER_ITEM_ALLOCATION = 50;
+    private static final double CATEGORY_SKEW = 0.7;
+
+    // Salts for the per-chunk random streams, so each table is reproducible on its own
+    private static final int PLAN = 0;
+    private static final int USERS = 1;
+    private static final int PRODUCTS = 2;
+    private static final int REVIEWS = 3;
+    private static final int CARTS = 4;
+    private static final int ORDERS = 5;
+
+    private static final String INSERT_CATEGORY =
+            "INSERT INTO product_category (category_id, name, description) VALUES (?, ?, ?)";
+    private static final String INSERT_USER =
+            "INSERT INTO users (user_id, email, password, phone, address, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_USER_ROLE = "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)";
+    private static final String INSERT_PRODUCT =
+            "INSERT INTO product (product_id, product_name, product_description, sku, base_price, stock_qty, category_id)"
+                    + " VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_REVIEW =
+            "INSERT INTO review (review_id, product_id, user_id, rating, comment, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_RATING_STATS =
+            "INSERT INTO product_rating_stats (product_id, review_count, rating_sum, average_rating,"
+                    + " stars1, stars2, stars3, stars4, stars5) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_CART =
+            "INSERT INTO cart (cart_id, user_id, created_at, updated_at) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_CART_ITEM =
+            "INSERT INTO cart_item (cart_item_id, cart_id, product_id, qty, price_at_add) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_ORDER =
+            "INSERT INTO orders (order_id, user_id, order_date, status, payment_status, total_amount,"
+                    + " razorpay_order_id, shipping_address) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_ORDER_ITEM =
+            "INSERT INTO order_item (order_item_id, order_id, product_id, qty, price_at_purchase, subtotal)"
+                    + " VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_TRANSACTION =
+            "INSERT INTO transaction (transaction_id, order_id, user_id, amount, payment_mode, payment_status,"
+                    + " payment_gateway_ref, transaction_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    // orders and transaction reference each other; paid orders are linked once both rows exist
+    private static final String LINK_TRANSACTIONS =
+            "UPDATE orders SET transaction_id = order_id + ? WHERE order_id BETWEEN ? AND ? AND payment_status = 'SUCCESS'";
+
+    private static final int[] CATEGORY_TYPES = {Types.BIGINT, Types.VARCHAR, Types.VARCHAR};
+    private static final int[] USER_TYPES = {Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP};
+    private static final int[] USER_ROLE_TYPES = {Types.BIGINT, Types.BIGINT};
+    private static final int[] PRODUCT_TYPES = {Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.DOUBLE, Types.INTEGER, Types.BIGINT};
+    private static final int[] REVIEW_TYPES = {Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.INTEGER, Types.VARCHAR, Types.TIMESTAMP};
+    private static final int[] RATING_STATS_TYPES = {Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.DOUBLE,
+            Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.BIGINT};
+    private static final int[] CART_TYPES = {Types.BIGINT, Types.BIGINT, Types.TIMESTAMP, Types.TIMESTAMP};
+    private static final int[] CART_ITEM_TYPES = {Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.INTEGER, Types.DOUBLE};
+    private static final int[] ORDER_TYPES = {Types.BIGINT, Types.BIGINT, Types.TIMESTAMP, Types.VARCHAR, Types.VARCHAR,
+            Types.NUMERIC, Types.VARCHAR, Types.VARCHAR};
+    private static final int[] ORDER_ITEM_TYPES = {Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.INTEGER, Types.DOUBLE, Types.DOUBLE};
+    private static final int[] TRANSACTION_TYPES = {Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.DOUBLE, Types.VARCHAR,
+            Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP};
+
+    private static final String[] CATEGORY_NAMES = {
+            "Electronics", "Books", "Fashion", "Home & Kitchen", "Sports", "Toys", "Beauty", "Grocery",
+            "Furniture", "Footwear", "Watches", "Jewellery", "Automotive", "Garden", "Music", "Office",
+            "Pet Supplies", "Health", "Baby", "Video Games"};
+    private static final String[] ADJECTIVES = {
+            "Classic", "Premium", "Compact", "Smart", "Ultra", "Eco", "Pro", "Deluxe", "Essential", "Wireless",
+            "Portable", "Vintage", "Modern", "Heavy Duty", "Lightweight", "Organic"};
+    private static final String[] NOUNS = {
+            "Headphones", "Backpack", "Lamp", "Sneakers", "Blender", "Notebook", "Jacket", "Speaker", "Kettle",
+            "Watch", "Chair", "Bottle", "Camera", "Keyboard", "Mixer", "Tent", "Puzzle", "Serum", "Cookware Set",
+            "Charger"};
+    private static final String[] STREETS = {"MG Road", "Park Street", "Station Road", "Church Street", "Lake View",
+            "Hill Road", "Ring Road", "Market Lane"};
+    private static final String[] CITIES = {"Mumbai", "Delhi", "Bengaluru", "Chennai", "Kolkata", "Hyderabad",
+            "Pune", "Jaipur", "Ahmedabad", "Lucknow"};
+    private static final String[] COMMENTS = {
+            "Stopped working after a week.", "Not worth the price.", "Does the job.", "Good value, would buy again.",
+            "Excellent quality, highly recommended!"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final long seed;
+    private final int users;
+    private final int categories;
+    private final int products;
+    private final long reviews;
+    private final int carts;
+    private final long orders;
+    private final double productSkew;
+    private final double userSkew;
+    private final int days;
+    private final String endDate;
+    private final int threads;
+    private final int batchSize;
+    private final String password;
+
+    public SyntheticDataGenerator(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  PasswordEncoder passwordEncoder,
+                                  @Value("${datagen.seed:42}") long seed,
+                                  @Value("${datagen.users:100000}") int users,
+                                  @Value("${datagen.categories:40}") int categories,
+                                  @Value("${datagen.products:100000}") int products,
+                                  @Value("${datagen.reviews:1000000}") long reviews,
+                                  @Value("${datagen.carts:20000}") int carts,
+                                  @Value("${datagen.orders:1000000}") long orders,
+                                  @Value("${datagen.product-skew:1.0}") double productSkew,
+                                  @Value("${datagen.user-skew:0.6}") double userSkew,
+                                  @Value("${datagen.days:365}") int days,
+                                  @Value("${datagen.end-date:}") String endDate,
+                                  @Value("${datagen.threads:4}") int threads,
+                                  @Value("${datagen.batch-size:2000}") int batchSize,
+                                  @Value("${datagen.password:password}") String password) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.passwordEncoder = passwordEncoder;
+        this.seed = seed;
+        this.users = users;
+        this.categories = categories;
+        this.products = products;
+        this.reviews = reviews;
+        this.carts = Math.min(carts, users);
+        this.orders = orders;
+        this.productSkew = productSkew;
+        this.userSkew = userSkew;
+        this.days = days;
+        this.endDate = endDate;
+        this.threads = threads;
+        this.batchSize = batchSize;
+        this.password = password;
+    }
+
+    // Writes chunk [from, to) inside the current transaction; returns the rows inserted over all tables
+    private interface ChunkWriter {
+        int write(long from, long to, SplittableRandom random);
+    }
+
+    // Everything the chunk writers share; built once up front and read-only afterwards
+    private final class Plan {
+        // First new id per table
+        final long firstUser = nextId("users", "user_id");
+        final long firstCategory = nextId("product_category", "category_id");
+        final long firstProduct = nextId("product", "product_id");
+        final long firstReview = nextId("review", "review_id");
+        final long firstCart = nextId("cart", "cart_id");
+        final long firstCartItem = nextId("cart_item", "cart_item_id");
+        final long firstOrder = nextId("orders", "order_id");
+        final long firstOrderItem = nextId("order_item", "order_item_id");
+        final long firstTransaction = nextId("transaction", "transaction_id");
+
+        final long customerRoleId;
+        final String passwordHash = passwordEncoder.encode(password);
+        final long endEpochSecond;
+        final long spanSeconds = days * 86_400L;
+
+        final ZipfSampler categorySampler = new ZipfSampler(categories, CATEGORY_SKEW);
+        final ZipfSampler productSampler = new ZipfSampler(products, productSkew);
+        final ZipfSampler userSampler = new ZipfSampler(users, userSkew);
+        // Popularity rank -> index, shuffled so the popular rows are spread over ids and categories
+        final int[] productByRank;
+        final int[] userByRank;
+        final double[] prices = new double[products];
+        final int[] reviewCounts = new int[products];
+        final long[] reviewOffsets = new long[products + 1];
+        final long cartStride;
+
+        Plan(long customerRoleId) {
+            this.customerRoleId = customerRoleId;
+            LocalDate end = endDate.isBlank() ? LocalDate.now() : LocalDate.parse(endDate);
+            this.endEpochSecond = end.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+            SplittableRandom random = random(PLAN, 0);
+            productByRank = shuffled(products, random);
+            userByRank = shuffled(users, random);
+            for (int p = 0; p < products; p++) {
+                // Log-normal around 1,500 with a long tail, ending in 9
+                double raw = Math.exp(Math.log(1500) + random.nextGaussian());
+                prices[p] = Math.max(49, Math.round(raw / 10) * 10 - 1);
+            }
+            // Power law: a product's share of the reviews follows its popularity rank
+            for (int rank = 0; rank < products; rank++) {
+                double expected = reviews * productSampler.probability(rank);
+                int count = (int) expected + (random.nextDouble() < expected - (int) expected ? 1 : 0);
+                reviewCounts[productByRank[rank]] = Math.min(count, users);
+            }
+            for (int p = 0; p < products; p++) {
+                reviewOffsets[p + 1] = reviewOffsets[p] + reviewCounts[p];
+            }
+            cartStride = coprimeStride(users, random);
+        }
+
+        long userId(int index) {
+            return firstUser + index;
+        }
+
+        long productId(int index) {
+            return firstProduct + index;
+        }
+
+        int popularProduct(SplittableRandom random) {
+            return productByRank[productSampler.sample(random)];
+        }
+
+        LocalDateTime time(long epochSecond) {
+            return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+        }
+    }
+
+    public void generate() {
+        if (users < 1 || categories < 1 || products < 1) {
+            throw new RuntimeException("datagen.users, datagen.categories and datagen.products must be at least 1");
+        }
+        long start = System.nanoTime();
+        Plan plan = new Plan(customerRoleId());
+        log.info("Generating {} users, {} categories, {} products, ~{} reviews, {} carts, {} orders (seed {}, {} threads)",
+                users, categories, products, plan.reviewOffsets[products], carts, orders, seed, threads);
+
+        insertCategories(plan);
+        inChunks("users", users, USERS, (from, to, random) -> writeUsers(plan, from, to, random));
+        inChunks("products", products, PRODUCTS, (from, to, random) -> writeProducts(plan, from, to, random));
+        inChunks("reviews", products, REVIEWS, (from, to, random) -> writeReviews(plan, from, to, random));
+        inChunks("carts", carts, CARTS, (from, to, random) -> writeCarts(plan, from, to, random));
+        inChunks("orders", orders, ORDERS, (from, to, random) -> writeOrders(plan, from, to, random));
+        moveIdsPastGeneratedRows();
+
+        log.info("Synthetic data generated in {} s", (System.nanoTime() - start) / 1_000_000_000);
+    }
+
+    private void insertCategories(Plan plan) {
+        Set<String> taken = new HashSet<>(jdbcTemplate.queryForList("SELECT LOWER(name) FROM product_category", String.class));
+        List<Object[]> rows = new ArrayList<>(categories);
+        for (int c = 0; c < categories; c++) {
+            String base = CATEGORY_NAMES[c % CATEGORY_NAMES.length];
+            String name = c < CATEGORY_NAMES.length ? base : base + " " + (c / CATEGORY_NAMES.length + 1);
+            for (int n = 2; taken.contains(name.toLowerCase(Locale.ROOT)); n++) {
+                name = base + " " + n;
+            }
+            taken.add(name.toLowerCase(Locale.ROOT));
+            rows.add(new Object[]{plan.firstCategory + c, name, "Generated category"});
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_CATEGORY, rows, CATEGORY_TYPES));
+    }
+
+    private int writeUsers(Plan plan, long from, long to, SplittableRandom random) {
+        List<Object[]> rows = new ArrayList<>((int) (to - from));
+        List<Object[]> roles = new ArrayList<>((int) (to - from));
+        for (long i = from; i < to; i++) {
+            long id = plan.userId((int) i);
+            long created = plan.endEpochSecond - plan.spanSeconds - random.nextLong(plan.spanSeconds);
+            rows.add(new Object[]{id, "user" + id + "@example.com", plan.passwordHash,
+                    "9" + (100_000_000 + random.nextInt(900_000_000)), address(random),
+                    Timestamp.valueOf(plan.time(created))});
+            roles.add(new Object[]{id, plan.customerRoleId});
+        }
+        jdbcTemplate.batchUpdate(INSERT_USER, rows, USER_TYPES);
+        jdbcTemplate.batchUpdate(INSERT_USER_ROLE, roles, USER_ROLE_TYPES);
+        return rows.size() + roles.size();
+    }
+
+    private int writeProducts(Plan plan, long from, long to, SplittableRandom random) {
+        List<Object[]> rows = new ArrayList<>((int) (to - from));
+        for (long i = from; i < to; i++) {
+            long id = plan.productId((int) i);
+            String name = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)]
+                    + " " + (char) ('A' + random.nextInt(26)) + (100 + random.nextInt(900));
+            int stock = random.nextDouble() < 0.05 ? 0 : 1 + random.nextInt(500);
+            rows.add(new Object[]{id, name, name + ", generated for load tests", "GEN-" + id,
+                    plan.prices[(int) i], stock, plan.firstCategory + plan.categorySampler.sample(random)});
+        }
+        jdbcTemplate.batchUpdate(INSERT_PRODUCT, rows, PRODUCT_TYPES);
+        return rows.size();
+    }
+
+    // Chunks over products: each product gets its planned number of reviews from distinct users
+    private int writeReviews(Plan plan, long from, long to, SplittableRandom random) {
+        List<Object[]> rows = new ArrayList<>();
+        List<Object[]> stats = new ArrayList<>();
+        for (long i = from; i < to; i++) {
+            int p = (int) i;
+            int count = plan.reviewCounts[p];
+            if (count == 0) {
+                continue;
+            }
+            long offset = random.nextInt(users);
+            long stride = coprimeStride(users, random);
+            double quality = 3.0 + 1.7 * random.nextDouble();
+            long[] stars = new long[6];
+            long sum = 0;
+            for (int j = 0; j < count; j++) {
+                int rating = (int) Math.max(1, Math.min(5, Math.round(quality + 1.1 * random.nextGaussian())));
+                stars[rating]++;
+                sum += rating;
+                long created = plan.endEpochSecond - random.nextLong(plan.spanSeconds);
+                rows.add(new Object[]{plan.firstReview + plan.reviewOffsets[p] + j, plan.productId(p),
+                        plan.userId((int) ((offset + j * stride) % users)), rating, COMMENTS[rating - 1],
+                        Timestamp.valueOf(plan.time(created))});
+            }
+            stats.add(new Object[]{plan.productId(p), (long) count, sum, (double) sum / count,
+                    stars[1], stars[2], stars[3], stars[4], stars[5]});
+        }
+        jdbcTemplate.batchUpdate(INSERT_REVIEW, rows, REVIEW_TYPES);
+        jdbcTemplate.batchUpdate(INSERT_RATING_STATS, stats, RATING_STATS_TYPES);
+        return rows.size() + stats.size();
+    }
+
+    // One open cart for each of the first carts users of a fixed permutation
+    private int writeCarts(Plan plan, long from, long to, SplittableRandom random) {
+        List<Object[]> rows = new ArrayList<>((int) (to - from));
+        List<Object[]> items = new ArrayList<>();
+        for (long i = from; i < to; i++) {
+            long cartId = plan.firstCart + i;
+            long updated = plan.endEpochSecond - random.nextLong(7 * 86_400L);
+            long created = updated - random.nextLong(3 * 86_400L);
+            rows.add(new Object[]{cartId, plan.userId((int) (i * plan.cartStride % users)),
+                    Timestamp.valueOf(plan.time(created)), Timestamp.valueOf(plan.time(updated))});
+            int[] picked = pickProducts(plan, random, MAX_CART_ITEMS);
+            for (int k = 0; k < picked.length; k++) {
+                items.add(new Object[]{plan.firstCartItem + i * MAX_CART_ITEMS + k, cartId,
+                        plan.productId(picked[k]), quantity(random), plan.prices[picked[k]]});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_CART, rows, CART_TYPES);
+        jdbcTemplate.batchUpdate(INSERT_CART_ITEM, items, CART_ITEM_TYPES);
+        return rows.size() + items.size();
+    }
+
+    private int writeOrders(Plan plan, long from, long to, SplittableRandom random) {
+        List<Object[]> rows = new ArrayList<>((int) (to - from));
+        List<Object[]> items = new ArrayList<>((int) (to - from) * 2);
+        List<Object[]> payments = new ArrayList<>((int) (to - from));
+        for (long i = from; i < to; i++) {
+            long orderId = plan.firstOrder + i;
+            long userId = plan.userId(plan.userByRank[plan.userSampler.sample(random)]);
+            // Ids follow time, as they would for real checkouts
+            long placed = plan.endEpochSecond - plan.spanSeconds
+                    + (long) (plan.spanSeconds * ((i + random.nextDouble()) / orders));
+            double ageDays = (plan.endEpochSecond - placed) / 86_400.0;
+            String status = status(ageDays, random);
+            String paymentStatus = switch (status) {
+                case "PENDING" -> "PENDING";
+                case "CANCELLED" -> "FAILED";
+                default -> "SUCCESS";
+            };
+
+            int[] picked = pickProducts(plan, random, MAX_ORDER_ITEMS);
+            double total = 0;
+            for (int k = 0; k < picked.length; k++) {
+                int qty = quantity(random);
+                double price = plan.prices[picked[k]];
+                total += qty * price;
+                items.add(new Object[]{plan.firstOrderItem + i * MAX_ORDER_ITEMS + k, orderId,
+                        plan.productId(picked[k]), qty, price, qty * price});
+            }
+
+            boolean cod = paymentStatus.equals("SUCCESS") && random.nextDouble() < 0.35;
+            String razorpayOrderId = cod ? null : "order_" + Long.toString(random.nextLong() & Long.MAX_VALUE, 36);
+            rows.add(new Object[]{orderId, userId, Timestamp.valueOf(plan.time(placed)), status, paymentStatus,
+                    BigDecimal.valueOf(total).setScale(2, RoundingMode.HALF_UP), razorpayOrderId, address(random)});
+            if (!paymentStatus.equals("PENDING")) {
+                String gatewayRef = cod ? null : "pay_" + Long.toString(random.nextLong() & Long.MAX_VALUE, 36);
+                payments.add(new Object[]{plan.firstTransaction + i, orderId, userId, total,
+                        cod ? "COD" : "Razorpay", paymentStatus, gatewayRef,
+                        Timestamp.valueOf(plan.time(placed + 30 + random.nextInt(600)))});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_ORDER, rows, ORDER_TYPES);
+        jdbcTemplate.batchUpdate(INSERT_ORDER_ITEM, items, ORDER_ITEM_TYPES);
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION, payments, TRANSACTION_TYPES);
+        jdbcTemplate.update(LINK_TRANSACTIONS, plan.firstTransaction - plan.firstOrder,
+                plan.firstOrder + from, plan.firstOrder + to - 1);
+        return rows.size() + items.size() + payments.size();
+    }
+
+    // Recent orders are still moving through fulfilment; older ones are delivered or cancelled
+    private static String status(double ageDays, SplittableRandom random) {
+        double r = random.nextDouble();
+        if (ageDays < 2) {
+            return r < 0.35 ? "PENDING" : r < 0.75 ? "CONFIRMED" : "SHIPPED";
+        }
+        if (ageDays < 10) {
+            return r < 0.05 ? "CANCELLED" : r < 0.45 ? "SHIPPED" : "DELIVERED";
+        }
+        return r < 0.08 ? "CANCELLED" : "DELIVERED";
+    }
+
+    // 1 to max distinct products, mostly few, drawn by popularity
+    private static int[] pickProducts(Plan plan, SplittableRandom random, int max) {
+        int n = 1;
+        while (n < max && n < plan.prices.length && random.nextDouble() < 0.45) {
+            n++;
+        }
+        int[] picked = new int[n];
+        for (int k = 0; k < n; k++) {
+            int p;
+            boolean duplicate;
+            do {
+                p = plan.popularProduct(random);
+                duplicate = false;
+                for (int j = 0; j < k; j++) {
+                    duplicate |= picked[j] == p;
+                }
+            } while (duplicate);
+            picked[k] = p;
+        }
+        return picked;
+    }
+
+    private static int quantity(SplittableRandom random) {
+        double r = random.nextDouble();
+        return r < 0.8 ? 1 : r < 0.95 ? 2 : 3;
+    }
+
+    private static String address(SplittableRandom random) {
+        return (1 + random.nextInt(999)) + " " + STREETS[random.nextInt(STREETS.length)] + ", "
+                + CITIES[random.nextInt(CITIES.length)];
+    }
+
+    private void inChunks(String table, long rows, int phase, ChunkWriter writer) {
+        if (rows <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        long chunks = (rows + batchSize - 1) / batchSize;
+        long logEvery = Math.max(1, chunks / 10);
+        AtomicLong done = new AtomicLong();
+        AtomicLong written = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("datagen-", 1).factory());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (long c = 0; c < chunks; c++) {
+                long chunk = c;
+                long from = c * batchSize;
+                long to = Math.min(rows, from + batchSize);
+                futures.add(pool.submit(() -> {
+                    written.addAndGet(transactionTemplate.execute(status -> writer.write(from, to, random(phase, chunk))));
+                    long finished = done.incrementAndGet();
+                    if (finished % logEvery == 0 && finished < chunks) {
+                        log.info("{}: {}%", table, finished * 100 / chunks);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Generating " + table + " failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Generating " + table + " was interrupted", e);
+        } finally {
+            pool.shutdownNow();
+        }
+        long ms = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        log.info("{}: {} rows over all tables in {} ms ({} rows/s)", table, written.get(), ms, written.get() * 1000 / ms);
+    }
+
+    private long customerRoleId() {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM roles WHERE name = 'CUSTOMER'", Long.class);
+        if (!ids.isEmpty()) {
+            return ids.get(0);
+        }
+        jdbcTemplate.update("INSERT INTO roles (name) VALUES ('CUSTOMER')");
+        return jdbcTemplate.queryForObject("SELECT id FROM roles WHERE name = 'CUSTOMER'", Long.class);
+    }
+
+    private long nextId(String table, String column) {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(" + column + ") FROM " + table, Long.class);
+        return max == null ? 1 : max + 1;
+    }
+
+    // New rows carry explicit ids, so point the generators past them
+    private void moveIdsPastGeneratedRows() {
+        String[][] identities = {{"users", "user_id"}, {"product_category", "category_id"}, {"product", "product_id"},
+                {"review", "review_id"}, {"cart", "cart_id"}, {"cart_item", "cart_item_id"}, {"orders", "order_id"},
+                {"transaction", "transaction_id"}};
+        for (String[] identity : identities) {
+            jdbcTemplate.execute("ALTER TABLE " + identity[0] + " ALTER COLUMN " + identity[1]
+                    + " RESTART WITH " + nextId(identity[0], identity[1]));
+        }
+        // Hibernate hands out the block below the value it reads, so skip a whole block
+        jdbcTemplate.execute("ALTER SEQUENCE order_item_seq RESTART WITH "
+                + (nextId("order_item", "order_item_id") + ORDER_ITEM_ALLOCATION));
+    }
+
+    private SplittableRandom random(int phase, long chunk) {
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L + phase * 0xC2B2AE3D27D4EB4FL + chunk);
+    }
+
+    private static int[] shuffled(int n, SplittableRandom random) {
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = values[i];
+            values[i] = values[j];
+            values[j] = t;
+        }
+        return values;
+    }
+
+    // A step that visits every index of 0..n-1 once when taken n times modulo n
+    private static long coprimeStride(int n, SplittableRandom random) {
+        if (n == 1) {
+            return 1;
+        }
+        long stride = 1 + random.nextInt(n - 1);
+        while (gcd(stride, n) != 1) {
+            stride = stride % (n - 1) + 1;
+        }
+        return stride;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
@@ -0,0 +1,40 @@
+package com.ecommerce.bulk;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the synthetic data generator when the {@code datagen} profile is active, before the
+ * catalog indexes are built, so they pick up the new rows. With {@code --datagen.exit=true}
+ * (and {@code --server.port=0} if a server already holds the port) the process exits once
+ * the data is written; otherwise the application keeps serving on the generated data.
+ */
+@Component
+@Profile("datagen")
+public class SyntheticDataRunner implements ApplicationRunner {
+
+    private final SyntheticDataGenerator generator;
+    private final ConfigurableApplicationContext context;
+    private final Environment env;
+
+    public SyntheticDataRunner(SyntheticDataGenerator generator,
+                               ConfigurableApplicationContext context,
+                               Environment env) {
+        this.generator = generator;
+        this.context = context;
+        this.env = env;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        generator.generate();
+        if (env.getProperty("datagen.exit", Boolean.class, false)) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+}
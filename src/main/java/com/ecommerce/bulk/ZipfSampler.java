@@ -0,0 +1,43 @@
+package com.ecommerce.bulk;
+
+import java.util.SplittableRandom;
+
+/**
+ * Draws ranks 0..n-1 with probability proportional to 1 / (rank + 1)^exponent, so a few
+ * ranks take most of the draws. Exponent 0 is uniform. Built once (n doubles) and then
+ * read-only, so one sampler can be shared by every generator thread.
+ */
+final class ZipfSampler {
+
+    private final double[] cumulative;
+
+    ZipfSampler(int n, double exponent) {
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+    }
+
+    int sample(SplittableRandom random) {
+        double u = random.nextDouble() * cumulative[cumulative.length - 1];
+        int lo = 0;
+        int hi = cumulative.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cumulative[mid] < u) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // Share of all draws that land on the given rank
+    double probability(int rank) {
+        double below = rank == 0 ? 0 : cumulative[rank - 1];
+        return (cumulative[rank] - below) / cumulative[cumulative.length - 1];
+    }
+}
@@ -1,16 +1,66 @@
 package com.ecommerce.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.NoOpCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Configuration
 public class CacheConfig {
 
+    // Cache names
+    public static final String PRODUCTS = "products";                      // full catalog list
+    public static final String PRODUCT_BY_ID = "productById";
+    public static final String PRODUCTS_BY_CATEGORY = "productsByCategory";
+    public static final String PRODUCT_FILTER = "productFilter";
+    public static final String CATEGORIES = "categories";
+    public static final String REVIEW_STATS = "reviewStats";
+    public static final String USER_DETAILS = "userDetails";
+
+    // Default Caffeine specs; override any of them with cache.spec.<name> in application.properties
+    private static final Map<String, String> DEFAULT_SPECS = new LinkedHashMap<>();
+
+    static {
+        DEFAULT_SPECS.put(PRODUCTS, "maximumSize=1,expireAfterWrite=5m");
+        DEFAULT_SPECS.put(PRODUCT_BY_ID, "maximumSize=50000,expireAfterWrite=30m");
+        DEFAULT_SPECS.put(PRODUCTS_BY_CATEGORY, "maximumSize=1000,expireAfterWrite=10m");
+        DEFAULT_SPECS.put(PRODUCT_FILTER, "maximumSize=5000,expireAfterWrite=1m");
+        DEFAULT_SPECS.put(CATEGORIES, "maximumSize=100,expireAfterWrite=1h");
+        DEFAULT_SPECS.put(REVIEW_STATS, "maximumSize=50000,expireAfterWrite=30m");
+        DEFAULT_SPECS.put(USER_DETAILS, "maximumSize=10000,expireAfterWrite=15m");
+    }
+
     @Bean
-    public CacheManager cacheManager() {
-        // Simple in-memory cache for product listing
-        return new ConcurrentMapCacheManager("products");
+    public CacheManager cacheManager(Environment env) {
+        // Caches named in cache.disabled never hold anything, e.g. to measure the uncached path
+        Set<String> disabled = Set.of(env.getProperty("cache.disabled", String[].class, new String[0]));
+        List<Cache> caches = new ArrayList<>();
+        DEFAULT_SPECS.forEach((name, defaultSpec) -> {
+            if (disabled.contains(name)) {
+                caches.add(new NoOpCache(name));
+                return;
+            }
+            String spec = env.getProperty("cache.spec." + name, defaultSpec);
+            // W-TinyLFU eviction once maximumSize is reached; stats feed the actuator cache metrics
+            caches.add(new CaffeineCache(name, Caffeine.from(spec).recordStats().build()));
+        });
+        // Only the caches above exist; a typo in a cache name fails fast instead of creating an unbounded cache
+        SimpleCacheManager manager = new SimpleCacheManager();
+        manager.setCaches(caches);
+        manager.initializeCaches();
+        // Evictions issued inside a transaction are applied after commit, so readers cannot re-cache stale rows
+        return new TransactionAwareCacheManagerProxy(manager);
     }
 }
@@ -0,0 +1,104 @@
+package com.ecommerce.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache: one bounded Caffeine region per cached entity plus the
+ * query cache. Entities opt in with {@code @Cache(region = ...)} using the names below;
+ * Hibernate fails at startup if it asks for a region that is not configured here.
+ *
+ * Writes through Hibernate keep the regions current (READ_WRITE). Writes that bypass it,
+ * like the JDBC stock batch in ProductRepositoryImpl, must evict the rows they touch.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    // Region names
+    public static final String PRODUCT = "product";
+    public static final String PRODUCT_CATEGORY = "productCategory";
+    public static final String ROLE = "role";
+    public static final String QUERY_RESULTS = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+    public static final String UPDATE_TIMESTAMPS = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+
+    // Defaults in Caffeine spec form (maximumSize, expireAfterWrite); override with l2cache.spec.<region>
+    private static final Map<String, String> DEFAULT_SPECS = new LinkedHashMap<>();
+
+    static {
+        DEFAULT_SPECS.put(PRODUCT, "maximumSize=50000,expireAfterWrite=30m");
+        DEFAULT_SPECS.put(PRODUCT_CATEGORY, "maximumSize=1000,expireAfterWrite=1h");
+        DEFAULT_SPECS.put(ROLE, "maximumSize=100,expireAfterWrite=1h");
+        DEFAULT_SPECS.put(QUERY_RESULTS, "maximumSize=1000,expireAfterWrite=10m");
+        // Last-write time per table; evicting an entry would let stale query results through
+        DEFAULT_SPECS.put(UPDATE_TIMESTAMPS, "");
+    }
+
+    // A manager of our own rather than the provider's JVM-wide default: a second context in the
+    // same JVM (tests, benchmarks) would find its regions already created, and closing the
+    // shared default on shutdown would pull the regions from under the other context
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(Environment env) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager manager = provider.getCacheManager(
+                URI.create("hibernate-l2:" + UUID.randomUUID()), HibernateCacheConfig.class.getClassLoader());
+        DEFAULT_SPECS.forEach((region, defaultSpec) -> {
+            String spec = env.getProperty("l2cache.spec." + region, defaultSpec);
+            manager.createCache(region, regionConfiguration(region, spec));
+        });
+        return manager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> regionConfiguration(String region, String spec) {
+        CaffeineConfiguration<Object, Object> config = new CaffeineConfiguration<>();
+        // Hibernate stores immutable disassembled state, so copying on every get and put buys nothing
+        config.setStoreByValue(false);
+        for (String option : spec.split(",")) {
+            if (option.isBlank()) {
+                continue;
+            }
+            String[] kv = option.trim().split("=", 2);
+            switch (kv[0]) {
+                case "maximumSize" -> config.setMaximumSize(OptionalLong.of(Long.parseLong(kv[1])));
+                case "expireAfterWrite" -> config.setExpireAfterWrite(OptionalLong.of(parseDuration(kv[1]).toNanos()));
+                default -> throw new IllegalArgumentException("Unsupported option '" + option + "' for cache region " + region);
+            }
+        }
+        return config;
+    }
+
+    // Caffeine spec durations: a number followed by d, h, m or s
+    private static Duration parseDuration(String value) {
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 'd' -> Duration.ofDays(amount);
+            case 'h' -> Duration.ofHours(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 's' -> Duration.ofSeconds(amount);
+            default -> throw new IllegalArgumentException("Unsupported duration '" + value + "'");
+        };
+    }
+}
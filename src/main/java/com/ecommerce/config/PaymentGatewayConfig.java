@@ -0,0 +1,49 @@
+package com.ecommerce.config;
+
+import com.ecommerce.payment.CircuitBreaker;
+import com.ecommerce.payment.GuardedPaymentGateway;
+import com.ecommerce.payment.PaymentGateway;
+import com.ecommerce.payment.PaymentGatewayException;
+import com.ecommerce.payment.RazorpayGateway;
+import com.ecommerce.payment.StubPaymentGateway;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+public class PaymentGatewayConfig {
+
+    // payment.gateway.provider: razorpay (default) or stub; demo mode never calls the provider
+    @Bean
+    public GuardedPaymentGateway paymentGateway(Environment env, MeterRegistry registry) {
+        String provider = env.getProperty("payment.gateway.provider", "razorpay");
+        boolean demoMode = env.getProperty("payment.demo.mode", Boolean.class, false);
+
+        PaymentGateway delegate;
+        if ("stub".equalsIgnoreCase(provider)) {
+            delegate = new StubPaymentGateway(
+                    env.getProperty("payment.gateway.stub.latency-ms", Long.class, 200L),
+                    env.getProperty("payment.gateway.stub.failure-rate", Double.class, 0.0));
+        } else if (demoMode) {
+            delegate = request -> {
+                throw new PaymentGatewayException("Payment gateway is not used in demo mode", false);
+            };
+        } else {
+            delegate = new RazorpayGateway(env.getProperty("razorpay.key.id"), env.getProperty("razorpay.key.secret"));
+        }
+
+        CircuitBreaker breaker = new CircuitBreaker(
+                env.getProperty("payment.gateway.breaker.window", Integer.class, 20),
+                env.getProperty("payment.gateway.breaker.minimum-calls", Integer.class, 10),
+                env.getProperty("payment.gateway.breaker.failure-rate", Double.class, 0.5),
+                env.getProperty("payment.gateway.breaker.open-ms", Long.class, 10_000L),
+                env.getProperty("payment.gateway.breaker.half-open-probes", Integer.class, 3));
+
+        return new GuardedPaymentGateway(delegate, breaker,
+                env.getProperty("payment.gateway.max-concurrent", Integer.class, 20),
+                env.getProperty("payment.gateway.timeout-ms", Long.class, 5_000L),
+                env.getProperty("payment.gateway.max-wait-ms", Long.class, 50L),
+                registry);
+    }
+}
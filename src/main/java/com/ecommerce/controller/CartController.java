@@ -1,11 +1,12 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.dto.CartItemOperation;
 import com.ecommerce.dto.CartItemRequest;
 import com.ecommerce.dto.CartResponse;
+import com.ecommerce.security.AuthenticatedUser;
 import com.ecommerce.service.CartService;
-import com.ecommerce.service.UserService;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -15,42 +16,40 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import jakarta.validation.Valid;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/cart")
 public class CartController {
 
     private final CartService cartService;
-    private final UserService userService;
 
-    public CartController(CartService cartService, UserService userService) {
+    public CartController(CartService cartService) {
         this.cartService = cartService;
-        this.userService = userService;
     }
 
     @PostMapping("/add")
     public ResponseEntity<CartResponse> addToCart(@Valid @RequestBody CartItemRequest request,
-                                                  Authentication auth) {
-        String email = auth.getName();
-        var user = userService.getUserByEmail(email);
-        Long userId = user.getUserId();
-        return ResponseEntity.ok(cartService.addToCart(userId, request));
+                                                  @AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(cartService.addToCart(user.getUserId(), request));
+    }
+
+    // Several adds, quantity sets and removes in one request, answered with the resulting cart
+    @PostMapping("/items:batch")
+    public ResponseEntity<CartResponse> applyBatch(@RequestBody List<CartItemOperation> operations,
+                                                   @AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(cartService.applyBatch(user.getUserId(), operations));
     }
 
     @GetMapping
-    public ResponseEntity<CartResponse> getCart(Authentication auth) {
-        String email = auth.getName();
-        var user = userService.getUserByEmail(email);
-        Long userId = user.getUserId();
-        return ResponseEntity.ok(cartService.getCart(userId));
+    public ResponseEntity<CartResponse> getCart(@AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(cartService.getCart(user.getUserId()));
     }
 
     @DeleteMapping("/remove/{productId}")
     public ResponseEntity<String> remove(@PathVariable Long productId,
-                                         Authentication auth) {
-        String email = auth.getName();
-        var user = userService.getUserByEmail(email);
-        Long userId = user.getUserId();
-        cartService.removeItem(userId, productId);
+                                         @AuthenticationPrincipal AuthenticatedUser user) {
+        cartService.removeItem(user.getUserId(), productId);
         return ResponseEntity.ok("Item removed");
     }
 }
@@ -0,0 +1,41 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.bulk.CatalogImportService;
+import com.ecommerce.bulk.DataFormat;
+import com.ecommerce.dto.ImportReport;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+@RestController
+@RequestMapping("/api/admin/import")
+public class CatalogImportController {
+
+    private final CatalogImportService importService;
+
+    public CatalogImportController(CatalogImportService importService) {
+        this.importService = importService;
+    }
+
+    // ADMIN: bulk-load products from a CSV or NDJSON body, read as it arrives (optionally gzip-encoded)
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/products")
+    public ResponseEntity<ImportReport> importProducts(HttpServletRequest request,
+                                                       @RequestParam(required = false) String format) throws IOException {
+        DataFormat dataFormat = DataFormat.resolve(format, request.getContentType());
+        InputStream body = request.getInputStream();
+        if ("gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING))) {
+            body = new GZIPInputStream(body, 1 << 16);
+        }
+        return ResponseEntity.ok(importService.importProducts(body, dataFormat, true));
+    }
+}
@@ -0,0 +1,90 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.bulk.DataExportService;
+import com.ecommerce.bulk.DataFormat;
+import com.ecommerce.bulk.ExportDataset;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/admin/export")
+public class DataExportController {
+
+    private final DataExportService exportService;
+
+    public DataExportController(DataExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    // ADMIN: stream products, orders or transactions as CSV or NDJSON, gzip-encoded when the client accepts it.
+    // Written on the request thread rather than as an async body, so long exports are not cut off by the async timeout.
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/{dataset}")
+    public void export(@PathVariable String dataset,
+                       @RequestParam(required = false) String format,
+                       @RequestParam(required = false) Long sinceId,
+                       @RequestParam(required = false) String from,
+                       @RequestParam(required = false) String to,
+                       HttpServletRequest request,
+                       HttpServletResponse response) throws IOException {
+        ExportDataset target = ExportDataset.of(dataset);
+        DataFormat dataFormat = DataFormat.resolve(format, request.getHeader(HttpHeaders.ACCEPT), DataFormat.NDJSON);
+        LocalDateTime fromTime = parseTime(from, "from");
+        LocalDateTime toTime = parseTime(to, "to");
+
+        boolean gzip = accepts(request.getHeader(HttpHeaders.ACCEPT_ENCODING), "gzip");
+        response.setContentType(dataFormat == DataFormat.CSV ? "text/csv;charset=UTF-8" : "application/x-ndjson");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + target.fileName(dataFormat) + "\"");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        OutputStream out = gzip
+                ? new GZIPOutputStream(response.getOutputStream(), 1 << 16)
+                : response.getOutputStream();
+        exportService.export(target, dataFormat, sinceId, fromTime, toTime, out);
+        if (out instanceof GZIPOutputStream zipped) {
+            zipped.finish();
+        }
+        out.flush();
+    }
+
+    // A date means its start of day; an exclusive "to" date therefore ends the range before that day
+    private static LocalDateTime parseTime(String value, String name) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return value.length() == 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("Invalid " + name + ": " + value + " (use yyyy-MM-dd or yyyy-MM-ddTHH:mm:ss)");
+        }
+    }
+
+    private static boolean accepts(String acceptEncoding, String coding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] pieces = part.trim().split(";");
+            if (pieces[0].trim().equalsIgnoreCase(coding)) {
+                return pieces.length == 1 || !pieces[1].trim().replace(" ", "").equals("q=0");
+            }
+        }
+        return false;
+    }
+}
@@ -1,5 +1,6 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.dto.CartItemOperation;
 import com.ecommerce.dto.CartItemRequest;
 import com.ecommerce.dto.OrderResponse;
 import com.ecommerce.model.User;
@@ -10,6 +11,7 @@ import com.ecommerce.service.UserService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map; // Import Map for request body
 
@@ -48,10 +50,16 @@ public class DemoCheckoutController {
         // This ensures each demo checkout starts with a clean cart
         cartService.clearCart(DUMMY_USER_ID); // Assuming a clearCart method in CartService
 
-        // Add items from the request to the dummy user's cart
+        // Add items from the request to the dummy user's cart in one batch
+        List<CartItemOperation> operations = new ArrayList<>(cartItemRequests.size());
         for (CartItemRequest itemRequest : cartItemRequests) {
-            cartService.addToCart(DUMMY_USER_ID, itemRequest);
+            CartItemOperation op = new CartItemOperation();
+            op.setOp(CartItemOperation.Type.ADD);
+            op.setProductId(itemRequest.getProductId());
+            op.setQty(itemRequest.getQty());
+            operations.add(op);
         }
+        cartService.applyBatch(DUMMY_USER_ID, operations);
 
         // Place the order using the existing OrderService logic
         OrderResponse orderResponse = orderService.placeOrder(dummyUser);
@@ -3,54 +3,86 @@ package com.ecommerce.controller;
 import com.ecommerce.dto.OrderResponse;
 import com.ecommerce.model.OrderStatus;
 import com.ecommerce.model.User;
+import com.ecommerce.security.AuthenticatedUser;
+import com.ecommerce.service.IdempotencyService;
 import com.ecommerce.service.OrderService;
 import com.ecommerce.service.UserService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
 
     private final OrderService orderService;
     private final UserService userService;
+    private final IdempotencyService idempotencyService;
 
     public OrderController(OrderService orderService,
-                           UserService userService) {
+                           UserService userService,
+                           IdempotencyService idempotencyService) {
         this.orderService = orderService;
         this.userService = userService;
+        this.idempotencyService = idempotencyService;
     }
 
+    // A retry with the same Idempotency-Key gets the first order back instead of placing another
     @PostMapping("/checkout")
-    public ResponseEntity<OrderResponse> checkout(Authentication auth) {
-        String email = auth.getName();
-        User user = userService.getUserByEmail(email);
-        return ResponseEntity.ok(orderService.placeOrder(user));
+    public ResponseEntity<?> checkout(@AuthenticationPrincipal AuthenticatedUser principal,
+                                      @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("checkout:" + principal.getUserId(), idempotencyKey, "", () -> {
+            // Full row needed for the shipping address
+            User user = userService.getUserById(principal.getUserId());
+            return ResponseEntity.ok(orderService.placeOrder(user));
+        });
     }
 
     // USER: order history
     @GetMapping("/my")
-    public ResponseEntity<java.util.List<OrderResponse>> myOrders(Authentication auth) {
-        String email = auth.getName();
-        User user = userService.getUserByEmail(email);
-        return ResponseEntity.ok(orderService.getOrdersForUser(user));
+    public ResponseEntity<java.util.List<OrderResponse>> myOrders(@AuthenticationPrincipal AuthenticatedUser principal) {
+        return ResponseEntity.ok(orderService.getOrdersForUser(principal.getUserId()));
     }
 
     // GET order by ID
     @GetMapping("/{orderId}")
-    public ResponseEntity<OrderResponse> getOrderById(@PathVariable Long orderId, Authentication auth) {
+    public ResponseEntity<OrderResponse> getOrderById(@PathVariable Long orderId) {
         // In a real app, we should check if the order belongs to the user or if they are ADMIN
         // For this console, we'll allow it if they are authenticated
         return ResponseEntity.ok(orderService.getOrderById(orderId));
     }
 
-    // ADMIN: view all orders
+    // ADMIN: view all orders (keyset-paged when any paging or filter parameter is given)
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/all")
-    public ResponseEntity<java.util.List<OrderResponse>> allOrders() {
-        return ResponseEntity.ok(orderService.getAllOrders());
+    public ResponseEntity<?> allOrders(@RequestParam(required = false) OrderStatus status,
+                                       @RequestParam(required = false) String paymentStatus,
+                                       @RequestParam(required = false) Long userId,
+                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                       @RequestParam(required = false) Integer limit,
+                                       @RequestParam(required = false) String cursor) {
+        if (status == null && paymentStatus == null && userId == null && from == null && to == null
+                && limit == null && cursor == null) {
+            return ResponseEntity.ok(orderService.getAllOrders());
+        }
+        return ResponseEntity.ok(orderService.getOrderPage(status, paymentStatus, userId, from, to, cursor, limit));
+    }
+
+    // ADMIN: number of orders matching the same filters
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/all/count")
+    public ResponseEntity<Map<String, Long>> countOrders(@RequestParam(required = false) OrderStatus status,
+                                                         @RequestParam(required = false) String paymentStatus,
+                                                         @RequestParam(required = false) Long userId,
+                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(Map.of("count", orderService.countOrders(status, paymentStatus, userId, from, to)));
     }
 
     // ADMIN: update status
@@ -3,12 +3,20 @@ package com.ecommerce.controller;
 import com.ecommerce.dto.PaymentRequest;
 import com.ecommerce.dto.PaymentResponse;
 import com.ecommerce.model.Transaction;
+import com.ecommerce.payment.PaymentGatewayException;
 import com.ecommerce.repository.TransactionRepository;
+import com.ecommerce.security.AuthenticatedUser;
+import com.ecommerce.service.IdempotencyService;
 import com.ecommerce.service.PaymentService;
+import com.ecommerce.service.PaymentWebhookService;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.UncheckedIOException;
 import java.util.Map;
 import java.util.Optional;
 
@@ -17,7 +25,9 @@ import java.util.Optional;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final PaymentWebhookService paymentWebhookService;
     private final TransactionRepository transactionRepository;
+    private final IdempotencyService idempotencyService;
 
     @Value("${razorpay.key.id}")
     private String razorpayKeyId;
@@ -25,16 +35,27 @@ public class PaymentController {
     @Value("${payment.demo.mode:false}")
     private boolean demoMode;
 
-    public PaymentController(PaymentService paymentService, TransactionRepository transactionRepository) {
+    public PaymentController(PaymentService paymentService, PaymentWebhookService paymentWebhookService,
+                             TransactionRepository transactionRepository, IdempotencyService idempotencyService) {
         this.paymentService = paymentService;
+        this.paymentWebhookService = paymentWebhookService;
         this.transactionRepository = transactionRepository;
+        this.idempotencyService = idempotencyService;
     }
 
     /**
-     * Initiate payment - creates Razorpay order or processes demo payment
+     * Initiate payment - creates Razorpay order or processes demo payment.
+     * A retry with the same Idempotency-Key gets the first result instead of a second gateway order.
      */
     @PostMapping
-    public ResponseEntity<?> pay(@RequestBody PaymentRequest request) {
+    public ResponseEntity<?> pay(@AuthenticationPrincipal AuthenticatedUser principal,
+                                 @RequestBody PaymentRequest request,
+                                 @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("payment:" + principal.getUserId(), idempotencyKey,
+                request.getOrderId() + ":" + request.getPaymentMode(), () -> doPay(request));
+    }
+
+    private ResponseEntity<?> doPay(PaymentRequest request) {
         try {
             String result = paymentService.pay(request.getOrderId(), request.getPaymentMode());
 
@@ -51,6 +72,14 @@ public class PaymentController {
                     "orderId", request.getOrderId()
                 ));
             }
+        } catch (PaymentGatewayException e) {
+            // Provider slow, saturated or failing: the order stays PENDING and can be paid again
+            return ResponseEntity.status(e.isUnavailable() ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.BAD_GATEWAY)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(Map.of(
+                    "status", "ERROR",
+                    "message", e.getMessage()
+                ));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of(
                 "status", "ERROR",
@@ -100,6 +129,29 @@ public class PaymentController {
         }
     }
 
+    /**
+     * Razorpay webhook - signature checked and event queued here, orders updated in the background
+     */
+    @PostMapping("/webhook")
+    public ResponseEntity<?> webhook(@RequestBody byte[] body,
+                                     @RequestHeader(value = "X-Razorpay-Signature", required = false) String signature) {
+        try {
+            boolean queued = paymentWebhookService.receive(body, signature);
+            return ResponseEntity.ok(Map.of("status", queued ? "ACCEPTED" : "IGNORED"));
+        } catch (UncheckedIOException e) {
+            // Not on disk, so not acknowledged: Razorpay redelivers on any non-2xx
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of(
+                "status", "ERROR",
+                "message", "Webhook could not be stored"
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "status", "ERROR",
+                "message", e.getMessage()
+            ));
+        }
+    }
+
     /**
      * Get payment status for an order
      */
@@ -1,23 +1,38 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.dto.BulkUpdateReport;
+import com.ecommerce.dto.ProductFilter;
+import com.ecommerce.dto.ProductPatch;
 import com.ecommerce.dto.ProductRequest;
 import com.ecommerce.dto.ProductResponse;
+import com.ecommerce.dto.SuggestionResponse;
 import com.ecommerce.service.ProductService;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
+import tools.jackson.databind.ObjectMapper;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final ProductService productService;
+    private final ObjectMapper objectMapper;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ObjectMapper objectMapper) {
         this.productService = productService;
+        this.objectMapper = objectMapper;
     }
 
     // ADMIN: create product
@@ -27,10 +42,22 @@ public class ProductController {
         return ResponseEntity.ok(productService.createProduct(request));
     }
 
-    // PUBLIC: get all products
+    // PUBLIC: get all products (keyset-paged when limit or cursor is given)
     @GetMapping
-    public ResponseEntity<List<ProductResponse>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    public ResponseEntity<?> getAllProducts(@RequestParam(required = false) Integer limit,
+                                            @RequestParam(required = false) String cursor) {
+        if (limit == null && cursor == null) {
+            return ResponseEntity.ok(productService.getAllProducts());
+        }
+        return ResponseEntity.ok(productService.getProductPage(null, cursor, limit));
+    }
+
+    // PUBLIC: stream the whole catalog as NDJSON
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamProducts() {
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(out -> writeNdjson(null, out));
     }
 
     // PUBLIC: get single product
@@ -47,6 +74,13 @@ public class ProductController {
         return ResponseEntity.ok(productService.updateProduct(id, request));
     }
 
+    // ADMIN: set price and/or stock of many products in one transaction, with a result per row
+    @PreAuthorize("hasRole('ADMIN')")
+    @PatchMapping("/bulk")
+    public ResponseEntity<BulkUpdateReport> bulkUpdate(@RequestBody List<ProductPatch> patches) {
+        return ResponseEntity.ok(productService.bulkUpdate(patches));
+    }
+
     // ADMIN: delete product
     @PreAuthorize("hasRole('ADMIN')")
     @DeleteMapping("/{id}")
@@ -55,28 +89,73 @@ public class ProductController {
         return ResponseEntity.noContent().build();
     }
 
-    // PUBLIC: products by category
+    // PUBLIC: products by category (keyset-paged when limit or cursor is given)
     @GetMapping("/category/{id}")
-    public ResponseEntity<List<ProductResponse>> getByCategory(@PathVariable Long id) {
-        return ResponseEntity.ok(productService.getProductsByCategory(id));
+    public ResponseEntity<?> getByCategory(@PathVariable Long id,
+                                           @RequestParam(required = false) Integer limit,
+                                           @RequestParam(required = false) String cursor) {
+        if (limit == null && cursor == null) {
+            return ResponseEntity.ok(productService.getProductsByCategory(id));
+        }
+        return ResponseEntity.ok(productService.getProductPage(id, cursor, limit));
     }
 
-    // PUBLIC: search
+    // PUBLIC: stream one category as NDJSON
+    @GetMapping("/category/{id}/stream")
+    public ResponseEntity<StreamingResponseBody> streamByCategory(@PathVariable Long id) {
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(out -> writeNdjson(id, out));
+    }
+
+    // PUBLIC: ranked full-text search over name, SKU, category and description
     @GetMapping("/search")
-    public ResponseEntity<List<ProductResponse>> search(@RequestParam String keyword) {
-        return ResponseEntity.ok(productService.searchProducts(keyword));
+    public ResponseEntity<List<ProductResponse>> search(@RequestParam String keyword,
+                                                        @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productService.searchProducts(keyword, limit));
+    }
+
+    // PUBLIC: type-ahead suggestions for product names, SKUs and categories, most sold first
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionResponse>> suggest(@RequestParam String prefix,
+                                                            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productService.suggest(prefix, limit));
     }
 
-    // PUBLIC: filter
+    // PUBLIC: filter (one sorted page plus facet counts when limit, cursor or inStock is given)
     @GetMapping("/filter")
-    public ResponseEntity<List<ProductResponse>> filterProducts(
+    public ResponseEntity<?> filterProducts(
             @RequestParam(required = false) String keyword,
             @RequestParam(required = false) Long categoryId,
             @RequestParam(required = false) Double minPrice,
             @RequestParam(required = false) Double maxPrice,
-            @RequestParam(required = false) String sort) {
-        return ResponseEntity.ok(
-                productService.filterProducts(keyword, categoryId, minPrice, maxPrice, sort)
-        );
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        if (limit == null && cursor == null && inStock == null) {
+            return ResponseEntity.ok(
+                    productService.filterProducts(keyword, categoryId, minPrice, maxPrice, sort)
+            );
+        }
+        ProductFilter filter = new ProductFilter(keyword, categoryId, minPrice, maxPrice, inStock);
+        return ResponseEntity.ok(productService.filterPage(filter, sort, cursor, limit));
+    }
+
+    private void writeNdjson(Long categoryId, OutputStream out) throws IOException {
+        BufferedOutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+        try {
+            productService.streamProducts(categoryId, product -> {
+                try {
+                    buffered.write(objectMapper.writeValueAsBytes(product));
+                    buffered.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        buffered.flush();
     }
 }
@@ -1,15 +1,19 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.dto.RatingSummary;
 import com.ecommerce.dto.ReviewRequest;
 import com.ecommerce.dto.ReviewResponse;
 import com.ecommerce.model.User;
+import com.ecommerce.security.AuthenticatedUser;
+import com.ecommerce.service.PageCursor;
 import com.ecommerce.service.ReviewService;
 import com.ecommerce.service.UserService;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 
+import java.util.Collection;
 import java.util.List;
 
 @RestController
@@ -28,15 +32,35 @@ public class ReviewController {
     // USER: add review
     @PostMapping
     public ResponseEntity<String> addReview(@Valid @RequestBody ReviewRequest request,
-                                            Authentication auth) {
-        User user = userService.getUserByEmail(auth.getName());
+                                            @AuthenticationPrincipal AuthenticatedUser principal) {
+        User user = userService.getUserReference(principal.getUserId());
         reviewService.addReview(user, request);
         return ResponseEntity.ok("Review added");
     }
 
-    // PUBLIC: view reviews
+    // PUBLIC: view reviews, newest first (keyset-paged when limit or cursor is given)
     @GetMapping("/{productId}")
-    public ResponseEntity<List<ReviewResponse>> getReviews(@PathVariable Long productId) {
-        return ResponseEntity.ok(reviewService.getReviews(productId));
+    public ResponseEntity<?> getReviews(@PathVariable Long productId,
+                                        @RequestParam(required = false) Integer limit,
+                                        @RequestParam(required = false) String cursor) {
+        if (limit == null && cursor == null) {
+            return ResponseEntity.ok(reviewService.getReviews(productId));
+        }
+        return ResponseEntity.ok(reviewService.getReviewPage(productId, cursor, limit));
+    }
+
+    // PUBLIC: review count, average and star histogram
+    @GetMapping("/{productId}/summary")
+    public ResponseEntity<RatingSummary> getRatingSummary(@PathVariable Long productId) {
+        return ResponseEntity.ok(reviewService.getRatingSummary(productId));
+    }
+
+    // PUBLIC: summaries for a listing page, e.g. ?productIds=1,2,3
+    @GetMapping("/summary")
+    public ResponseEntity<Collection<RatingSummary>> getRatingSummaries(@RequestParam List<Long> productIds) {
+        if (productIds.size() > PageCursor.MAX_LIMIT) {
+            throw new RuntimeException("At most " + PageCursor.MAX_LIMIT + " productIds per request");
+        }
+        return ResponseEntity.ok(reviewService.getRatingSummaries(productIds).values());
     }
 }
@@ -0,0 +1,16 @@
+package com.ecommerce.dto;
+
+import java.util.List;
+
+// Outcome of a bulk price/stock update; results has one entry per request row, in request order
+public record BulkUpdateReport(int received,
+                               int updated,
+                               int failed,
+                               long durationMs,
+                               List<RowResult> results) {
+
+    public enum Status { UPDATED, NOT_FOUND, INVALID }
+
+    public record RowResult(Long productId, Status status, String message) {
+    }
+}
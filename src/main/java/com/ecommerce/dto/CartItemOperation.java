@@ -0,0 +1,37 @@
+package com.ecommerce.dto;
+
+// One entry of a batch cart change: ADD increases qty, SET replaces it (0 removes), REMOVE drops the line
+public class CartItemOperation {
+
+    public enum Type { ADD, SET, REMOVE }
+
+    private Type op;
+
+    private Long productId;
+
+    private int qty;
+
+    public Type getOp() {
+        return op;
+    }
+
+    public void setOp(Type op) {
+        this.op = op;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public int getQty() {
+        return qty;
+    }
+
+    public void setQty(int qty) {
+        this.qty = qty;
+    }
+}
@@ -0,0 +1,9 @@
+package com.ecommerce.dto;
+
+// Stored cart line without its cart or product entities, for reconciling the in-memory cart
+public record CartItemRow(Long cartItemId,
+                          Long cartId,
+                          Long productId,
+                          int qty,
+                          double priceAtAdd) {
+}
@@ -0,0 +1,27 @@
+package com.ecommerce.dto;
+
+import java.util.List;
+
+public class CursorPageResponse<T> {
+
+    private List<T> items;
+    private String nextCursor; // null when there are no more rows
+    private boolean hasMore;
+
+    public CursorPageResponse() {}
+
+    public CursorPageResponse(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
@@ -0,0 +1,17 @@
+package com.ecommerce.dto;
+
+import java.util.List;
+
+// Outcome of a bulk import; errors holds at most catalog.import.max-errors rows
+public record ImportReport(long rowsRead,
+                           long imported,
+                           long failed,
+                           int categoriesCreated,
+                           long durationMs,
+                           List<RowError> errors,
+                           boolean errorsTruncated) {
+
+    // line is the 1-based line of the row in the input (the CSV header is line 1)
+    public record RowError(long line, String sku, String message) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.ecommerce.dto;
+
+// Flat order item row joined with its product name
+public record OrderLineView(Long orderId,
+                            Long productId,
+                            String productName,
+                            int qty,
+                            double priceAtPurchase,
+                            double subtotal) {
+}
@@ -0,0 +1,21 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Flat order row (with user and linked transaction) read by JPQL constructor expression
+public record OrderSummaryView(Long orderId,
+                               BigDecimal totalAmount,
+                               OrderStatus status,
+                               String paymentStatus,
+                               LocalDateTime orderDate,
+                               Long userId,
+                               String userEmail,
+                               Long transactionId,
+                               String paymentMode,
+                               String paymentGatewayRef,
+                               String transactionStatus,
+                               LocalDateTime transactionDate) {
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class ProductFacets {
+
+    private Map<Long, Long> categories;     // categoryId -> matching products
+    private List<PriceBucket> priceBuckets;
+    private long inStock;
+    private long total;                     // products matching every filter
+
+    // [min, max); max is null for the open-ended top bucket
+    public record PriceBucket(double min, Double max, long count) {
+    }
+
+    public Map<Long, Long> getCategories() { return categories; }
+    public void setCategories(Map<Long, Long> categories) { this.categories = categories; }
+
+    public List<PriceBucket> getPriceBuckets() { return priceBuckets; }
+    public void setPriceBuckets(List<PriceBucket> priceBuckets) { this.priceBuckets = priceBuckets; }
+
+    public long getInStock() { return inStock; }
+    public void setInStock(long inStock) { this.inStock = inStock; }
+
+    public long getTotal() { return total; }
+    public void setTotal(long total) { this.total = total; }
+}
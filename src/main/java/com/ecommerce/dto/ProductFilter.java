@@ -0,0 +1,15 @@
+package com.ecommerce.dto;
+
+// Catalog filter; null fields are not applied. keyword matches product names, case-insensitively
+public record ProductFilter(String keyword,
+                            Long categoryId,
+                            Double minPrice,
+                            Double maxPrice,
+                            Boolean inStock) {
+
+    public ProductFilter {
+        if (keyword != null && keyword.isBlank()) {
+            keyword = null;
+        }
+    }
+}
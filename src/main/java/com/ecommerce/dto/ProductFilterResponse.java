@@ -0,0 +1,19 @@
+package com.ecommerce.dto;
+
+import java.util.List;
+
+// One page of a filtered listing; facets are null while the facet index is still building
+public class ProductFilterResponse extends CursorPageResponse<ProductResponse> {
+
+    private ProductFacets facets;
+
+    public ProductFilterResponse() {}
+
+    public ProductFilterResponse(List<ProductResponse> items, String nextCursor, ProductFacets facets) {
+        super(items, nextCursor);
+        this.facets = facets;
+    }
+
+    public ProductFacets getFacets() { return facets; }
+    public void setFacets(ProductFacets facets) { this.facets = facets; }
+}
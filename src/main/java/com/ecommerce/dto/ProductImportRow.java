@@ -0,0 +1,16 @@
+package com.ecommerce.dto;
+
+// One product of a bulk import; the category is given by id or by name (created if missing)
+public record ProductImportRow(String productName,
+                               String productDescription,
+                               String sku,
+                               String picture,
+                               Double basePrice,
+                               Integer stockQty,
+                               Long categoryId,
+                               String categoryName) {
+
+    public ProductImportRow withCategoryId(Long id) {
+        return new ProductImportRow(productName, productDescription, sku, picture, basePrice, stockQty, id, categoryName);
+    }
+}
@@ -0,0 +1,5 @@
+package com.ecommerce.dto;
+
+// One row of a bulk price/stock update; a null field is left unchanged
+public record ProductPatch(Long productId, Double basePrice, Integer stockQty) {
+}
@@ -11,6 +11,8 @@ public class ProductResponse {
     private int stockQty;
     private Long categoryId;
     private String categoryName;
+    private double averageRating;
+    private long reviewCount;
 
     public Long getProductId() { return productId; }
     public void setProductId(Long productId) { this.productId = productId; }
@@ -38,4 +40,10 @@ public class ProductResponse {
 
     public String getCategoryName() { return categoryName; }
     public void setCategoryName(String categoryName) { this.categoryName = categoryName; }
+
+    public double getAverageRating() { return averageRating; }
+    public void setAverageRating(double averageRating) { this.averageRating = averageRating; }
+
+    public long getReviewCount() { return reviewCount; }
+    public void setReviewCount(long reviewCount) { this.reviewCount = reviewCount; }
 }
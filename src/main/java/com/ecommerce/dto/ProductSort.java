@@ -0,0 +1,25 @@
+package com.ecommerce.dto;
+
+import java.util.Locale;
+
+// Sort orders for product listings; every order ends with productId so pages are stable
+public enum ProductSort {
+    PRICE_ASC,
+    PRICE_DESC,
+    RATING,   // highest average rating first
+    NEWEST;   // highest productId first
+
+    // Accepts the enum names in any case plus the legacy "asc"/"desc" price sorts; null or unknown means NEWEST
+    public static ProductSort fromParam(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return NEWEST;
+        }
+        return switch (sort.toLowerCase(Locale.ROOT)) {
+            case "asc", "price_asc" -> PRICE_ASC;
+            case "desc", "price_desc" -> PRICE_DESC;
+            case "rating" -> RATING;
+            // Unknown values list in the default order rather than failing the request
+            default -> NEWEST;
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package com.ecommerce.dto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class RatingSummary {
+
+    private Long productId;
+    private long reviewCount;
+    private double averageRating;
+    private Map<Integer, Long> histogram; // stars (1-5) -> number of reviews
+
+    public RatingSummary() {}
+
+    public RatingSummary(Long productId, long reviewCount, long ratingSum, long... stars) {
+        this.productId = productId;
+        this.reviewCount = reviewCount;
+        this.averageRating = reviewCount == 0 ? 0.0 : (double) ratingSum / reviewCount;
+        this.histogram = new LinkedHashMap<>();
+        for (int i = 0; i < 5; i++) {
+            histogram.put(i + 1, i < stars.length ? stars[i] : 0L);
+        }
+    }
+
+    public static RatingSummary empty(Long productId) {
+        return new RatingSummary(productId, 0, 0);
+    }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public long getReviewCount() { return reviewCount; }
+    public void setReviewCount(long reviewCount) { this.reviewCount = reviewCount; }
+
+    public double getAverageRating() { return averageRating; }
+    public void setAverageRating(double averageRating) { this.averageRating = averageRating; }
+
+    public Map<Integer, Long> getHistogram() { return histogram; }
+    public void setHistogram(Map<Integer, Long> histogram) { this.histogram = histogram; }
+}
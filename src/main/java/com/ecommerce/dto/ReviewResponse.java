@@ -1,9 +1,27 @@
 package com.ecommerce.dto;
 
+import java.time.LocalDateTime;
+
 public class ReviewResponse {
+    private Long reviewId;
     private String userEmail;
     private int rating;
     private String comment;
+    private LocalDateTime createdAt;
+
+    public ReviewResponse() {}
+
+    // Used by the JPQL constructor projection in ReviewRepository
+    public ReviewResponse(Long reviewId, String userEmail, int rating, String comment, LocalDateTime createdAt) {
+        this.reviewId = reviewId;
+        this.userEmail = userEmail;
+        this.rating = rating;
+        this.comment = comment;
+        this.createdAt = createdAt;
+    }
+
+    public Long getReviewId() { return reviewId; }
+    public void setReviewId(Long reviewId) { this.reviewId = reviewId; }
 
     public String getUserEmail() { return userEmail; }
     public void setUserEmail(String userEmail) { this.userEmail = userEmail; }
@@ -13,4 +31,7 @@ public class ReviewResponse {
 
     public String getComment() { return comment; }
     public void setComment(String comment) { this.comment = comment; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 }
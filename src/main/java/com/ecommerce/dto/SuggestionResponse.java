@@ -0,0 +1,30 @@
+package com.ecommerce.dto;
+
+public class SuggestionResponse {
+
+    private String text;
+    private String type;    // PRODUCT, SKU or CATEGORY
+    private Long id;        // productId, or categoryId for CATEGORY
+    private long score;     // units sold
+
+    public SuggestionResponse() {}
+
+    public SuggestionResponse(String text, String type, Long id, long score) {
+        this.text = text;
+        this.type = type;
+        this.id = id;
+        this.score = score;
+    }
+
+    public String getText() { return text; }
+    public void setText(String text) { this.text = text; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public long getScore() { return score; }
+    public void setScore(long score) { this.score = score; }
+}
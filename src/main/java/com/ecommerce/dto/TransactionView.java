@@ -0,0 +1,12 @@
+package com.ecommerce.dto;
+
+import java.time.LocalDateTime;
+
+// Flat transaction row keyed by its order
+public record TransactionView(Long orderId,
+                              Long transactionId,
+                              String paymentMode,
+                              String paymentGatewayRef,
+                              String paymentStatus,
+                              LocalDateTime transactionDate) {
+}
@@ -0,0 +1,32 @@
+package com.ecommerce.event;
+
+import com.ecommerce.model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Order lifecycle events delivered through the outbox. An event is never lost before
+ * it is dispatched and may be seen again after a restart, so subscribers must tolerate
+ * duplicates. Per subscriber, delivery is best effort: a batch a subscriber throws on
+ * is not offered to it again.
+ */
+public sealed interface OrderEvent {
+
+    Long orderId();
+
+    record OrderPlaced(Long orderId, Long userId, BigDecimal totalAmount, Map<Long, Integer> quantities)
+            implements OrderEvent {
+    }
+
+    record PaymentSucceeded(Long orderId, String paymentRef, String paymentMode, BigDecimal amount)
+            implements OrderEvent {
+    }
+
+    // A payment was captured for an order that could not take it, e.g. one cancelled on expiry
+    record RefundRequired(Long orderId, String paymentRef, BigDecimal amount) implements OrderEvent {
+    }
+
+    record OrderStatusChanged(Long orderId, OrderStatus from, OrderStatus to) implements OrderEvent {
+    }
+}
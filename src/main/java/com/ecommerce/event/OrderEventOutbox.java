@@ -0,0 +1,163 @@
+package com.ecommerce.event;
+
+import com.ecommerce.model.OutboxEvent;
+import com.ecommerce.repository.OutboxEventRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Transactional outbox for order events.
+ *
+ * {@link #append} inserts the event into {@code outbox_event} inside the caller's
+ * transaction, so it exists exactly when the order change does. One dispatcher thread
+ * reads committed rows in id order, up to {@code outbox.batch-size} at a time, hands
+ * each batch to every {@link OrderEventSubscriber} and deletes the rows. It is woken
+ * right after a commit that wrote events and otherwise polls every
+ * {@code outbox.poll-interval-ms}, which also picks up rows left by a crash. The
+ * request path pays for one insert, however many subscribers there are.
+ *
+ * A subscriber that throws is logged and skipped for that batch; subscribers keep
+ * derived state (metrics, indexes, caches) and must not be the only record of anything.
+ */
+@Service
+public class OrderEventOutbox {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderEventOutbox.class);
+
+    private static final Map<String, Class<? extends OrderEvent>> TYPES = new HashMap<>();
+
+    static {
+        for (Class<?> type : OrderEvent.class.getPermittedSubclasses()) {
+            TYPES.put(type.getSimpleName(), type.asSubclass(OrderEvent.class));
+        }
+    }
+
+    private final OutboxEventRepository repository;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<OrderEventSubscriber> subscriberProvider;
+    private final int batchSize;
+    private final long pollIntervalMs;
+
+    private volatile Thread dispatcher;
+    private volatile boolean running;
+
+    public OrderEventOutbox(OutboxEventRepository repository,
+                            ObjectMapper objectMapper,
+                            ObjectProvider<OrderEventSubscriber> subscriberProvider,
+                            @Value("${outbox.batch-size:500}") int batchSize,
+                            @Value("${outbox.poll-interval-ms:1000}") long pollIntervalMs) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.subscriberProvider = subscriberProvider;
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    // Must run inside the transaction that makes the change the event describes
+    public void append(OrderEvent event) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Order events must be written in the transaction of the change");
+        }
+        OutboxEvent row = new OutboxEvent();
+        row.setType(event.getClass().getSimpleName());
+        row.setPayload(objectMapper.writeValueAsString(event));
+        row.setCreatedAt(LocalDateTime.now());
+        repository.save(row);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                Thread d = dispatcher;
+                if (d != null) {
+                    LockSupport.unpark(d);
+                }
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        List<OrderEventSubscriber> subscribers = subscriberProvider.orderedStream().toList();
+        dispatcher = Thread.ofPlatform().daemon().name("order-outbox").start(() -> dispatchLoop(subscribers));
+        log.info("Order event outbox dispatching to {} subscribers", subscribers.size());
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        Thread d = dispatcher;
+        if (d != null) {
+            LockSupport.unpark(d);
+            try {
+                d.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void dispatchLoop(List<OrderEventSubscriber> subscribers) {
+        while (running) {
+            int dispatched = 0;
+            try {
+                dispatched = dispatchBatch(subscribers);
+            } catch (RuntimeException e) {
+                log.warn("Order event dispatch failed, will retry: {}", e.getMessage());
+            }
+            // A full batch means more may be waiting; otherwise sleep until the next commit or poll
+            if (dispatched < batchSize) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(pollIntervalMs));
+            }
+        }
+    }
+
+    private int dispatchBatch(List<OrderEventSubscriber> subscribers) {
+        List<OutboxEvent> rows = repository.findByOrderByIdAsc(Limit.of(batchSize));
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<OrderEvent> events = new ArrayList<>(rows.size());
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (OutboxEvent row : rows) {
+            ids.add(row.getId());
+            Class<? extends OrderEvent> type = TYPES.get(row.getType());
+            try {
+                events.add(objectMapper.readValue(row.getPayload(), type));
+            } catch (RuntimeException e) {
+                log.error("Dropping unreadable order event {} of type {}: {}", row.getId(), row.getType(), e.getMessage());
+            }
+        }
+        List<OrderEvent> batch = List.copyOf(events);
+        for (OrderEventSubscriber subscriber : subscribers) {
+            try {
+                subscriber.onEvents(batch);
+            } catch (RuntimeException e) {
+                log.warn("{} failed on {} order events: {}", subscriber.getClass().getSimpleName(), batch.size(), e.getMessage());
+            }
+        }
+        repository.deleteAllByIdInBatch(ids);
+        return rows.size();
+    }
+}
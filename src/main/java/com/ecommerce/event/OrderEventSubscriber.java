@@ -0,0 +1,13 @@
+package com.ecommerce.event;
+
+import java.util.List;
+
+/**
+ * In-process consumer of order events. Every bean implementing this receives each
+ * dispatched batch, in outbox order, on the dispatcher thread. If it throws, the batch
+ * is still removed from the outbox, so it must only keep state that can be rebuilt.
+ */
+public interface OrderEventSubscriber {
+
+    void onEvents(List<OrderEvent> events);
+}
@@ -0,0 +1,52 @@
+package com.ecommerce.event;
+
+import com.ecommerce.model.OrderStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Order analytics for /actuator/metrics, fed from the outbox instead of the checkout path
+@Component
+public class OrderMetrics implements OrderEventSubscriber {
+
+    private final Counter placed;
+    private final DistributionSummary placedValue;
+    private final Counter paid;
+    private final DistributionSummary revenue;
+    private final Counter refundsRequired;
+    private final Map<OrderStatus, Counter> statusChanges = new EnumMap<>(OrderStatus.class);
+
+    public OrderMetrics(MeterRegistry registry) {
+        this.placed = Counter.builder("orders.placed").register(registry);
+        this.placedValue = DistributionSummary.builder("orders.placed.value").register(registry);
+        this.paid = Counter.builder("orders.paid").register(registry);
+        this.revenue = DistributionSummary.builder("orders.revenue").register(registry);
+        this.refundsRequired = Counter.builder("orders.refunds.required").register(registry);
+        for (OrderStatus status : OrderStatus.values()) {
+            statusChanges.put(status, Counter.builder("orders.status.changes").tag("to", status.name()).register(registry));
+        }
+    }
+
+    @Override
+    public void onEvents(List<OrderEvent> events) {
+        for (OrderEvent event : events) {
+            switch (event) {
+                case OrderEvent.OrderPlaced e -> {
+                    placed.increment();
+                    placedValue.record(e.totalAmount().doubleValue());
+                }
+                case OrderEvent.PaymentSucceeded e -> {
+                    paid.increment();
+                    revenue.record(e.amount().doubleValue());
+                }
+                case OrderEvent.RefundRequired e -> refundsRequired.increment();
+                case OrderEvent.OrderStatusChanged e -> statusChanges.get(e.to()).increment();
+            }
+        }
+    }
+}
@@ -6,7 +6,15 @@ import java.util.List;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // Admin listing filters; order_id last so keyset pages come straight off the index
+        @Index(name = "idx_orders_status_id", columnList = "status, order_id"),
+        @Index(name = "idx_orders_payment_status_id", columnList = "payment_status, order_id"),
+        @Index(name = "idx_orders_user_id", columnList = "user_id, order_id"),
+        @Index(name = "idx_orders_date_id", columnList = "order_date, order_id"),
+        // Payment verify and webhooks look orders up by the gateway's order id
+        @Index(name = "idx_orders_razorpay_order_id", columnList = "razorpay_order_id")
+})
 public class Order {
 
     @Id
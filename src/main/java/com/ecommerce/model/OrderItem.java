@@ -7,8 +7,10 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 @Table(name = "order_item")
 public class OrderItem {
 
+    // Sequence ids (pooled by 50) let Hibernate batch order item inserts; IDENTITY forces one round trip per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
+    @SequenceGenerator(name = "order_item_seq", sequenceName = "order_item_seq", allocationSize = 50)
     private Long orderItemId;
 
     private int qty;
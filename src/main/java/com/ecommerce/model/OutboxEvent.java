@@ -0,0 +1,32 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Order lifecycle event written in the same transaction as the change it describes; deleted once dispatched
+@Entity
+@Table(name = "outbox_event")
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String type;
+
+    @Lob
+    @Column(nullable = false)
+    private String payload; // event record as JSON
+
+    private LocalDateTime createdAt;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -1,10 +1,19 @@
 package com.ecommerce.model;
 
+import com.ecommerce.config.HibernateCacheConfig;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
-@Table(name = "product")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.PRODUCT)
+@Table(name = "product",
+       indexes = {
+           @Index(name = "idx_product_category_id", columnList = "category_id, product_id"),
+           @Index(name = "idx_product_price", columnList = "base_price, product_id")
+       })
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
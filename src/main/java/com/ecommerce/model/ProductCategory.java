@@ -1,9 +1,14 @@
 package com.ecommerce.model;
 
+import com.ecommerce.config.HibernateCacheConfig;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.PRODUCT_CATEGORY)
 @Table(name = "product_category")
 public class ProductCategory {
     @Id
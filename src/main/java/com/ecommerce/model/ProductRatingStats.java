@@ -0,0 +1,42 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.*;
+
+// Running review aggregate per product, kept in step with the review table on every new review
+@Entity
+@Table(name = "product_rating_stats")
+public class ProductRatingStats {
+
+    @Id
+    private Long productId;
+
+    private long reviewCount;
+    private long ratingSum;
+    private Double averageRating; // ratingSum / reviewCount, stored so listings can sort on it
+
+    // Histogram: number of 1-star ... 5-star reviews
+    private long stars1;
+    private long stars2;
+    private long stars3;
+    private long stars4;
+    private long stars5;
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+    public long getReviewCount() { return reviewCount; }
+    public void setReviewCount(long reviewCount) { this.reviewCount = reviewCount; }
+    public long getRatingSum() { return ratingSum; }
+    public void setRatingSum(long ratingSum) { this.ratingSum = ratingSum; }
+    public Double getAverageRating() { return averageRating; }
+    public void setAverageRating(Double averageRating) { this.averageRating = averageRating; }
+    public long getStars1() { return stars1; }
+    public void setStars1(long stars1) { this.stars1 = stars1; }
+    public long getStars2() { return stars2; }
+    public void setStars2(long stars2) { this.stars2 = stars2; }
+    public long getStars3() { return stars3; }
+    public void setStars3(long stars3) { this.stars3 = stars3; }
+    public long getStars4() { return stars4; }
+    public void setStars4(long stars4) { this.stars4 = stars4; }
+    public long getStars5() { return stars5; }
+    public void setStars5(long stars5) { this.stars5 = stars5; }
+}
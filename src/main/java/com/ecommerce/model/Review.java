@@ -5,7 +5,8 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "review",
-       uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "product_id"}))
+       uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "product_id"}),
+       indexes = @Index(name = "idx_review_product_id", columnList = "product_id, review_id"))
 public class Review {
 
     @Id
@@ -1,8 +1,13 @@
 package com.ecommerce.model;
 
+import com.ecommerce.config.HibernateCacheConfig;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.ROLE)
 @Table(name = "roles")
 public class Role {
 
@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transaction")
+@Table(name = "transaction", indexes = {
+        // Payment dedupe looks transactions up by the gateway's payment id
+        @Index(name = "idx_transaction_gateway_ref", columnList = "payment_gateway_ref")
+})
 public class Transaction {
 
     @Id
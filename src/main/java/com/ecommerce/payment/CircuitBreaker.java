@@ -0,0 +1,130 @@
+package com.ecommerce.payment;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Count-based circuit breaker.
+ *
+ * CLOSED records the outcome of the last {@code windowSize} calls and opens once
+ * at least {@code minimumCalls} were seen and the failure share reaches
+ * {@code failureRateThreshold}. OPEN rejects every call for {@code openDuration},
+ * then HALF_OPEN lets {@code halfOpenProbes} calls through: all of them
+ * succeeding closes the breaker, any failure opens it again.
+ *
+ * Every granted {@link #tryAcquire()} must be followed by exactly one of
+ * {@link #onSuccess()}, {@link #onFailure()} or {@link #release()}.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenProbes;
+
+    private State state = State.CLOSED;
+    private final boolean[] window;   // true = failure; ring buffer of the last outcomes
+    private int windowPos;
+    private int windowCount;
+    private int windowFailures;
+    private long openedAt;
+    private int probesStarted;
+    private int probesSucceeded;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+                          long openDurationMs, int halfOpenProbes) {
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+        this.halfOpenProbes = halfOpenProbes;
+        this.window = new boolean[windowSize];
+    }
+
+    public synchronized State state() {
+        // Report HALF_OPEN as soon as the open period is over, even before the next call arrives
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probesStarted = 0;
+            probesSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesStarted >= halfOpenProbes) {
+                return false;
+            }
+            probesStarted++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++probesSucceeded >= halfOpenProbes) {
+                close();
+            }
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(true);
+            if (windowCount >= minimumCalls && windowFailures >= failureRateThreshold * windowCount) {
+                open();
+            }
+        }
+    }
+
+    // The call was granted but never made (e.g. the bulkhead was full)
+    public synchronized void release() {
+        if (state == State.HALF_OPEN && probesStarted > probesSucceeded) {
+            probesStarted--;
+        }
+    }
+
+    private void record(boolean failure) {
+        if (windowCount == windowSize) {
+            if (window[windowPos]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowPos] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowPos = (windowPos + 1) % windowSize;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        windowPos = 0;
+        windowCount = 0;
+        windowFailures = 0;
+    }
+}
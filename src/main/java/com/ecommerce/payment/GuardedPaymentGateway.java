@@ -0,0 +1,136 @@
+package com.ecommerce.payment;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Isolates request threads from a slow or failing provider.
+ *
+ * Calls run on virtual threads; the caller waits at most {@code timeout} and gets a
+ * {@link PaymentGatewayException} after that. A semaphore bounds calls in flight,
+ * including calls the caller already gave up on, so a hung provider holds at most
+ * {@code maxConcurrent} permits and later callers fail within {@code maxWait}
+ * instead of queueing. The {@link CircuitBreaker} stops calling a provider that
+ * keeps failing and probes it again after a pause.
+ *
+ * Order creation is not idempotent on the provider side, so nothing is retried here.
+ */
+public class GuardedPaymentGateway implements PaymentGateway, AutoCloseable {
+
+    private final PaymentGateway delegate;
+    private final CircuitBreaker breaker;
+    private final Semaphore bulkhead;
+    private final long timeoutMs;
+    private final long maxWaitMs;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("payment-gateway-", 0).factory());
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final Timer latency;
+    private final Counter success;
+    private final Counter failure;
+    private final Counter timeout;
+    private final Counter rejected;
+    private final Counter shortCircuited;
+
+    public GuardedPaymentGateway(PaymentGateway delegate, CircuitBreaker breaker,
+                                 int maxConcurrent, long timeoutMs, long maxWaitMs,
+                                 MeterRegistry registry) {
+        this.delegate = delegate;
+        this.breaker = breaker;
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.timeoutMs = timeoutMs;
+        this.maxWaitMs = maxWaitMs;
+
+        Gauge.builder("payment.gateway.inflight", inFlight, AtomicInteger::get)
+                .description("Provider calls running, including ones whose caller timed out")
+                .register(registry);
+        Gauge.builder("payment.gateway.circuit.state", breaker, b -> b.state().ordinal())
+                .description("0 = closed, 1 = half-open, 2 = open")
+                .register(registry);
+        this.latency = Timer.builder("payment.gateway.latency").register(registry);
+        this.success = calls(registry, "success");
+        this.failure = calls(registry, "failure");
+        this.timeout = calls(registry, "timeout");
+        this.rejected = calls(registry, "rejected");
+        this.shortCircuited = calls(registry, "short_circuited");
+    }
+
+    private static Counter calls(MeterRegistry registry, String outcome) {
+        return Counter.builder("payment.gateway.calls").tag("outcome", outcome).register(registry);
+    }
+
+    @Override
+    public String createOrder(OrderRequest request) {
+        if (!breaker.tryAcquire()) {
+            shortCircuited.increment();
+            throw new PaymentGatewayException("Payment gateway is temporarily unavailable, please retry shortly", true);
+        }
+        boolean permitted;
+        try {
+            permitted = bulkhead.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            breaker.release();
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayException("Interrupted while waiting for the payment gateway", true);
+        }
+        if (!permitted) {
+            breaker.release();
+            rejected.increment();
+            throw new PaymentGatewayException("Payment gateway is busy, please retry shortly", true);
+        }
+
+        inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        // The permit is returned when the provider call really ends, not when the caller stops waiting
+        Future<String> call = executor.submit(() -> {
+            try {
+                return delegate.createOrder(request);
+            } finally {
+                inFlight.decrementAndGet();
+                bulkhead.release();
+            }
+        });
+        try {
+            String orderId = call.get(timeoutMs, TimeUnit.MILLISECONDS);
+            breaker.onSuccess();
+            success.increment();
+            return orderId;
+        } catch (TimeoutException e) {
+            call.cancel(true);
+            breaker.onFailure();
+            timeout.increment();
+            throw new PaymentGatewayException("Payment gateway did not answer in time, please retry", true);
+        } catch (ExecutionException e) {
+            breaker.onFailure();
+            failure.increment();
+            if (e.getCause() instanceof PaymentGatewayException pge) {
+                throw pge;
+            }
+            throw new PaymentGatewayException("Payment gateway call failed", e.getCause());
+        } catch (InterruptedException e) {
+            call.cancel(true);
+            breaker.release();
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayException("Interrupted while waiting for the payment gateway", true);
+        } finally {
+            latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,23 @@
+package com.ecommerce.payment;
+
+import java.util.Map;
+
+/**
+ * Remote payment provider. Implementations talk to the provider directly;
+ * {@link GuardedPaymentGateway} adds deadlines, the bulkhead and the circuit
+ * breaker around whichever one is configured.
+ */
+public interface PaymentGateway {
+
+    /**
+     * Creates a provider-side order for the customer to pay.
+     *
+     * @return the provider's order id
+     * @throws PaymentGatewayException when the provider fails, is too slow or is not being called
+     */
+    String createOrder(OrderRequest request);
+
+    // amount is in the smallest currency unit (paise for INR)
+    record OrderRequest(long amount, String currency, String receipt, Map<String, Object> notes) {
+    }
+}
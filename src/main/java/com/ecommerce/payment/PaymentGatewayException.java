@@ -0,0 +1,27 @@
+package com.ecommerce.payment;
+
+/**
+ * The payment provider could not be reached in time or rejected the call.
+ * {@code unavailable} marks failures where retrying later may succeed
+ * (deadline exceeded, bulkhead full, circuit open); those map to 503.
+ */
+public class PaymentGatewayException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final boolean unavailable;
+
+    public PaymentGatewayException(String message, boolean unavailable) {
+        super(message);
+        this.unavailable = unavailable;
+    }
+
+    public PaymentGatewayException(String message, Throwable cause) {
+        super(message, cause);
+        this.unavailable = false;
+    }
+
+    public boolean isUnavailable() {
+        return unavailable;
+    }
+}
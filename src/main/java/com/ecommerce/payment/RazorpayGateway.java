@@ -0,0 +1,38 @@
+package com.ecommerce.payment;
+
+import com.razorpay.RazorpayClient;
+import com.razorpay.RazorpayException;
+import org.json.JSONObject;
+
+// Creates orders through the Razorpay SDK (blocking HTTP)
+public class RazorpayGateway implements PaymentGateway {
+
+    private final RazorpayClient client;
+
+    public RazorpayGateway(String keyId, String keySecret) {
+        if (keyId == null || keyId.isEmpty() || keySecret == null || keySecret.isEmpty()) {
+            throw new RuntimeException("Razorpay credentials not configured. Set razorpay.key.id and razorpay.key.secret in application.properties or use demo mode");
+        }
+        try {
+            this.client = new RazorpayClient(keyId, keySecret);
+        } catch (RazorpayException e) {
+            throw new RuntimeException("Failed to initialize RazorpayClient: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String createOrder(OrderRequest request) {
+        JSONObject orderRequest = new JSONObject();
+        orderRequest.put("amount", request.amount());
+        orderRequest.put("currency", request.currency());
+        orderRequest.put("receipt", request.receipt());
+        orderRequest.put("payment_capture", 1);
+        orderRequest.put("notes", new JSONObject(request.notes()));
+        try {
+            com.razorpay.Order order = client.orders.create(orderRequest);
+            return order.get("id");
+        } catch (RazorpayException e) {
+            throw new PaymentGatewayException("Failed to create Razorpay order", e);
+        }
+    }
+}
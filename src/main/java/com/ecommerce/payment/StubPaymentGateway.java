@@ -0,0 +1,36 @@
+package com.ecommerce.payment;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the provider, for load tests (payment.gateway.provider=stub).
+ * Each call sleeps for the configured latency plus up to the same again of jitter,
+ * and fails with the configured probability.
+ */
+public class StubPaymentGateway implements PaymentGateway {
+
+    private final long latencyMs;
+    private final double failureRate;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public StubPaymentGateway(long latencyMs, double failureRate) {
+        this.latencyMs = latencyMs;
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public String createOrder(OrderRequest request) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            Thread.sleep(latencyMs + (latencyMs > 0 ? random.nextLong(latencyMs + 1) : 0));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayException("Stub gateway interrupted", true);
+        }
+        if (random.nextDouble() < failureRate) {
+            throw new PaymentGatewayException("Stub gateway failure", false);
+        }
+        return "order_stub_" + sequence.incrementAndGet();
+    }
+}
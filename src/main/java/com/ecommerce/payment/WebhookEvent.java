@@ -0,0 +1,77 @@
+package com.ecommerce.payment;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The part of a Razorpay webhook the order pipeline acts on.
+ *
+ * Only payment outcomes are kept; the raw body is not stored once its signature
+ * has been checked.
+ */
+public record WebhookEvent(Type type, String paymentId, String razorpayOrderId, String method, long amount) {
+
+    public enum Type {
+        CAPTURED, FAILED
+    }
+
+    /**
+     * Reads a webhook body.
+     *
+     * @return the event, or null when it is not a payment outcome this app handles
+     * @throws IllegalArgumentException when the body is not a Razorpay payment event
+     */
+    public static WebhookEvent parse(byte[] body) {
+        try {
+            JSONObject json = new JSONObject(new String(body, StandardCharsets.UTF_8));
+            Type type = switch (json.optString("event")) {
+                // order.paid follows payment.captured for the same payment; both dedupe to one
+                case "payment.captured", "order.paid" -> Type.CAPTURED;
+                case "payment.failed" -> Type.FAILED;
+                default -> null;
+            };
+            if (type == null) {
+                return null;
+            }
+            JSONObject payment = json.getJSONObject("payload").getJSONObject("payment").getJSONObject("entity");
+            String orderId = payment.optString("order_id", "");
+            if (orderId.isEmpty()) {
+                return null; // payment not made against a Razorpay order we created
+            }
+            return new WebhookEvent(type, payment.getString("id"), orderId,
+                    payment.optString("method", ""), payment.optLong("amount"));
+        } catch (JSONException e) {
+            throw new IllegalArgumentException("Malformed webhook payload: " + e.getMessage());
+        }
+    }
+
+    byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(type.ordinal());
+            out.writeUTF(paymentId);
+            out.writeUTF(razorpayOrderId);
+            out.writeUTF(method);
+            out.writeLong(amount);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static WebhookEvent decode(byte[] record) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            return new WebhookEvent(Type.values()[in.readByte()], in.readUTF(), in.readUTF(), in.readUTF(), in.readLong());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.ecommerce.payment;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Durable local queue for webhook events.
+ *
+ * Events are spread over partitions by Razorpay order id, so everything about one
+ * order is applied by one worker in arrival order. Each partition is an append-only
+ * file of {@code [length][crc32][event]} records plus a checkpoint file holding the
+ * offset its worker has applied up to. {@link #append} returns once the record is
+ * on disk; concurrent appenders share one {@code fsync} (group commit). A worker
+ * hands up to {@code batchSize} records to the handler and only then moves its
+ * checkpoint, so a crash replays the last batch (the handler dedupes) and never
+ * loses an acknowledged event. A torn record at the end of a file is cut off on
+ * startup. Once a worker has caught up its file is truncated back to empty.
+ *
+ * A batch that keeps failing is retried one event at a time; an event that still fails
+ * after {@code maxAttempts} tries is copied, bytes as journalled, to the partition's
+ * {@code .dead} file and the checkpoint moves past it, so one poisoned event cannot
+ * stall every later payment of its partition.
+ */
+public class WebhookJournal implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookJournal.class);
+
+    private static final int HEADER = 8;
+    private static final int MAX_RECORD = 64 * 1024;
+
+    private final Partition[] partitions;
+    private final int batchSize;
+    private final AtomicLong deadLettered = new AtomicLong();
+    private volatile boolean running;
+
+    public WebhookJournal(Path dir, int partitionCount, int batchSize) throws IOException {
+        Files.createDirectories(dir);
+        this.batchSize = batchSize;
+        this.partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition(dir, i);
+        }
+    }
+
+    /**
+     * Writes the event and forces it to disk.
+     *
+     * @throws UncheckedIOException when it could not be made durable; the sender should retry
+     */
+    public void append(WebhookEvent event) {
+        Partition partition = partitions[Math.floorMod(event.razorpayOrderId().hashCode(), partitions.length)];
+        try {
+            partition.append(event.encode());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Starts one worker per partition. A batch the handler throws on is retried after
+     * {@code retryDelayMs}, so the handler must be idempotent; an event that fails
+     * {@code maxAttempts} times on its own is dead-lettered.
+     */
+    public synchronized void start(Consumer<List<WebhookEvent>> handler, long retryDelayMs, int maxAttempts) {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (Partition partition : partitions) {
+            partition.worker = Thread.ofPlatform().daemon().name("payment-webhook-" + partition.index)
+                    .start(() -> partition.drain(handler, retryDelayMs, Math.max(1, maxAttempts)));
+        }
+    }
+
+    // Events acknowledged but not yet applied
+    public long backlog() {
+        long total = 0;
+        for (Partition partition : partitions) {
+            total += partition.pending.get();
+        }
+        return total;
+    }
+
+    // Events moved to a dead-letter file since startup
+    public long deadLettered() {
+        return deadLettered.get();
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        for (Partition partition : partitions) {
+            Thread worker = partition.worker;
+            if (worker != null) {
+                LockSupport.unpark(worker);
+                try {
+                    worker.join(TimeUnit.SECONDS.toMillis(10));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            partition.closeQuietly();
+        }
+    }
+
+    private final class Partition {
+
+        final int index;
+        final Path deadLetterPath;
+        final FileChannel file;
+        final FileChannel checkpoint;
+        final Object forceLock = new Object();
+        final AtomicLong pending = new AtomicLong();
+        volatile Thread worker;
+
+        long end;                // guarded by this: where the next record goes
+        volatile long durable;   // records below this offset are forced to disk
+        long applied;            // worker only: records below this offset were handled
+
+        Partition(Path dir, int index) throws IOException {
+            this.index = index;
+            this.deadLetterPath = dir.resolve("webhooks-" + index + ".dead");
+            this.file = FileChannel.open(dir.resolve("webhooks-" + index + ".log"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.checkpoint = FileChannel.open(dir.resolve("webhooks-" + index + ".offset"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            recover();
+        }
+
+        private void recover() throws IOException {
+            ByteBuffer offset = ByteBuffer.allocate(Long.BYTES);
+            long size = file.size();
+            applied = checkpoint.read(offset, 0) == Long.BYTES ? Math.min(offset.flip().getLong(), size) : 0;
+
+            long position = applied;
+            long records = 0;
+            while (true) {
+                Record record = read(position, size);
+                if (record == null) {
+                    break;
+                }
+                position = record.next;
+                records++;
+            }
+            if (position < size) {
+                file.truncate(position);
+                file.force(true);
+                log.warn("Dropped {} bytes of a torn record from webhook journal {}", size - position, index);
+            }
+            end = position;
+            durable = position;
+            pending.set(records);
+            if (records > 0) {
+                log.info("Webhook journal {} has {} events to replay", index, records);
+            }
+        }
+
+        void append(byte[] payload) throws IOException {
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER + payload.length);
+            buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+
+            long mine;
+            synchronized (this) {
+                long position = end;
+                while (buffer.hasRemaining()) {
+                    position += file.write(buffer, position);
+                }
+                end = position;
+                mine = position;
+            }
+            // Group commit: whoever gets here first forces everything written so far for the others too
+            synchronized (forceLock) {
+                if (durable < mine) {
+                    long upTo;
+                    synchronized (this) {
+                        upTo = end;
+                    }
+                    file.force(false);
+                    durable = upTo;
+                }
+            }
+            pending.incrementAndGet();
+            Thread w = worker;
+            if (w != null) {
+                LockSupport.unpark(w);
+            }
+        }
+
+        void drain(Consumer<List<WebhookEvent>> handler, long retryDelayMs, int maxAttempts) {
+            int attempts = 0;        // failed tries of the batch starting at applied
+            long isolateUntil = 0;   // below this offset events go one at a time to find the bad one
+            while (running) {
+                long limit = durable;
+                if (applied >= limit) {
+                    compact();
+                    LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+                    continue;
+                }
+                int size = applied < isolateUntil ? 1 : batchSize;
+                List<WebhookEvent> batch = new ArrayList<>(size);
+                long next = applied;
+                try {
+                    while (batch.size() < size && next < limit) {
+                        Record record = read(next, limit);
+                        if (record == null) {
+                            throw new IOException("Unreadable record at offset " + next + " of webhook journal " + index);
+                        }
+                        batch.add(WebhookEvent.decode(record.payload));
+                        next = record.next;
+                    }
+                    if (!batch.isEmpty()) {
+                        handler.accept(batch);
+                    }
+                    writeCheckpoint(next);
+                    applied = next;
+                    pending.addAndGet(-batch.size());
+                    attempts = 0;
+                } catch (IOException | RuntimeException e) {
+                    attempts++;
+                    if (attempts < maxAttempts) {
+                        log.warn("Applying {} webhook events failed, will retry: {}", batch.size(), e.getMessage());
+                    } else if (size > 1) {
+                        // Retry what this batch covered event by event, so only the bad one is held back
+                        isolateUntil = Math.max(next, applied + 1);
+                        attempts = 0;
+                        log.warn("Applying {} webhook events failed {} times, retrying them one by one: {}",
+                                batch.size(), maxAttempts, e.getMessage());
+                    } else if (deadLetter(limit, maxAttempts, e)) {
+                        attempts = 0;
+                        continue;
+                    }
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(retryDelayMs));
+                }
+            }
+        }
+
+        // Copies the event at applied to the dead-letter file and moves the checkpoint past it
+        private boolean deadLetter(long limit, int attempts, Exception cause) {
+            try {
+                Record record = read(applied, limit);
+                // An unreadable record has no trustworthy length: set aside everything up to limit
+                long next = record != null ? record.next : limit;
+                ByteBuffer bytes = ByteBuffer.allocate(Math.toIntExact(next - applied));
+                readFully(bytes, applied);
+                try (FileChannel dead = FileChannel.open(deadLetterPath,
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                    while (bytes.hasRemaining()) {
+                        dead.write(bytes);
+                    }
+                    dead.force(false);
+                }
+                writeCheckpoint(next);
+                log.error("Webhook event at offset {} of journal {} failed {} times and was moved to {}: {}",
+                        applied, index, attempts, deadLetterPath, cause.getMessage());
+                applied = next;
+                pending.decrementAndGet();
+                deadLettered.incrementAndGet();
+                return true;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not dead-letter webhook event at offset {} of journal {}: {}", applied, index, e.getMessage());
+                return false;
+            }
+        }
+
+        // Empties the file once everything in it is applied, so it does not grow forever
+        private void compact() {
+            synchronized (this) {
+                if (applied == 0 || applied != end) {
+                    return;
+                }
+                try {
+                    // Truncate before resetting the checkpoint: a crash in between leaves a checkpoint
+                    // past the end of the file, which recovery clamps, rather than a replay of everything
+                    file.truncate(0);
+                    file.force(true);
+                    writeCheckpoint(0);
+                    end = 0;
+                    durable = 0;
+                    applied = 0;
+                } catch (IOException e) {
+                    log.warn("Could not compact webhook journal {}: {}", index, e.getMessage());
+                }
+            }
+        }
+
+        private void writeCheckpoint(long offset) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(offset).flip();
+            while (buffer.hasRemaining()) {
+                checkpoint.write(buffer, buffer.position());
+            }
+            checkpoint.force(false);
+        }
+
+        // The record at position, or null when there is no complete, intact record before limit
+        private Record read(long position, long limit) throws IOException {
+            if (limit - position < HEADER) {
+                return null;
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            readFully(header, position);
+            int length = header.getInt();
+            int crc = header.getInt();
+            if (length < 0 || length > MAX_RECORD || limit - position - HEADER < length) {
+                return null;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(payload, position + HEADER);
+            CRC32 check = new CRC32();
+            check.update(payload.array());
+            if ((int) check.getValue() != crc) {
+                return null;
+            }
+            return new Record(payload.array(), position + HEADER + length);
+        }
+
+        private void readFully(ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                if (file.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of webhook journal " + index);
+                }
+            }
+            buffer.flip();
+        }
+
+        void closeQuietly() {
+            try {
+                file.close();
+                checkpoint.close();
+            } catch (IOException e) {
+                log.warn("Closing webhook journal {} failed: {}", index, e.getMessage());
+            }
+        }
+    }
+
+    private record Record(byte[] payload, long next) {
+    }
+}
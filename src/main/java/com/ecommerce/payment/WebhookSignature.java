@@ -0,0 +1,52 @@
+package com.ecommerce.payment;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * Checks the {@code X-Razorpay-Signature} header: hex HMAC-SHA256 of the raw body under the webhook secret.
+ *
+ * {@link Mac#getInstance} and key setup cost more than hashing a small body, so every
+ * thread keeps one initialised Mac and reuses it ({@code doFinal} resets it).
+ */
+public class WebhookSignature {
+
+    private final ThreadLocal<Mac> macs;
+    private final boolean configured;
+
+    public WebhookSignature(String secret) {
+        this.configured = secret != null && !secret.isBlank();
+        SecretKeySpec key = configured ? new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256") : null;
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 unavailable", e);
+            }
+        });
+    }
+
+    public boolean isConfigured() {
+        return configured;
+    }
+
+    public boolean matches(byte[] body, String signature) {
+        if (!configured || signature == null || signature.length() != 64) {
+            return false;
+        }
+        byte[] expected;
+        try {
+            expected = HexFormat.of().parseHex(signature);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        // Constant-time compare so the signature cannot be guessed byte by byte
+        return MessageDigest.isEqual(macs.get().doFinal(body), expected);
+    }
+}
@@ -1,11 +1,33 @@
 package com.ecommerce.repository;
 
+import com.ecommerce.dto.CartItemRow;
 import com.ecommerce.model.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
-public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+public interface CartItemRepository extends JpaRepository<CartItem, Long>, CartItemRepositoryCustom {
 
-    List<CartItem> findByCart_CartId(Long cartId);
+    @Query("SELECT ci FROM CartItem ci JOIN FETCH ci.product p JOIN FETCH p.category WHERE ci.cart.cartId = :cartId")
+    List<CartItem> findByCart_CartId(@Param("cartId") Long cartId);
+
+    // Single DELETE statement instead of one per item
+    @Modifying
+    @Query("DELETE FROM CartItem ci WHERE ci.cart.cartId = :cartId")
+    int deleteByCartId(@Param("cartId") Long cartId);
+
+    @Query("""
+        SELECT new com.ecommerce.dto.CartItemRow(ci.cartItemId, ci.cart.cartId, ci.product.productId, ci.qty, ci.priceAtAdd)
+        FROM CartItem ci
+        WHERE ci.cart.cartId IN :cartIds
+    """)
+    List<CartItemRow> findRowsByCartIds(@Param("cartIds") Collection<Long> cartIds);
+
+    @Modifying
+    @Query("DELETE FROM CartItem ci WHERE ci.cartItemId IN :cartItemIds")
+    int deleteByIds(@Param("cartItemIds") Collection<Long> cartItemIds);
 }
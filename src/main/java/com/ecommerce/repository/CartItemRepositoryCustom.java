@@ -0,0 +1,14 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.CartItemRow;
+
+import java.util.List;
+
+public interface CartItemRepositoryCustom {
+
+    /**
+     * Writes cart lines with one JDBC batch for updates and one for inserts.
+     * Rows with a cartItemId get their qty and price updated; rows without one are inserted.
+     */
+    void upsertLines(List<CartItemRow> rows);
+}
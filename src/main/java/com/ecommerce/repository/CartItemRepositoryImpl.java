@@ -0,0 +1,46 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.CartItemRow;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Spring Data picks this up as the implementation of CartItemRepositoryCustom
+public class CartItemRepositoryImpl implements CartItemRepositoryCustom {
+
+    private static final String UPDATE_LINE_SQL =
+            "UPDATE cart_item SET qty = ?, price_at_add = ? WHERE cart_item_id = ?";
+    private static final String INSERT_LINE_SQL =
+            "INSERT INTO cart_item (cart_id, product_id, qty, price_at_add) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CartItemRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void upsertLines(List<CartItemRow> rows) {
+        List<CartItemRow> updates = new ArrayList<>();
+        List<CartItemRow> inserts = new ArrayList<>();
+        for (CartItemRow row : rows) {
+            (row.cartItemId() != null ? updates : inserts).add(row);
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_LINE_SQL, updates, updates.size(), (ps, row) -> {
+                ps.setInt(1, row.qty());
+                ps.setDouble(2, row.priceAtAdd());
+                ps.setLong(3, row.cartItemId());
+            });
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_LINE_SQL, inserts, inserts.size(), (ps, row) -> {
+                ps.setLong(1, row.cartId());
+                ps.setLong(2, row.productId());
+                ps.setInt(3, row.qty());
+                ps.setDouble(4, row.priceAtAdd());
+            });
+        }
+    }
+}
@@ -2,10 +2,19 @@ package com.ecommerce.repository;
 
 import com.ecommerce.model.Cart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 
 public interface CartRepository extends JpaRepository<Cart, Long> {
 
     Optional<Cart> findByUser_UserId(Long userId);
+
+    @Modifying
+    @Query("UPDATE Cart c SET c.updatedAt = :updatedAt WHERE c.cartId IN :cartIds")
+    int touch(@Param("cartIds") Collection<Long> cartIds, @Param("updatedAt") LocalDateTime updatedAt);
 }
@@ -1,13 +1,28 @@
 package com.ecommerce.repository;
 
+import com.ecommerce.dto.OrderLineView;
 import com.ecommerce.model.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
     @Query("SELECT oi FROM OrderItem oi JOIN FETCH oi.product WHERE oi.order.orderId = :orderId")
     List<OrderItem> findByOrder_OrderId(@Param("orderId") Long orderId);
+
+    @Query("""
+        SELECT new com.ecommerce.dto.OrderLineView(oi.order.orderId, p.productId, p.productName,
+               oi.qty, oi.priceAtPurchase, oi.subtotal)
+        FROM OrderItem oi JOIN oi.product p
+        WHERE oi.order.orderId IN :orderIds
+        ORDER BY oi.orderItemId
+    """)
+    List<OrderLineView> findLinesByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    // Units sold per product: [productId, units]
+    @Query("SELECT oi.product.productId, SUM(oi.qty) FROM OrderItem oi GROUP BY oi.product.productId")
+    List<Object[]> sumUnitsSoldByProduct();
 }
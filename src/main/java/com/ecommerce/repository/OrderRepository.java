@@ -1,18 +1,64 @@
 package com.ecommerce.repository;
 
+import com.ecommerce.dto.OrderSummaryView;
 import com.ecommerce.model.Order;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
 
-    @org.springframework.data.jpa.repository.Query("SELECT o FROM Order o WHERE o.user.userId = :userId ORDER BY o.orderId DESC")
-    List<Order> findByUser_UserIdOrderByOrderIdDesc(@org.springframework.data.repository.query.Param("userId") Long userId);
+    @Query("SELECT o FROM Order o WHERE o.user.userId = :userId ORDER BY o.orderId DESC")
+    List<Order> findByUser_UserIdOrderByOrderIdDesc(@Param("userId") Long userId);
 
     Optional<Order> findByRazorpayOrderId(String razorpayOrderId);
 
-    @org.springframework.data.jpa.repository.Query("SELECT o FROM Order o ORDER BY o.orderId DESC")
+    // Row-locks the orders a payment outcome is about to be recorded for, so the verify call and the
+    // webhook worker cannot both confirm the same order; ordered by id so two lockers never deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.razorpayOrderId IN :razorpayOrderIds ORDER BY o.orderId")
+    List<Order> lockByRazorpayOrderIds(@Param("razorpayOrderIds") Collection<String> razorpayOrderIds);
+
+    // Row-locks one order while its payment is recorded, e.g. so two demo payments cannot both pass the PENDING check
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.orderId = :orderId")
+    Optional<Order> lockById(@Param("orderId") Long orderId);
+
+    // Projection reads for order listings: one row per order, no entity graph
+    @Query("""
+        SELECT new com.ecommerce.dto.OrderSummaryView(o.orderId, o.totalAmount, o.status, o.paymentStatus, o.orderDate,
+               u.userId, u.email, t.transactionId, t.paymentMode, t.paymentGatewayRef, t.paymentStatus, t.transactionDate)
+        FROM Order o LEFT JOIN o.user u LEFT JOIN o.transaction t
+        ORDER BY o.orderId DESC
+    """)
+    List<OrderSummaryView> findAllSummaries();
+
+    @Query("""
+        SELECT new com.ecommerce.dto.OrderSummaryView(o.orderId, o.totalAmount, o.status, o.paymentStatus, o.orderDate,
+               u.userId, u.email, t.transactionId, t.paymentMode, t.paymentGatewayRef, t.paymentStatus, t.transactionDate)
+        FROM Order o LEFT JOIN o.user u LEFT JOIN o.transaction t
+        WHERE u.userId = :userId
+        ORDER BY o.orderId DESC
+    """)
+    List<OrderSummaryView> findSummariesByUser(@Param("userId") Long userId);
+
+    @Query("SELECT o FROM Order o ORDER BY o.orderId DESC")
     List<Order> findAllByOrderByOrderIdDesc();
+
+    // Cancels orders whose stock reservation expired before payment
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE Order o SET o.status = com.ecommerce.model.OrderStatus.CANCELLED, o.paymentStatus = 'EXPIRED'
+        WHERE o.orderId IN :orderIds AND o.paymentStatus = 'PENDING'
+    """)
+    int cancelUnpaid(@Param("orderIds") Collection<Long> orderIds);
 }
@@ -0,0 +1,23 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.OrderSummaryView;
+import com.ecommerce.model.OrderStatus;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OrderRepositoryCustom {
+
+    /**
+     * Admin listing: keyset page, newest first, seeking below the last seen id.
+     * Every filter is optional (null = not filtered) and {@code to} is exclusive;
+     * only the filters that are set become predicates.
+     */
+    List<OrderSummaryView> findSummaryPage(OrderStatus status, String paymentStatus, Long userId,
+                                           LocalDateTime from, LocalDateTime to, Long beforeId, Limit limit);
+
+    // Orders matching the same optional filters as findSummaryPage
+    long countFiltered(OrderStatus status, String paymentStatus, Long userId,
+                       LocalDateTime from, LocalDateTime to);
+}
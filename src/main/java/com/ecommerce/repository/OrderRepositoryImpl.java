@@ -0,0 +1,80 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.OrderSummaryView;
+import com.ecommerce.model.OrderStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Spring Data picks this up as the implementation of OrderRepositoryCustom
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    private static final String SUMMARY_SELECT = """
+        SELECT new com.ecommerce.dto.OrderSummaryView(o.orderId, o.totalAmount, o.status, o.paymentStatus, o.orderDate,
+               u.userId, u.email, t.transactionId, t.paymentMode, t.paymentGatewayRef, t.paymentStatus, t.transactionDate)
+        FROM Order o LEFT JOIN o.user u LEFT JOIN o.transaction t
+        WHERE o.orderId < :beforeId""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<OrderSummaryView> findSummaryPage(OrderStatus status, String paymentStatus, Long userId,
+                                                  LocalDateTime from, LocalDateTime to, Long beforeId, Limit limit) {
+        StringBuilder jpql = new StringBuilder(SUMMARY_SELECT);
+        Map<String, Object> params = new HashMap<>();
+        params.put("beforeId", beforeId);
+        appendFilters(jpql, params, status, paymentStatus, userId, from, to);
+        jpql.append(" ORDER BY o.orderId DESC");
+
+        TypedQuery<OrderSummaryView> query = entityManager.createQuery(jpql.toString(), OrderSummaryView.class);
+        params.forEach(query::setParameter);
+        if (limit.isLimited()) {
+            query.setMaxResults(limit.max());
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    public long countFiltered(OrderStatus status, String paymentStatus, Long userId,
+                              LocalDateTime from, LocalDateTime to) {
+        StringBuilder jpql = new StringBuilder("SELECT COUNT(o) FROM Order o WHERE 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+        appendFilters(jpql, params, status, paymentStatus, userId, from, to);
+
+        TypedQuery<Long> query = entityManager.createQuery(jpql.toString(), Long.class);
+        params.forEach(query::setParameter);
+        return query.getSingleResult();
+    }
+
+    // Only the filters that are set go into the query, so the planner can pick an index
+    private static void appendFilters(StringBuilder jpql, Map<String, Object> params, OrderStatus status,
+                                      String paymentStatus, Long userId, LocalDateTime from, LocalDateTime to) {
+        if (status != null) {
+            jpql.append(" AND o.status = :status");
+            params.put("status", status);
+        }
+        if (paymentStatus != null) {
+            jpql.append(" AND o.paymentStatus = :paymentStatus");
+            params.put("paymentStatus", paymentStatus);
+        }
+        if (userId != null) {
+            jpql.append(" AND o.user.userId = :userId");
+            params.put("userId", userId);
+        }
+        if (from != null) {
+            jpql.append(" AND o.orderDate >= :from");
+            params.put("from", from);
+        }
+        if (to != null) {
+            jpql.append(" AND o.orderDate < :to");
+            params.put("to", to);
+        }
+    }
+}
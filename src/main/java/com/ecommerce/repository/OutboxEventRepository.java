@@ -0,0 +1,13 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Oldest undispatched events first
+    List<OutboxEvent> findByOrderByIdAsc(Limit limit);
+}
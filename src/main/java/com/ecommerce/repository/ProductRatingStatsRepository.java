@@ -0,0 +1,59 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.ProductRatingStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.stream.Stream;
+
+public interface ProductRatingStatsRepository extends JpaRepository<ProductRatingStats, Long> {
+
+    // Adds one review to an existing row in place; returns 0 when the product has no row yet
+    @Modifying
+    @Query("""
+        UPDATE ProductRatingStats s
+        SET s.reviewCount = s.reviewCount + 1,
+            s.ratingSum = s.ratingSum + :rating,
+            s.averageRating = CAST(s.ratingSum + :rating AS double) / (s.reviewCount + 1),
+            s.stars1 = s.stars1 + CASE WHEN :rating = 1 THEN 1 ELSE 0 END,
+            s.stars2 = s.stars2 + CASE WHEN :rating = 2 THEN 1 ELSE 0 END,
+            s.stars3 = s.stars3 + CASE WHEN :rating = 3 THEN 1 ELSE 0 END,
+            s.stars4 = s.stars4 + CASE WHEN :rating = 4 THEN 1 ELSE 0 END,
+            s.stars5 = s.stars5 + CASE WHEN :rating = 5 THEN 1 ELSE 0 END
+        WHERE s.productId = :productId
+    """)
+    int addRating(@Param("productId") Long productId, @Param("rating") int rating);
+
+    // Builds rows from the review table for products that have reviews but no row (one product, or all when null)
+    @Transactional
+    @Modifying
+    @Query("""
+        INSERT INTO ProductRatingStats (productId, reviewCount, ratingSum, averageRating, stars1, stars2, stars3, stars4, stars5)
+        SELECT r.product.productId, COUNT(r), SUM(r.rating), AVG(CAST(r.rating AS double)),
+               SUM(CASE WHEN r.rating = 1 THEN 1 ELSE 0 END),
+               SUM(CASE WHEN r.rating = 2 THEN 1 ELSE 0 END),
+               SUM(CASE WHEN r.rating = 3 THEN 1 ELSE 0 END),
+               SUM(CASE WHEN r.rating = 4 THEN 1 ELSE 0 END),
+               SUM(CASE WHEN r.rating = 5 THEN 1 ELSE 0 END)
+        FROM Review r
+        WHERE (:productId IS NULL OR r.product.productId = :productId)
+        AND r.product.productId NOT IN (SELECT s.productId FROM ProductRatingStats s)
+        GROUP BY r.product.productId
+    """)
+    int rebuildMissing(@Param("productId") Long productId);
+
+    // Rows written before averageRating existed
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE ProductRatingStats s SET s.averageRating = CAST(s.ratingSum AS double) / s.reviewCount
+        WHERE s.averageRating IS NULL AND s.reviewCount > 0
+    """)
+    int fillMissingAverages();
+
+    @Query("SELECT s FROM ProductRatingStats s")
+    Stream<ProductRatingStats> streamAll();
+}
@@ -1,27 +1,72 @@
 package com.ecommerce.repository;
 
 import com.ecommerce.model.Product;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
 
     List<Product> findByCategory_CategoryId(Long categoryId);
 
     List<Product> findByProductNameContainingIgnoreCase(String keyword);
 
+    // Row lock held until commit, for changes that must not interleave per product
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.productId = :productId")
+    Optional<Product> lockById(@Param("productId") Long productId);
+
+    // Current stock for the in-memory inventory counters: rows of [productId, stockQty]
+    @Query("SELECT p.productId, p.stockQty FROM Product p WHERE p.productId IN :ids")
+    List<Object[]> findStockByIds(@Param("ids") Collection<Long> ids);
+
+    // The ids among these that still have a product row
+    @Query("SELECT p.productId FROM Product p WHERE p.productId IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p FROM Product p JOIN FETCH p.category WHERE p.productId IN :ids")
+    List<Product> findAllWithCategory(@Param("ids") Collection<Long> ids);
+
+    // Keyset pagination: seek past the last seen id instead of using OFFSET
+    @Query("SELECT p FROM Product p JOIN FETCH p.category WHERE p.productId > :afterId ORDER BY p.productId")
+    List<Product> findPageAfter(@Param("afterId") Long afterId, Limit limit);
+
     @Query("""
-        SELECT p FROM Product p
-        WHERE (:keyword IS NULL OR LOWER(p.productName) LIKE LOWER(CONCAT('%', :keyword, '%')))
-        AND (:categoryId IS NULL OR p.category.categoryId = :categoryId)
-        AND (:minPrice IS NULL OR p.basePrice >= :minPrice)
-        AND (:maxPrice IS NULL OR p.basePrice <= :maxPrice)
+        SELECT p FROM Product p JOIN FETCH p.category
+        WHERE p.category.categoryId = :categoryId AND p.productId > :afterId
+        ORDER BY p.productId
     """)
-    List<Product> filterProducts(@Param("keyword") String keyword,
-                                 @Param("categoryId") Long categoryId,
-                                 @Param("minPrice") Double minPrice,
-                                 @Param("maxPrice") Double maxPrice);
+    List<Product> findCategoryPageAfter(@Param("categoryId") Long categoryId,
+                                        @Param("afterId") Long afterId,
+                                        Limit limit);
+
+    // Forward-only cursors for NDJSON streaming; must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p JOIN FETCH p.category ORDER BY p.productId")
+    Stream<Product> streamAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"))
+    @Query("SELECT p.sku FROM Product p WHERE p.sku IS NOT NULL")
+    Stream<String> streamSkus();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p JOIN FETCH p.category WHERE p.category.categoryId = :categoryId ORDER BY p.productId")
+    Stream<Product> streamByCategory(@Param("categoryId") Long categoryId);
 }
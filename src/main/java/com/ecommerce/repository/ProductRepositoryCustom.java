@@ -0,0 +1,48 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.ProductFilter;
+import com.ecommerce.dto.ProductImportRow;
+import com.ecommerce.dto.ProductPatch;
+import com.ecommerce.dto.ProductSort;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Applies already-reserved stock decrements in one JDBC batch and one transaction
+     * ({@code stock_qty = stock_qty - ? ... AND stock_qty >= ?}).
+     * Availability is enforced by the in-memory inventory before this runs, so a row the
+     * guard leaves untouched means the database and the counters disagree.
+     * The touched products are evicted from the second-level cache when the transaction ends.
+     *
+     * @param quantities productId -> quantity sold
+     * @return ids of products that were not decremented: deleted, or with less stock than sold
+     */
+    List<Long> applyStockDecrements(Map<Long, Integer> quantities);
+
+    /**
+     * Inserts new products in one JDBC batch. Rows must already be validated and carry
+     * a resolved categoryId; caches and catalog indexes are left for the caller to refresh.
+     */
+    void insertProducts(List<ProductImportRow> rows);
+
+    /**
+     * Sets base_price and/or stock_qty of existing products in JDBC batches, all in one
+     * transaction; a null field keeps its current value. The touched products are evicted
+     * from the second-level cache when the transaction ends.
+     *
+     * @return rows updated per patch, in order: 0 where the product does not exist
+     */
+    int[] updatePriceAndStock(List<ProductPatch> patches);
+
+    /**
+     * Filtered, sorted product listing with the sort and limit done by the database.
+     * Pass the sort value and id of the last row of the previous page to continue after it.
+     *
+     * @param limit max rows, or 0 for all
+     * @return rows of [Product (category fetched), sort value as Double]
+     */
+    List<Object[]> findFiltered(ProductFilter filter, ProductSort sort, Double afterValue, Long afterId, int limit);
+}
@@ -0,0 +1,200 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.ProductFilter;
+import com.ecommerce.dto.ProductImportRow;
+import com.ecommerce.dto.ProductPatch;
+import com.ecommerce.dto.ProductSort;
+import com.ecommerce.model.Product;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Spring Data picks this up as the implementation of ProductRepositoryCustom
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    private static final String DECREMENT_STOCK_SQL =
+            "UPDATE product SET stock_qty = stock_qty - ? WHERE product_id = ? AND stock_qty >= ?";
+
+    private static final String INSERT_PRODUCT_SQL =
+            "INSERT INTO product (product_name, product_description, sku, picture, base_price, stock_qty, category_id)"
+                    + " VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_PRICE_STOCK_SQL =
+            "UPDATE product SET base_price = COALESCE(?, base_price), stock_qty = COALESCE(?, stock_qty)"
+                    + " WHERE product_id = ?";
+
+    private static final int UPDATE_BATCH_SIZE = 1000;
+
+    private static final String RATING = "COALESCE(s.averageRating, 0.0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ProductRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public List<Long> applyStockDecrements(Map<Long, Integer> quantities) {
+        List<Map.Entry<Long, Integer>> rows = new ArrayList<>(quantities.entrySet());
+        int[][] batches = jdbcTemplate.batchUpdate(DECREMENT_STOCK_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setInt(1, row.getValue());
+            ps.setLong(2, row.getKey());
+            ps.setInt(3, row.getValue());
+        });
+        List<Long> notApplied = new ArrayList<>();
+        int i = 0;
+        for (int[] batch : batches) {
+            for (int count : batch) {
+                if (count == 0) {
+                    notApplied.add(rows.get(i).getKey());
+                }
+                i++;
+            }
+        }
+        evictAfterCompletion(quantities.keySet());
+        return notApplied;
+    }
+
+    @Override
+    @Transactional
+    public int[] updatePriceAndStock(List<ProductPatch> patches) {
+        int[][] batches = jdbcTemplate.batchUpdate(UPDATE_PRICE_STOCK_SQL, patches, UPDATE_BATCH_SIZE, (ps, patch) -> {
+            if (patch.basePrice() != null) {
+                ps.setDouble(1, patch.basePrice());
+            } else {
+                ps.setNull(1, Types.DOUBLE);
+            }
+            if (patch.stockQty() != null) {
+                ps.setInt(2, patch.stockQty());
+            } else {
+                ps.setNull(2, Types.INTEGER);
+            }
+            ps.setLong(3, patch.productId());
+        });
+        int[] counts = new int[patches.size()];
+        int i = 0;
+        for (int[] batch : batches) {
+            for (int count : batch) {
+                counts[i++] = count;
+            }
+        }
+        evictAfterCompletion(patches.stream().map(ProductPatch::productId).toList());
+        return counts;
+    }
+
+    // JDBC writes bypass Hibernate, so drop the cached rows once the new values are committed
+    private void evictAfterCompletion(Collection<Long> productIds) {
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        Runnable evict = () -> productIds.forEach(id -> cache.evict(Product.class, id));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict.run();
+                }
+            });
+        } else {
+            evict.run();
+        }
+    }
+
+    @Override
+    public void insertProducts(List<ProductImportRow> rows) {
+        jdbcTemplate.batchUpdate(INSERT_PRODUCT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setString(1, row.productName());
+            ps.setString(2, row.productDescription());
+            ps.setString(3, row.sku());
+            ps.setString(4, row.picture());
+            ps.setDouble(5, row.basePrice());
+            ps.setInt(6, row.stockQty() == null ? 0 : row.stockQty());
+            ps.setLong(7, row.categoryId());
+        });
+    }
+
+    @Override
+    public List<Object[]> findFiltered(ProductFilter filter, ProductSort sort,
+                                       Double afterValue, Long afterId, int limit) {
+        // Only the predicates that are set go into the query, so the planner can pick an index
+        StringBuilder jpql = new StringBuilder("SELECT p, ")
+                .append(sortValue(sort))
+                .append(" FROM Product p JOIN FETCH p.category");
+        if (sort == ProductSort.RATING) {
+            jpql.append(" LEFT JOIN ProductRatingStats s ON s.productId = p.productId");
+        }
+        jpql.append(" WHERE 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+
+        if (filter.keyword() != null) {
+            jpql.append(" AND LOWER(p.productName) LIKE :keyword");
+            params.put("keyword", "%" + filter.keyword().toLowerCase(Locale.ROOT) + "%");
+        }
+        if (filter.categoryId() != null) {
+            jpql.append(" AND p.category.categoryId = :categoryId");
+            params.put("categoryId", filter.categoryId());
+        }
+        if (filter.minPrice() != null) {
+            jpql.append(" AND p.basePrice >= :minPrice");
+            params.put("minPrice", filter.minPrice());
+        }
+        if (filter.maxPrice() != null) {
+            jpql.append(" AND p.basePrice <= :maxPrice");
+            params.put("maxPrice", filter.maxPrice());
+        }
+        if (filter.inStock() != null) {
+            jpql.append(filter.inStock() ? " AND p.stockQty > 0" : " AND p.stockQty <= 0");
+        }
+
+        // Keyset: rows strictly after the last one of the previous page in (value, id) order
+        if (afterId != null) {
+            switch (sort) {
+                case NEWEST -> jpql.append(" AND p.productId < :afterId");
+                case PRICE_ASC -> jpql.append(" AND (p.basePrice > :afterValue OR (p.basePrice = :afterValue AND p.productId > :afterId))");
+                case PRICE_DESC -> jpql.append(" AND (p.basePrice < :afterValue OR (p.basePrice = :afterValue AND p.productId < :afterId))");
+                case RATING -> jpql.append(" AND (" + RATING + " < :afterValue OR (" + RATING + " = :afterValue AND p.productId < :afterId))");
+            }
+            params.put("afterId", afterId);
+            if (sort != ProductSort.NEWEST) {
+                params.put("afterValue", afterValue);
+            }
+        }
+
+        jpql.append(switch (sort) {
+            case NEWEST -> " ORDER BY p.productId DESC";
+            case PRICE_ASC -> " ORDER BY p.basePrice, p.productId";
+            case PRICE_DESC -> " ORDER BY p.basePrice DESC, p.productId DESC";
+            case RATING -> " ORDER BY " + RATING + " DESC, p.productId DESC";
+        });
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class);
+        params.forEach(query::setParameter);
+        if (limit > 0) {
+            query.setMaxResults(limit);
+        }
+        return query.getResultList();
+    }
+
+    private static String sortValue(ProductSort sort) {
+        return switch (sort) {
+            case NEWEST -> "CAST(p.productId AS double)";
+            case PRICE_ASC, PRICE_DESC -> "p.basePrice";
+            case RATING -> RATING;
+        };
+    }
+}
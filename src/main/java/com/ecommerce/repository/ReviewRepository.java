@@ -1,7 +1,11 @@
 package com.ecommerce.repository;
 
+import com.ecommerce.dto.ReviewResponse;
 import com.ecommerce.model.Review;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,4 +15,23 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     List<Review> findByProduct_ProductId(Long productId);
 
     Optional<Review> findByUser_UserIdAndProduct_ProductId(Long userId, Long productId);
+
+    // Projection reads, newest first; no Review/User/Product entities are loaded
+    @Query("""
+        SELECT new com.ecommerce.dto.ReviewResponse(r.reviewId, u.email, r.rating, r.comment, r.createdAt)
+        FROM Review r JOIN r.user u
+        WHERE r.product.productId = :productId
+        ORDER BY r.reviewId DESC
+    """)
+    List<ReviewResponse> findViewsByProduct(@Param("productId") Long productId);
+
+    @Query("""
+        SELECT new com.ecommerce.dto.ReviewResponse(r.reviewId, u.email, r.rating, r.comment, r.createdAt)
+        FROM Review r JOIN r.user u
+        WHERE r.product.productId = :productId AND r.reviewId < :beforeId
+        ORDER BY r.reviewId DESC
+    """)
+    List<ReviewResponse> findViewPageBefore(@Param("productId") Long productId,
+                                            @Param("beforeId") Long beforeId,
+                                            Limit limit);
 }
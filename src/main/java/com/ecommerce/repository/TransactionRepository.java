@@ -1,13 +1,31 @@
 package com.ecommerce.repository;
 
+import com.ecommerce.dto.TransactionView;
 import com.ecommerce.model.Transaction;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     Optional<Transaction> findByPaymentGatewayRef(String paymentGatewayRef);
     Optional<Transaction> findByOrder_OrderId(Long orderId);
-}
 
+    // Gateway payment ids among refs that are already recorded
+    @Query("SELECT t.paymentGatewayRef FROM Transaction t WHERE t.paymentGatewayRef IN :refs")
+    Set<String> findRecordedGatewayRefs(@Param("refs") Collection<String> refs);
 
+    // Transactions for orders whose transaction link is not set, newest first
+    @Query("""
+        SELECT new com.ecommerce.dto.TransactionView(t.order.orderId, t.transactionId, t.paymentMode,
+               t.paymentGatewayRef, t.paymentStatus, t.transactionDate)
+        FROM Transaction t
+        WHERE t.order.orderId IN :orderIds
+        ORDER BY t.transactionId DESC
+    """)
+    List<TransactionView> findViewsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+}
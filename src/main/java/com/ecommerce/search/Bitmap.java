@@ -0,0 +1,81 @@
+package com.ecommerce.search;
+
+import java.util.Arrays;
+
+// Growable bitmap over document ordinals with allocation-free AND counts
+final class Bitmap {
+
+    long[] words;
+
+    Bitmap(int capacity) {
+        words = new long[Math.max(1, (capacity + 63) >>> 6)];
+    }
+
+    void set(int bit) {
+        int w = bit >>> 6;
+        if (w >= words.length) {
+            words = Arrays.copyOf(words, Math.max(w + 1, words.length * 2));
+        }
+        words[w] |= 1L << bit;
+    }
+
+    void clear(int bit) {
+        int w = bit >>> 6;
+        if (w < words.length) {
+            words[w] &= ~(1L << bit);
+        }
+    }
+
+    boolean get(int bit) {
+        int w = bit >>> 6;
+        return w < words.length && (words[w] & (1L << bit)) != 0;
+    }
+
+    // this = a AND b (missing words count as zero); this may be a or b
+    Bitmap and(Bitmap a, Bitmap b) {
+        int n = Math.min(a.words.length, b.words.length);
+        ensureWords(n);
+        for (int i = 0; i < n; i++) {
+            words[i] = a.words[i] & b.words[i];
+        }
+        Arrays.fill(words, n, words.length, 0L);
+        return this;
+    }
+
+    Bitmap copyOf(Bitmap a) {
+        ensureWords(a.words.length);
+        System.arraycopy(a.words, 0, words, 0, a.words.length);
+        Arrays.fill(words, a.words.length, words.length, 0L);
+        return this;
+    }
+
+    // Clears all bits, keeping room for the given number of words
+    Bitmap reset(int wordCount) {
+        ensureWords(wordCount);
+        Arrays.fill(words, 0L);
+        return this;
+    }
+
+    int cardinality() {
+        int count = 0;
+        for (long w : words) {
+            count += Long.bitCount(w);
+        }
+        return count;
+    }
+
+    static int andCardinality(Bitmap a, Bitmap b) {
+        int n = Math.min(a.words.length, b.words.length);
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            count += Long.bitCount(a.words[i] & b.words[i]);
+        }
+        return count;
+    }
+
+    private void ensureWords(int n) {
+        if (words.length < n) {
+            words = new long[n];
+        }
+    }
+}
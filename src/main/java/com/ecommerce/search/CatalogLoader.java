@@ -0,0 +1,76 @@
+package com.ecommerce.search;
+
+import com.ecommerce.model.Product;
+import com.ecommerce.model.ProductCategory;
+import com.ecommerce.model.ProductRatingStats;
+import com.ecommerce.repository.ProductCategoryRepository;
+import com.ecommerce.repository.ProductRatingStatsRepository;
+import com.ecommerce.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Feeds the in-memory catalog indexes from the database
+@Component
+class CatalogLoader {
+
+    private final ProductRepository productRepository;
+    private final ProductCategoryRepository categoryRepository;
+    private final ProductRatingStatsRepository ratingStatsRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTx;
+
+    CatalogLoader(ProductRepository productRepository,
+                  ProductCategoryRepository categoryRepository,
+                  ProductRatingStatsRepository ratingStatsRepository,
+                  EntityManager entityManager,
+                  PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.ratingStatsRepository = ratingStatsRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    // Streams every product with its category; each entity is detached once the consumer is done with it
+    void forEachProduct(Consumer<Product> consumer) {
+        readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<Product> rows = productRepository.streamAll()) {
+                rows.forEach(p -> {
+                    consumer.accept(p);
+                    entityManager.detach(p);
+                });
+            }
+        });
+    }
+
+    List<Product> load(Collection<Long> productIds) {
+        return readOnlyTx.execute(status -> productRepository.findAllWithCategory(productIds));
+    }
+
+    List<ProductCategory> categories() {
+        return readOnlyTx.execute(status -> categoryRepository.findAll());
+    }
+
+    void forEachRating(Consumer<ProductRatingStats> consumer) {
+        readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<ProductRatingStats> rows = ratingStatsRepository.streamAll()) {
+                rows.forEach(s -> {
+                    consumer.accept(s);
+                    entityManager.detach(s);
+                });
+            }
+        });
+    }
+
+    List<ProductRatingStats> ratings(Collection<Long> productIds) {
+        return readOnlyTx.execute(status -> ratingStatsRepository.findAllById(productIds));
+    }
+}
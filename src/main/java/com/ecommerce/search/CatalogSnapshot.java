@@ -0,0 +1,548 @@
+package com.ecommerce.search;
+
+import com.ecommerce.dto.ProductFilter;
+import com.ecommerce.dto.ProductPatch;
+import com.ecommerce.dto.ProductResponse;
+import com.ecommerce.dto.ProductSort;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.ProductRatingStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-optimized, column-oriented copy of the catalog for full listings and filters.
+ *
+ * Rows are kept in productId order in parallel primitive arrays, with category
+ * names interned into a small table. A published {@link Columns} is never
+ * changed where readers can see it: a write copies only the columns it touches,
+ * and a new product with the highest id fills spare capacity past the published
+ * size. Scans read primitives only; objects are created for matching rows.
+ *
+ * Built from the database in the background at startup and kept current by
+ * {@code ProductService}, {@code ReviewService} and {@code InventoryService}.
+ * Until the first build finishes {@link #isReady()} is false and callers use the
+ * entity path. With {@code catalog.snapshot.enabled=false} it is never built and
+ * every read takes the entity path.
+ */
+@Component
+public class CatalogSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshot.class);
+
+    private final CatalogLoader catalogLoader;
+    private final boolean enabled;
+
+    private final Object writeMonitor = new Object();
+    private final Object rebuildMonitor = new Object();
+    private volatile Columns columns = new Columns(0);
+    private volatile boolean ready;
+    private Set<Long> changedDuringRebuild;     // guarded by writeMonitor
+    private Map<Long, Integer> categoryOrdinals = new HashMap<>(); // of the current generation, guarded by writeMonitor
+
+    // One version of the catalog; fields are only assigned before it is published
+    private static final class Columns {
+        int size;
+        long[] ids;
+        double[] prices;
+        int[] stock;
+        int[] categories;       // ordinal into categoryIds / categoryNames
+        double[] ratings;
+        int[] reviewCounts;
+        String[] names;
+        String[] descriptions;
+        String[] skus;
+        String[] pictures;
+        long[] categoryIds = new long[0];
+        String[] categoryNames = new String[0];
+
+        Columns(int capacity) {
+            ids = new long[capacity];
+            prices = new double[capacity];
+            stock = new int[capacity];
+            categories = new int[capacity];
+            ratings = new double[capacity];
+            reviewCounts = new int[capacity];
+            names = new String[capacity];
+            descriptions = new String[capacity];
+            skus = new String[capacity];
+            pictures = new String[capacity];
+        }
+
+        Columns shallowCopy() {
+            Columns c = new Columns(0);
+            c.size = size;
+            c.ids = ids;
+            c.prices = prices;
+            c.stock = stock;
+            c.categories = categories;
+            c.ratings = ratings;
+            c.reviewCounts = reviewCounts;
+            c.names = names;
+            c.descriptions = descriptions;
+            c.skus = skus;
+            c.pictures = pictures;
+            c.categoryIds = categoryIds;
+            c.categoryNames = categoryNames;
+            return c;
+        }
+
+        int capacity() {
+            return ids.length;
+        }
+
+        // Copies every per-row column into arrays of the given capacity, leaving a one-row gap at gapAt
+        // (or dropping row dropAt); gapAt / dropAt of -1 means none
+        Columns resized(int capacity, int gapAt, int dropAt) {
+            Columns c = shallowCopy();
+            c.ids = move(ids, new long[capacity], gapAt, dropAt);
+            c.prices = move(prices, new double[capacity], gapAt, dropAt);
+            c.stock = move(stock, new int[capacity], gapAt, dropAt);
+            c.categories = move(categories, new int[capacity], gapAt, dropAt);
+            c.ratings = move(ratings, new double[capacity], gapAt, dropAt);
+            c.reviewCounts = move(reviewCounts, new int[capacity], gapAt, dropAt);
+            c.names = move(names, new String[capacity], gapAt, dropAt);
+            c.descriptions = move(descriptions, new String[capacity], gapAt, dropAt);
+            c.skus = move(skus, new String[capacity], gapAt, dropAt);
+            c.pictures = move(pictures, new String[capacity], gapAt, dropAt);
+            c.size = size + (gapAt >= 0 ? 1 : 0) - (dropAt >= 0 ? 1 : 0);
+            return c;
+        }
+
+        private <T> T move(T from, T to, int gapAt, int dropAt) {
+            int split = gapAt >= 0 ? gapAt : dropAt >= 0 ? dropAt : size;
+            System.arraycopy(from, 0, to, 0, split);
+            if (gapAt >= 0) {
+                System.arraycopy(from, split, to, split + 1, size - split);
+            } else if (dropAt >= 0) {
+                System.arraycopy(from, split + 1, to, split, size - split - 1);
+            }
+            return to;
+        }
+
+        int find(long productId) {
+            return Arrays.binarySearch(ids, 0, size, productId);
+        }
+
+        // Per-row arrays and the strings they point at, not counting strings shared with other structures
+        long estimatedBytes() {
+            long bytes = (long) capacity() * (8 + 8 + 4 + 4 + 8 + 4 + 4L * Integer.BYTES) + 10L * 16;
+            for (int i = 0; i < size; i++) {
+                bytes += stringBytes(names[i]) + stringBytes(descriptions[i]) + stringBytes(skus[i]) + stringBytes(pictures[i]);
+            }
+            return bytes;
+        }
+
+        private static long stringBytes(String s) {
+            // Header plus compact (Latin-1) backing array, rounded to 8
+            return s == null ? 0 : 24 + ((16 + s.length() + 7) & ~7);
+        }
+    }
+
+    public CatalogSnapshot(CatalogLoader catalogLoader,
+                           @Value("${catalog.snapshot.enabled:true}") boolean enabled) {
+        this.catalogLoader = catalogLoader;
+        this.enabled = enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Whole catalog, or one category, in productId order
+    public List<ProductResponse> products(Long categoryId) {
+        Columns c = columns;
+        int category = categoryId == null ? -1 : ordinalOf(c, categoryId);
+        if (categoryId != null && category < 0) {
+            return new ArrayList<>();
+        }
+        List<ProductResponse> result = new ArrayList<>();
+        for (int i = 0; i < c.size; i++) {
+            if (category < 0 || c.categories[i] == category) {
+                result.add(toResponse(c, i));
+            }
+        }
+        return result;
+    }
+
+    // Every row matching the filter, in the order the database listing uses for the sort
+    public List<ProductResponse> filter(ProductFilter filter, ProductSort sort) {
+        Columns c = columns;
+        int category = -1;
+        if (filter.categoryId() != null) {
+            category = ordinalOf(c, filter.categoryId());
+            if (category < 0) {
+                return new ArrayList<>();
+            }
+        }
+        double min = filter.minPrice() != null ? filter.minPrice() : Double.NEGATIVE_INFINITY;
+        double max = filter.maxPrice() != null ? filter.maxPrice() : Double.POSITIVE_INFINITY;
+        String keyword = filter.keyword();
+        Boolean inStock = filter.inStock();
+
+        int[] rows = new int[64];
+        int count = 0;
+        // NEWEST and the descending sorts break ties by id descending, so collect those back to front
+        boolean descending = sort != ProductSort.PRICE_ASC;
+        for (int n = 0; n < c.size; n++) {
+            int i = descending ? c.size - 1 - n : n;
+            if ((category >= 0 && c.categories[i] != category)
+                    || c.prices[i] < min || c.prices[i] > max
+                    || (inStock != null && (c.stock[i] > 0) != inStock)
+                    || (keyword != null && !containsIgnoreCase(c.names[i], keyword))) {
+                continue;
+            }
+            if (count == rows.length) {
+                rows = Arrays.copyOf(rows, count * 2);
+            }
+            rows[count++] = i;
+        }
+
+        switch (sort) {
+            case PRICE_ASC -> stableSort(rows, count, c.prices, false);
+            case PRICE_DESC -> stableSort(rows, count, c.prices, true);
+            case RATING -> stableSort(rows, count, c.ratings, true);
+            case NEWEST -> { }
+        }
+        List<ProductResponse> result = new ArrayList<>(count);
+        for (int n = 0; n < count; n++) {
+            result.add(toResponse(c, rows[n]));
+        }
+        return result;
+    }
+
+    // Product must have its category loaded
+    public void index(Product product) {
+        synchronized (writeMonitor) {
+            markChanged(product.getProductId());
+            upsert(product);
+        }
+    }
+
+    public void remove(Long productId) {
+        synchronized (writeMonitor) {
+            markChanged(productId);
+            Columns c = columns;
+            int pos = c.find(productId);
+            if (pos >= 0) {
+                columns = c.resized(c.capacity(), -1, pos);
+            }
+        }
+    }
+
+    // Committed sales written to product.stock_qty (productId -> units)
+    public void stockDecremented(Map<Long, Integer> quantities) {
+        synchronized (writeMonitor) {
+            Columns next = columns.shallowCopy();
+            next.stock = next.stock.clone();
+            quantities.forEach((productId, qty) -> {
+                markChanged(productId);
+                int pos = next.find(productId);
+                if (pos >= 0) {
+                    next.stock[pos] = Math.max(next.stock[pos] - qty, 0);
+                }
+            });
+            columns = next;
+        }
+    }
+
+    // Prices and stock set by a bulk update; null fields keep their value
+    public void pricesAndStockSet(List<ProductPatch> patches) {
+        synchronized (writeMonitor) {
+            Columns next = columns.shallowCopy();
+            next.prices = next.prices.clone();
+            next.stock = next.stock.clone();
+            for (ProductPatch patch : patches) {
+                markChanged(patch.productId());
+                int pos = next.find(patch.productId());
+                if (pos >= 0) {
+                    if (patch.basePrice() != null) {
+                        next.prices[pos] = patch.basePrice();
+                    }
+                    if (patch.stockQty() != null) {
+                        next.stock[pos] = patch.stockQty();
+                    }
+                }
+            }
+            columns = next;
+        }
+    }
+
+    // Categories of the given products, or null until the first build has finished
+    public Set<Long> categoriesOf(Collection<Long> productIds) {
+        if (!ready) {
+            return null;
+        }
+        Columns c = columns;
+        Set<Long> categoryIds = new HashSet<>();
+        for (Long productId : productIds) {
+            int pos = c.find(productId);
+            if (pos >= 0) {
+                categoryIds.add(c.categoryIds[c.categories[pos]]);
+            }
+        }
+        return categoryIds;
+    }
+
+    // Reviews are only ever added, so a lower count than the one held is a late callback with older stats
+    public void ratingChanged(Long productId, long reviewCount, double averageRating) {
+        synchronized (writeMonitor) {
+            markChanged(productId);
+            Columns c = columns;
+            int pos = c.find(productId);
+            if (pos >= 0 && reviewCount >= c.reviewCounts[pos]) {
+                Columns next = c.shallowCopy();
+                next.ratings = c.ratings.clone();
+                next.reviewCounts = c.reviewCounts.clone();
+                next.ratings[pos] = averageRating;
+                next.reviewCounts[pos] = (int) reviewCount;
+                columns = next;
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!enabled) {
+            log.info("Catalog snapshot disabled; listings and filters read from the database");
+            return;
+        }
+        Thread.ofVirtual().name("catalog-snapshot-build").start(this::rebuild);
+    }
+
+    /**
+     * Loads a fresh snapshot from the database and swaps it in. Writes that land while the
+     * build runs are recorded and replayed from the database after the swap.
+     * Does nothing when the snapshot is disabled.
+     */
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (rebuildMonitor) {
+            long start = System.nanoTime();
+            synchronized (writeMonitor) {
+                changedDuringRebuild = new HashSet<>();
+            }
+            Columns fresh = new Columns(1024);
+            Map<Long, Integer> freshOrdinals = new HashMap<>();
+            try {
+                catalogLoader.forEachProduct(p -> fresh.size = append(fresh, freshOrdinals, p));
+                catalogLoader.forEachRating(s -> setRating(fresh, s));
+            } catch (RuntimeException e) {
+                synchronized (writeMonitor) {
+                    changedDuringRebuild = null;
+                }
+                log.error("Catalog snapshot build failed", e);
+                return;
+            }
+
+            Set<Long> replay;
+            synchronized (writeMonitor) {
+                columns = fresh;
+                categoryOrdinals = freshOrdinals;
+                replay = changedDuringRebuild;
+                changedDuringRebuild = null;
+            }
+            replay(replay);
+            ready = true;
+            Columns built = columns;
+            long bytes = built.estimatedBytes();
+            log.info("Catalog snapshot built: {} products, ~{} MB ({} bytes/product) in {} ms",
+                    built.size, bytes >> 20, built.size == 0 ? 0 : bytes / built.size,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private void replay(Set<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<Product> current = catalogLoader.load(productIds);
+        List<ProductRatingStats> ratings = catalogLoader.ratings(productIds);
+        synchronized (writeMonitor) {
+            Set<Long> gone = new HashSet<>(productIds);
+            for (Product p : current) {
+                gone.remove(p.getProductId());
+                upsert(p);
+            }
+            gone.forEach(id -> {
+                int pos = columns.find(id);
+                if (pos >= 0) {
+                    columns = columns.resized(columns.capacity(), -1, pos);
+                }
+            });
+            ratings.forEach(s -> ratingChanged(s.getProductId(), s.getReviewCount(), average(s)));
+        }
+    }
+
+    // Called under writeMonitor, so a write is either replayed or lands in the swapped-in snapshot
+    private void markChanged(Long productId) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(productId);
+        }
+    }
+
+    // Called under writeMonitor
+    private void upsert(Product p) {
+        Columns c = columns;
+        int pos = c.find(p.getProductId());
+        Columns next;
+        if (pos >= 0) {
+            // Update: copy the product's own columns, keep ids and ratings
+            next = c.shallowCopy();
+            next.prices = c.prices.clone();
+            next.stock = c.stock.clone();
+            next.categories = c.categories.clone();
+            next.names = c.names.clone();
+            next.descriptions = c.descriptions.clone();
+            next.skus = c.skus.clone();
+            next.pictures = c.pictures.clone();
+        } else {
+            pos = -pos - 1;
+            if (pos == c.size && c.size < c.capacity()) {
+                // Highest id so far: the slot past the published size is invisible to readers
+                next = c.shallowCopy();
+                next.size++;
+            } else {
+                int capacity = c.size < c.capacity() ? c.capacity() : c.capacity() + (c.capacity() >> 1) + 16;
+                next = c.resized(capacity, pos, -1);
+            }
+            next.ids[pos] = p.getProductId();
+            next.ratings[pos] = 0;
+            next.reviewCounts[pos] = 0;
+        }
+        write(next, categoryOrdinals, pos, p);
+        columns = next;
+    }
+
+    // Appends during a build; rows arrive in productId order
+    private static int append(Columns c, Map<Long, Integer> ordinals, Product p) {
+        int pos = c.size;
+        if (pos == c.capacity()) {
+            Columns grown = c.resized(pos + (pos >> 1) + 16, -1, -1);
+            c.ids = grown.ids;
+            c.prices = grown.prices;
+            c.stock = grown.stock;
+            c.categories = grown.categories;
+            c.ratings = grown.ratings;
+            c.reviewCounts = grown.reviewCounts;
+            c.names = grown.names;
+            c.descriptions = grown.descriptions;
+            c.skus = grown.skus;
+            c.pictures = grown.pictures;
+        }
+        c.ids[pos] = p.getProductId();
+        write(c, ordinals, pos, p);
+        return pos + 1;
+    }
+
+    private static void write(Columns c, Map<Long, Integer> ordinals, int pos, Product p) {
+        c.prices[pos] = p.getBasePrice();
+        c.stock[pos] = p.getStockQty();
+        c.names[pos] = p.getProductName();
+        c.descriptions[pos] = p.getProductDescription();
+        c.skus[pos] = p.getSku();
+        c.pictures[pos] = p.getPicture();
+        c.categories[pos] = intern(c, ordinals, p.getCategory().getCategoryId(), p.getCategory().getName());
+    }
+
+    // Category ids and names are stored once; the tables only ever grow, by copy
+    private static int intern(Columns c, Map<Long, Integer> ordinals, Long categoryId, String name) {
+        Integer ordinal = ordinals.get(categoryId);
+        if (ordinal == null) {
+            ordinal = c.categoryIds.length;
+            c.categoryIds = Arrays.copyOf(c.categoryIds, ordinal + 1);
+            c.categoryNames = Arrays.copyOf(c.categoryNames, ordinal + 1);
+            c.categoryIds[ordinal] = categoryId;
+            c.categoryNames[ordinal] = name;
+            ordinals.put(categoryId, ordinal);
+        }
+        return ordinal;
+    }
+
+    private static void setRating(Columns c, ProductRatingStats s) {
+        int pos = c.find(s.getProductId());
+        if (pos >= 0) {
+            c.ratings[pos] = average(s);
+            c.reviewCounts[pos] = (int) s.getReviewCount();
+        }
+    }
+
+    private static double average(ProductRatingStats s) {
+        return s.getReviewCount() == 0 ? 0.0 : (double) s.getRatingSum() / s.getReviewCount();
+    }
+
+    private static int ordinalOf(Columns c, long categoryId) {
+        for (int i = 0; i < c.categoryIds.length; i++) {
+            if (c.categoryIds[i] == categoryId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static ProductResponse toResponse(Columns c, int i) {
+        ProductResponse response = new ProductResponse();
+        response.setProductId(c.ids[i]);
+        response.setProductName(c.names[i]);
+        response.setProductDescription(c.descriptions[i]);
+        response.setSku(c.skus[i]);
+        response.setPicture(c.pictures[i]);
+        response.setBasePrice(c.prices[i]);
+        response.setStockQty(c.stock[i]);
+        response.setCategoryId(c.categoryIds[c.categories[i]]);
+        response.setCategoryName(c.categoryNames[c.categories[i]]);
+        response.setAverageRating(c.ratings[i]);
+        response.setReviewCount(c.reviewCounts[i]);
+        return response;
+    }
+
+    // Same match as LOWER(name) LIKE %keyword%, without lower-casing a copy of every name
+    private static boolean containsIgnoreCase(String text, String keyword) {
+        if (text == null) {
+            return false;
+        }
+        for (int i = 0; i + keyword.length() <= text.length(); i++) {
+            if (text.regionMatches(true, i, keyword, 0, keyword.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Stable merge sort of row numbers by a column, so rows with equal keys keep their scan order
+    private static void stableSort(int[] rows, int count, double[] key, boolean descending) {
+        int[] buffer = new int[count];
+        for (int width = 1; width < count; width *= 2) {
+            for (int lo = 0; lo < count - width; lo += 2 * width) {
+                int mid = lo + width, hi = Math.min(lo + 2 * width, count);
+                int i = lo, j = mid, out = lo;
+                while (i < mid && j < hi) {
+                    double a = key[rows[i]], b = key[rows[j]];
+                    boolean takeRight = descending ? b > a : b < a;
+                    buffer[out++] = takeRight ? rows[j++] : rows[i++];
+                }
+                while (i < mid) {
+                    buffer[out++] = rows[i++];
+                }
+                while (j < hi) {
+                    buffer[out++] = rows[j++];
+                }
+                System.arraycopy(buffer, lo, rows, lo, hi - lo);
+            }
+        }
+    }
+}
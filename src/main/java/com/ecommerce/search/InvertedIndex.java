@@ -0,0 +1,296 @@
+package com.ecommerce.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * In-memory inverted index with BM25 ranking.
+ *
+ * Documents get a dense ordinal in insertion order, so every postings list is
+ * sorted by ordinal. Updates append a new ordinal and tombstone the old one;
+ * tombstoned postings are skipped at query time and dropped when the owner
+ * rebuilds the index. Not thread-safe: {@link ProductSearchIndex} guards it
+ * with a read/write lock.
+ */
+final class InvertedIndex {
+
+    // Field boosts applied to term frequency (BM25F-style, single length norm)
+    static final int NAME_WEIGHT = 3;
+    static final int SKU_WEIGHT = 3;
+    static final int CATEGORY_WEIGHT = 2;
+    static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private static final float PREFIX_BOOST = 0.7f;
+    private static final float FUZZY_BOOST = 0.5f;
+    private static final int MAX_PREFIX_TERMS = 64;
+    private static final int MAX_PREFIX_POSTINGS = 200_000;
+    private static final int MAX_FUZZY_TERMS = 16;
+    private static final int MAX_QUERY_TOKENS = 10;
+
+    private final TreeMap<String, Postings> terms = new TreeMap<>(); // sorted for prefix ranges
+    private final TreeSet<String> wordTerms = new TreeSet<>();       // letter-only terms, the typo candidates
+    private final Map<Long, Integer> ordinalByProductId = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private long[] productIds = new long[1024];
+    private int[] docLengths = new int[1024];
+    private int maxDoc;
+    private int liveDocs;
+    private long totalLength;
+
+    static final class Postings {
+        int[] docs = new int[4];
+        short[] freqs = new short[4];
+        int size;
+        int liveCount; // document frequency; still counts tombstoned docs until the next rebuild
+
+        void add(int doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = (short) Math.min(freq, Short.MAX_VALUE);
+            size++;
+            liveCount++;
+        }
+    }
+
+    // Per-thread accumulators sized to maxDoc, reset through the touched list after each query
+    private static final class Scratch {
+        float[] scores = new float[0];
+        int[] masks = new int[0];
+        int[] touched = new int[256];
+        int touchedCount;
+
+        void ensure(int size) {
+            if (scores.length < size) {
+                scores = new float[size + size / 4];
+                masks = new int[scores.length];
+            }
+        }
+
+        void hit(int doc, int tokenBit, float score) {
+            if (masks[doc] == 0) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedCount * 2);
+                }
+                touched[touchedCount++] = doc;
+            }
+            masks[doc] |= tokenBit;
+            scores[doc] += score;
+        }
+
+        void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                scores[touched[i]] = 0f;
+                masks[touched[i]] = 0;
+            }
+            touchedCount = 0;
+        }
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    int size() {
+        return liveDocs;
+    }
+
+    int tombstones() {
+        return maxDoc - liveDocs;
+    }
+
+    void add(long productId, String name, String description, String sku, String categoryName) {
+        remove(productId);
+
+        Map<String, Integer> freqs = new HashMap<>();
+        Tokenizer.tokenize(name).forEach(t -> freqs.merge(t, NAME_WEIGHT, Integer::sum));
+        Tokenizer.tokenize(sku).forEach(t -> freqs.merge(t, SKU_WEIGHT, Integer::sum));
+        String compactSku = Tokenizer.compact(sku);
+        if (!compactSku.isEmpty()) {
+            freqs.merge(compactSku, SKU_WEIGHT, Integer::sum);
+        }
+        Tokenizer.tokenize(categoryName).forEach(t -> freqs.merge(t, CATEGORY_WEIGHT, Integer::sum));
+        Tokenizer.tokenize(description).forEach(t -> freqs.merge(t, DESCRIPTION_WEIGHT, Integer::sum));
+
+        int doc = maxDoc++;
+        if (doc == productIds.length) {
+            productIds = Arrays.copyOf(productIds, doc * 2);
+            docLengths = Arrays.copyOf(docLengths, doc * 2);
+        }
+        int length = 0;
+        for (Map.Entry<String, Integer> e : freqs.entrySet()) {
+            terms.computeIfAbsent(e.getKey(), t -> {
+                if (t.length() >= 3 && t.chars().allMatch(Character::isLetter)) {
+                    wordTerms.add(t);
+                }
+                return new Postings();
+            }).add(doc, e.getValue());
+            length += e.getValue();
+        }
+        productIds[doc] = productId;
+        docLengths[doc] = length;
+        totalLength += length;
+        live.set(doc);
+        liveDocs++;
+        ordinalByProductId.put(productId, doc);
+    }
+
+    void remove(long productId) {
+        Integer doc = ordinalByProductId.remove(productId);
+        if (doc != null) {
+            live.clear(doc);
+            liveDocs--;
+            totalLength -= docLengths[doc];
+        }
+    }
+
+    /**
+     * Ranked product ids for a free-text query. Every query token must match (exactly, as a
+     * prefix, or within one or two edits); if that yields nothing, any-token matches are returned.
+     */
+    List<Long> search(String query, int limit) {
+        List<String> tokens = Tokenizer.tokenize(query).stream().distinct().limit(MAX_QUERY_TOKENS).toList();
+        if (tokens.isEmpty() || liveDocs == 0) {
+            return List.of();
+        }
+
+        Scratch scratch = SCRATCH.get();
+        scratch.ensure(maxDoc);
+        try {
+            float avgLength = Math.max(1f, (float) totalLength / liveDocs);
+            for (int i = 0; i < tokens.size(); i++) {
+                scoreToken(tokens.get(i), 1 << i, avgLength, scratch);
+            }
+            int allTokens = (1 << tokens.size()) - 1;
+            List<Long> ranked = topK(scratch, allTokens, limit);
+            return ranked.isEmpty() ? topK(scratch, 0, limit) : ranked;
+        } finally {
+            scratch.reset();
+        }
+    }
+
+    private void scoreToken(String token, int tokenBit, float avgLength, Scratch scratch) {
+        Postings exact = terms.get(token);
+        if (exact != null) {
+            accumulate(exact, 1f, tokenBit, avgLength, scratch);
+        }
+
+        // Prefix expansion (from two characters), most common completions first
+        NavigableMap<String, Postings> completions = token.length() < 2
+                ? Collections.emptyNavigableMap()
+                : terms.subMap(token, false, token + Character.MAX_VALUE, false);
+        if (!completions.isEmpty()) {
+            List<Postings> expansions = new ArrayList<>(completions.values());
+            if (expansions.size() > MAX_PREFIX_TERMS) {
+                expansions.sort(Comparator.comparingInt((Postings p) -> p.liveCount).reversed());
+                expansions = expansions.subList(0, MAX_PREFIX_TERMS);
+            }
+            int budget = MAX_PREFIX_POSTINGS;
+            for (Postings p : expansions) {
+                if ((budget -= p.size) < 0) {
+                    break;
+                }
+                accumulate(p, PREFIX_BOOST, tokenBit, avgLength, scratch);
+            }
+        }
+
+        // Typo tolerance only when the token is not a known term or prefix; numbers and SKUs must match exactly
+        if (exact == null && completions.isEmpty() && token.length() >= 4) {
+            int maxEdits = token.length() >= 8 ? 2 : 1;
+            int found = 0;
+            String first = token.substring(0, 1);
+            for (String term : wordTerms.subSet(first, true, first + Character.MAX_VALUE, false)) {
+                if (Math.abs(term.length() - token.length()) <= maxEdits && withinEdits(token, term, maxEdits)) {
+                    accumulate(terms.get(term), FUZZY_BOOST, tokenBit, avgLength, scratch);
+                    if (++found == MAX_FUZZY_TERMS) {
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private void accumulate(Postings postings, float boost, int tokenBit, float avgLength, Scratch scratch) {
+        int df = Math.max(1, postings.liveCount);
+        float idf = (float) Math.log(1 + (liveDocs - df + 0.5) / (df + 0.5));
+        for (int i = 0; i < postings.size; i++) {
+            int doc = postings.docs[i];
+            if (!live.get(doc)) {
+                continue;
+            }
+            float tf = postings.freqs[i];
+            float norm = K1 * (1 - B + B * docLengths[doc] / avgLength);
+            scratch.hit(doc, tokenBit, boost * idf * tf * (K1 + 1) / (tf + norm));
+        }
+    }
+
+    // requiredMask 0 means any match
+    private List<Long> topK(Scratch scratch, int requiredMask, int limit) {
+        PriorityQueue<Integer> heap = new PriorityQueue<>(limit + 1, (a, b) -> {
+            int c = Float.compare(scratch.scores[a], scratch.scores[b]);
+            return c != 0 ? c : Long.compare(productIds[b], productIds[a]);
+        });
+        for (int i = 0; i < scratch.touchedCount; i++) {
+            int doc = scratch.touched[i];
+            if ((scratch.masks[doc] & requiredMask) != requiredMask) {
+                continue;
+            }
+            if (heap.size() < limit) {
+                heap.offer(doc);
+            } else if (heap.comparator().compare(doc, heap.peek()) > 0) {
+                heap.poll();
+                heap.offer(doc);
+            }
+        }
+        Long[] ranked = new Long[heap.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = productIds[heap.poll()];
+        }
+        return Arrays.asList(ranked);
+    }
+
+    // Bounded Levenshtein distance with transpositions; bails out once a row exceeds maxEdits
+    static boolean withinEdits(String a, String b, int maxEdits) {
+        int n = a.length(), m = b.length();
+        int[] prevPrev = new int[m + 1];
+        int[] prev = new int[m + 1];
+        int[] cur = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            prev[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            cur[0] = i;
+            int rowMin = cur[0];
+            for (int j = 1; j <= m; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int d = Math.min(Math.min(prev[j] + 1, cur[j - 1] + 1), prev[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d = Math.min(d, prevPrev[j - 2] + 1);
+                }
+                cur[j] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            if (rowMin > maxEdits) {
+                return false;
+            }
+            int[] t = prevPrev;
+            prevPrev = prev;
+            prev = cur;
+            cur = t;
+        }
+        return prev[m] <= maxEdits;
+    }
+}
@@ -0,0 +1,318 @@
+package com.ecommerce.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.LongPredicate;
+
+/**
+ * Immutable prefix table with a range-maximum segment tree over scores.
+ *
+ * Every suggestion is one normalized source string; its keys are offsets into
+ * that string (the start of the text and of later words), so "15 pro" finds
+ * "iphone 15 pro" without storing a second copy of the text. Keys are sorted,
+ * a prefix maps to one contiguous key range (two binary searches), and the
+ * top-k of that range are pulled best-first by splitting the range around its
+ * maximum: O(log n + k log n) however many keys share the prefix.
+ */
+final class PrefixSnapshot {
+
+    static final PrefixSnapshot EMPTY = new Builder().build();
+
+    // Per source
+    private final String[] sources;
+    private final String[] texts;
+    private final long[] refs;
+    private final long[] scores;
+    // Per key, sorted by the suffix they point at
+    private final int[] keySource;
+    private final short[] keyOffset;
+    // Iterative segment tree: tree[n + i] is key i, inner nodes hold the best key of their range
+    private final int[] tree;
+
+    record Hit(long ref, String text, long score) {
+    }
+
+    private PrefixSnapshot(String[] sources, String[] texts, long[] refs, long[] scores,
+                           int[] keySource, short[] keyOffset) {
+        this.sources = sources;
+        this.texts = texts;
+        this.refs = refs;
+        this.scores = scores;
+        this.keySource = keySource;
+        this.keyOffset = keyOffset;
+        int n = keySource.length;
+        this.tree = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            tree[n + i] = i;
+        }
+        for (int i = n - 1; i >= 1; i--) {
+            tree[i] = better(tree[2 * i], tree[2 * i + 1]);
+        }
+    }
+
+    static final class Builder {
+        private String[] sources = new String[1024];
+        private String[] texts = new String[1024];
+        private long[] refs = new long[1024];
+        private long[] scores = new long[1024];
+        private int sourceCount;
+        private int[] keySource = new int[2048];
+        private short[] keyOffset = new short[2048];
+        private int keyCount;
+
+        // Adds one suggestion under every offset in keyOffsets; key must already be normalized
+        void add(String key, short[] keyOffsets, String text, long ref, long score) {
+            if (sourceCount == sources.length) {
+                int size = sourceCount * 2;
+                sources = Arrays.copyOf(sources, size);
+                texts = Arrays.copyOf(texts, size);
+                refs = Arrays.copyOf(refs, size);
+                scores = Arrays.copyOf(scores, size);
+            }
+            int source = sourceCount++;
+            sources[source] = key;
+            texts[source] = text;
+            refs[source] = ref;
+            scores[source] = score;
+            for (short offset : keyOffsets) {
+                if (keyCount == keySource.length) {
+                    keySource = Arrays.copyOf(keySource, keyCount * 2);
+                    keyOffset = Arrays.copyOf(keyOffset, keyCount * 2);
+                }
+                keySource[keyCount] = source;
+                keyOffset[keyCount] = offset;
+                keyCount++;
+            }
+        }
+
+        PrefixSnapshot build() {
+            String[] s = Arrays.copyOf(sources, sourceCount);
+            int[] ks = Arrays.copyOf(keySource, keyCount);
+            short[] ko = Arrays.copyOf(keyOffset, keyCount);
+            sortKeys(s, ks, ko);
+            return new PrefixSnapshot(s, Arrays.copyOf(texts, sourceCount),
+                    Arrays.copyOf(refs, sourceCount), Arrays.copyOf(scores, sourceCount), ks, ko);
+        }
+    }
+
+    int size() {
+        return sources.length;
+    }
+
+    int keys() {
+        return keySource.length;
+    }
+
+    /**
+     * Best suggestions with a key starting with the prefix, one hit per ref.
+     *
+     * @param skip refs to leave out (e.g. changed since this snapshot was built)
+     */
+    List<Hit> top(String prefix, int k, LongPredicate skip) {
+        int lo = lowerBound(prefix, false);
+        int hi = lowerBound(prefix, true);
+        List<Hit> hits = new ArrayList<>(k);
+        if (lo >= hi) {
+            return hits;
+        }
+        // Ranges ordered by their best key: {from, to, best}
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> compare(b[2], a[2]));
+        ranges.add(new int[]{lo, hi, argMax(lo, hi)});
+        while (!ranges.isEmpty() && hits.size() < k) {
+            int[] r = ranges.poll();
+            int pos = r[2];
+            int source = keySource[pos];
+            long ref = refs[source];
+            if (!skip.test(ref) && !contains(hits, ref)) {
+                hits.add(new Hit(ref, texts[source], scores[source]));
+            }
+            if (r[0] < pos) {
+                ranges.add(new int[]{r[0], pos, argMax(r[0], pos)});
+            }
+            if (pos + 1 < r[1]) {
+                ranges.add(new int[]{pos + 1, r[1], argMax(pos + 1, r[1])});
+            }
+        }
+        return hits;
+    }
+
+    private static boolean contains(List<Hit> hits, long ref) {
+        for (Hit h : hits) {
+            if (h.ref() == ref) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // First key >= prefix, or (past = true) first key that sorts after every key starting with prefix
+    private int lowerBound(String prefix, boolean past) {
+        int lo = 0, hi = keySource.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = compareSuffix(sources[keySource[mid]], keyOffset[mid], prefix, past);
+            if (c < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // Compares source[offset..] with prefix; with asPrefix, a suffix that starts with prefix counts as smaller
+    private static int compareSuffix(String source, int offset, String prefix, boolean asPrefix) {
+        int n = source.length() - offset;
+        int m = prefix.length();
+        for (int i = 0; i < Math.min(n, m); i++) {
+            int c = source.charAt(offset + i) - prefix.charAt(i);
+            if (c != 0) {
+                return c;
+            }
+        }
+        if (n >= m && asPrefix) {
+            return -1;
+        }
+        return n - m;
+    }
+
+    // Best key position in [lo, hi)
+    private int argMax(int lo, int hi) {
+        int n = keySource.length;
+        int best = -1;
+        for (int l = lo + n, h = hi + n; l < h; l >>= 1, h >>= 1) {
+            if ((l & 1) == 1) {
+                best = better(best, tree[l++]);
+            }
+            if ((h & 1) == 1) {
+                best = better(best, tree[--h]);
+            }
+        }
+        return best;
+    }
+
+    private int better(int a, int b) {
+        if (a < 0) {
+            return b;
+        }
+        if (b < 0) {
+            return a;
+        }
+        return compare(a, b) >= 0 ? a : b;
+    }
+
+    // Higher score first; ties go to the shorter, then alphabetically smaller, key
+    private int compare(int a, int b) {
+        int c = Long.compare(scores[keySource[a]], scores[keySource[b]]);
+        if (c != 0) {
+            return c;
+        }
+        c = Integer.compare(suffixLength(b), suffixLength(a));
+        return c != 0 ? c : Integer.compare(b, a);
+    }
+
+    private int suffixLength(int key) {
+        return sources[keySource[key]].length() - keyOffset[key];
+    }
+
+    // Sorts keys by suffix without materializing the suffix strings (multikey quicksort over key positions)
+    private static void sortKeys(String[] sources, int[] keySource, short[] keyOffset) {
+        int n = keySource.length;
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        new KeySorter(sources, keySource, keyOffset, order, new long[n]).sort(0, n, 0, false);
+        int[] sortedSource = new int[n];
+        short[] sortedOffset = new short[n];
+        for (int i = 0; i < n; i++) {
+            sortedSource[i] = keySource[order[i]];
+            sortedOffset[i] = keyOffset[order[i]];
+        }
+        System.arraycopy(sortedSource, 0, keySource, 0, n);
+        System.arraycopy(sortedOffset, 0, keyOffset, 0, n);
+    }
+
+    // Bentley-Sedgewick three-way radix quicksort over four characters at a time. The current
+    // chunk of every key is cached next to it, so partitioning reads memory sequentially and each
+    // suffix is loaded once per depth rather than once per comparison.
+    private record KeySorter(String[] sources, int[] keySource, short[] keyOffset, int[] order, long[] chunks) {
+
+        private static final int INSERTION_THRESHOLD = 12;
+
+        // Characters depth..depth+3 of the suffix, 16 bits each (char + 1, 0 past the end); compare unsigned
+        private long chunk(int key, int depth) {
+            String s = sources[keySource[key]];
+            int from = keyOffset[key] + depth;
+            int to = Math.min(s.length(), from + 4);
+            long packed = 0;
+            for (int i = from; i < from + 4; i++) {
+                packed = (packed << 16) | (i < to ? Math.min(s.charAt(i), 0xFFFE) + 1 : 0);
+            }
+            return packed;
+        }
+
+        void sort(int lo, int hi, int depth, boolean loaded) {
+            while (hi - lo > INSERTION_THRESHOLD) {
+                if (!loaded) {
+                    for (int i = lo; i < hi; i++) {
+                        chunks[i] = chunk(order[i], depth);
+                    }
+                }
+                long pivot = chunks[lo + (hi - lo) / 2];
+                int lt = lo, gt = hi - 1, i = lo;
+                while (i <= gt) {
+                    int c = Long.compareUnsigned(chunks[i], pivot);
+                    if (c < 0) {
+                        swap(lt++, i++);
+                    } else if (c > 0) {
+                        swap(i, gt--);
+                    } else {
+                        i++;
+                    }
+                }
+                sort(lo, lt, depth, true);
+                sort(gt + 1, hi, depth, true);
+                if ((pivot & 0xFFFF) == 0) {
+                    return; // the suffix ends inside this chunk: the middle keys are equal
+                }
+                lo = lt;
+                hi = gt + 1;
+                depth += 4;
+                loaded = false;
+            }
+            insertionSort(lo, hi, depth);
+        }
+
+        private void insertionSort(int lo, int hi, int depth) {
+            for (int i = lo + 1; i < hi; i++) {
+                for (int j = i; j > lo && compareFrom(order[j], order[j - 1], depth) < 0; j--) {
+                    swap(j, j - 1);
+                }
+            }
+        }
+
+        private int compareFrom(int a, int b, int depth) {
+            for (int d = depth; ; d += 4) {
+                long ca = chunk(a, d), cb = chunk(b, d);
+                if (ca != cb) {
+                    return Long.compareUnsigned(ca, cb);
+                }
+                if ((ca & 0xFFFF) == 0) {
+                    return 0;
+                }
+            }
+        }
+
+        private void swap(int i, int j) {
+            int t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+            long c = chunks[i];
+            chunks[i] = chunks[j];
+            chunks[j] = c;
+        }
+    }
+}
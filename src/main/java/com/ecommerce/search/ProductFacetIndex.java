@@ -0,0 +1,388 @@
+package com.ecommerce.search;
+
+import com.ecommerce.dto.ProductFacets;
+import com.ecommerce.dto.ProductFilter;
+import com.ecommerce.dto.ProductPatch;
+import com.ecommerce.model.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap indexes over category, price band and in-stock flag for facet counts.
+ *
+ * Every product gets a dense ordinal; each category, each price band and the
+ * in-stock flag own one bitmap over those ordinals. A facet count is then the
+ * popcount of a few ANDed bitmaps, independent of how many rows match.
+ * Facets are disjunctive: a facet's counts apply every filter except its own,
+ * so picking a category still shows the counts for the other categories.
+ *
+ * Built in the background at startup and kept current by ProductService
+ * (product writes) and InventoryService (stock flushes).
+ */
+@Component
+public class ProductFacetIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductFacetIndex.class);
+
+    private final CatalogLoader catalogLoader;
+    private final double[] bandEdges; // band i is [edge i, edge i+1); the last band is open-ended
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object rebuildMonitor = new Object();
+    private State state;
+    private volatile boolean ready;
+    private volatile Set<Long> changedDuringRebuild;
+
+    private static final ThreadLocal<Bitmap[]> SCRATCH =
+            ThreadLocal.withInitial(() -> new Bitmap[]{new Bitmap(0), new Bitmap(0), new Bitmap(0), new Bitmap(0)});
+
+    public ProductFacetIndex(CatalogLoader catalogLoader,
+                             @Value("${search.facets.price-bands:0,500,1000,2500,5000,10000,25000,50000,100000}") double[] bandEdges) {
+        this.catalogLoader = catalogLoader;
+        this.bandEdges = bandEdges.clone();
+        Arrays.sort(this.bandEdges);
+        this.state = new State(this.bandEdges.length);
+    }
+
+    // All index data; swapped as a whole on rebuild
+    private static final class State {
+        final Map<Long, Integer> ordinalByProductId = new HashMap<>();
+        final ArrayDeque<Integer> freeOrdinals = new ArrayDeque<>();
+        final Map<Long, Bitmap> byCategory = new HashMap<>();
+        final Bitmap[] byBand;
+        final Bitmap inStock = new Bitmap(1024);
+        final Bitmap live = new Bitmap(1024);
+        long[] categoryIds = new long[1024];
+        double[] prices = new double[1024];
+        int[] stock = new int[1024];
+        String[] names = new String[1024];  // lower-cased, for keyword filters
+        int maxOrdinal;
+
+        State(int bands) {
+            byBand = new Bitmap[bands];
+            for (int i = 0; i < bands; i++) {
+                byBand[i] = new Bitmap(1024);
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            markChanged(product.getProductId());
+            put(state, product.getProductId(), product.getCategory().getCategoryId(),
+                    product.getBasePrice(), product.getStockQty(), product.getProductName());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            markChanged(productId);
+            removeFrom(state, productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Mirrors the write-behind stock decrements so the in-stock facet follows sales
+    public void stockDecremented(Map<Long, Integer> quantities) {
+        lock.writeLock().lock();
+        try {
+            quantities.forEach((productId, qty) -> {
+                markChanged(productId);
+                Integer ord = state.ordinalByProductId.get(productId);
+                if (ord != null) {
+                    setStock(state, ord, Math.max(0, state.stock[ord] - qty));
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Prices and stock set by a bulk update; null fields keep their value
+    public void pricesAndStockSet(List<ProductPatch> patches) {
+        lock.writeLock().lock();
+        try {
+            for (ProductPatch patch : patches) {
+                markChanged(patch.productId());
+                Integer ord = state.ordinalByProductId.get(patch.productId());
+                if (ord == null) {
+                    continue;
+                }
+                if (patch.basePrice() != null) {
+                    state.byBand[band(state.prices[ord])].clear(ord);
+                    state.prices[ord] = patch.basePrice();
+                    state.byBand[band(patch.basePrice())].set(ord);
+                }
+                if (patch.stockQty() != null) {
+                    setStock(state, ord, patch.stockQty());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Facet counts for a filter. Each facet applies every filter except its own dimension;
+     * {@code total} applies all of them.
+     */
+    public ProductFacets facets(ProductFilter filter) {
+        lock.readLock().lock();
+        try {
+            State s = state;
+            Bitmap[] scratch = SCRATCH.get();
+            Bitmap category = categoryMatch(s, filter);
+            Bitmap price = priceMatch(s, filter, scratch[0]);
+            Bitmap stock = stockMatch(s, filter, scratch[1]);
+            Bitmap keyword = keywordMatch(s, filter, scratch[2]);
+            Bitmap work = scratch[3];
+
+            ProductFacets facets = new ProductFacets();
+
+            // categories: price AND stock AND keyword
+            work.and(price, stock).and(work, keyword);
+            Map<Long, Long> categories = new LinkedHashMap<>();
+            s.byCategory.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(e -> {
+                        int n = Bitmap.andCardinality(work, e.getValue());
+                        if (n > 0) {
+                            categories.put(e.getKey(), (long) n);
+                        }
+                    });
+            facets.setCategories(categories);
+
+            // price bands: category AND stock AND keyword
+            work.and(category, stock).and(work, keyword);
+            List<ProductFacets.PriceBucket> buckets = new ArrayList<>(bandEdges.length);
+            for (int i = 0; i < bandEdges.length; i++) {
+                Double max = i + 1 < bandEdges.length ? bandEdges[i + 1] : null;
+                buckets.add(new ProductFacets.PriceBucket(bandEdges[i], max, Bitmap.andCardinality(work, s.byBand[i])));
+            }
+            facets.setPriceBuckets(buckets);
+
+            // in stock: category AND price AND keyword
+            work.and(category, price).and(work, keyword);
+            facets.setInStock(Bitmap.andCardinality(work, s.inStock));
+
+            work.and(work, stock);
+            facets.setTotal(work.cardinality());
+            return facets;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread.ofVirtual().name("facet-index-build").start(this::rebuild);
+    }
+
+    // Builds a fresh index from the database and swaps it in; writes during the build are replayed after the swap
+    public void rebuild() {
+        synchronized (rebuildMonitor) {
+            long start = System.nanoTime();
+            changedDuringRebuild = ConcurrentHashMap.newKeySet();
+            State fresh = new State(bandEdges.length);
+            try {
+                catalogLoader.forEachProduct(p -> put(fresh, p.getProductId(), p.getCategory().getCategoryId(),
+                        p.getBasePrice(), p.getStockQty(), p.getProductName()));
+            } catch (RuntimeException e) {
+                changedDuringRebuild = null;
+                log.error("Facet index build failed", e);
+                return;
+            }
+
+            Set<Long> replay;
+            lock.writeLock().lock();
+            try {
+                state = fresh;
+                replay = changedDuringRebuild;
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!replay.isEmpty()) {
+                List<Product> current = catalogLoader.load(replay);
+                lock.writeLock().lock();
+                try {
+                    replay.forEach(id -> removeFrom(state, id));
+                    current.forEach(p -> put(state, p.getProductId(), p.getCategory().getCategoryId(),
+                            p.getBasePrice(), p.getStockQty(), p.getProductName()));
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            ready = true;
+            log.info("Facet index built: {} products in {} ms",
+                    fresh.ordinalByProductId.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    // Called under the write lock, so a write is either replayed or lands in the swapped-in state
+    private void markChanged(Long productId) {
+        Set<Long> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.add(productId);
+        }
+    }
+
+    private void put(State s, long productId, long categoryId, double price, int stockQty, String name) {
+        Integer existing = s.ordinalByProductId.get(productId);
+        int ord;
+        if (existing != null) {
+            ord = existing;
+            clearDimensions(s, ord);
+        } else {
+            ord = s.freeOrdinals.isEmpty() ? s.maxOrdinal++ : s.freeOrdinals.pop();
+            if (ord >= s.prices.length) {
+                int capacity = s.prices.length * 2;
+                s.categoryIds = Arrays.copyOf(s.categoryIds, capacity);
+                s.prices = Arrays.copyOf(s.prices, capacity);
+                s.stock = Arrays.copyOf(s.stock, capacity);
+                s.names = Arrays.copyOf(s.names, capacity);
+            }
+            s.ordinalByProductId.put(productId, ord);
+        }
+        s.categoryIds[ord] = categoryId;
+        s.prices[ord] = price;
+        s.names[ord] = name != null ? name.toLowerCase(Locale.ROOT) : "";
+        s.byCategory.computeIfAbsent(categoryId, id -> new Bitmap(s.maxOrdinal)).set(ord);
+        s.byBand[band(price)].set(ord);
+        s.live.set(ord);
+        setStock(s, ord, stockQty);
+    }
+
+    private void removeFrom(State s, Long productId) {
+        Integer ord = s.ordinalByProductId.remove(productId);
+        if (ord != null) {
+            clearDimensions(s, ord);
+            s.inStock.clear(ord);
+            s.live.clear(ord);
+            s.names[ord] = null;
+            s.freeOrdinals.push(ord);
+        }
+    }
+
+    private void clearDimensions(State s, int ord) {
+        Bitmap category = s.byCategory.get(s.categoryIds[ord]);
+        if (category != null) {
+            category.clear(ord);
+        }
+        s.byBand[band(s.prices[ord])].clear(ord);
+    }
+
+    private static void setStock(State s, int ord, int stockQty) {
+        s.stock[ord] = stockQty;
+        if (stockQty > 0) {
+            s.inStock.set(ord);
+        } else {
+            s.inStock.clear(ord);
+        }
+    }
+
+    private int band(double price) {
+        int i = Arrays.binarySearch(bandEdges, price);
+        int band = i >= 0 ? i : -i - 2;
+        return Math.max(0, band);
+    }
+
+    private Bitmap categoryMatch(State s, ProductFilter filter) {
+        if (filter.categoryId() == null) {
+            return s.live;
+        }
+        Bitmap category = s.byCategory.get(filter.categoryId());
+        return category != null ? category : new Bitmap(0);
+    }
+
+    // Whole bands inside the range are taken as-is; only the bands at the edges are checked per product
+    private Bitmap priceMatch(State s, ProductFilter filter, Bitmap out) {
+        if (filter.minPrice() == null && filter.maxPrice() == null) {
+            return s.live;
+        }
+        double min = filter.minPrice() != null ? filter.minPrice() : Double.NEGATIVE_INFINITY;
+        double max = filter.maxPrice() != null ? filter.maxPrice() : Double.POSITIVE_INFINITY;
+        out.reset(s.live.words.length);
+        for (int i = 0; i < bandEdges.length; i++) {
+            // Band 0 also holds anything priced below the first edge
+            double lo = i == 0 ? Double.NEGATIVE_INFINITY : bandEdges[i];
+            double hi = i + 1 < bandEdges.length ? bandEdges[i + 1] : Double.POSITIVE_INFINITY;
+            if (hi <= min || lo > max) {
+                continue;
+            }
+            boolean whole = lo >= min && hi <= max;
+            long[] band = s.byBand[i].words;
+            for (int w = 0; w < band.length && w < out.words.length; w++) {
+                long word = band[w];
+                if (!whole) {
+                    for (long bits = word; bits != 0; bits &= bits - 1) {
+                        int ord = (w << 6) + Long.numberOfTrailingZeros(bits);
+                        double price = s.prices[ord];
+                        if (price < min || price > max) {
+                            word &= ~(1L << ord);
+                        }
+                    }
+                }
+                out.words[w] |= word;
+            }
+        }
+        return out;
+    }
+
+    private Bitmap stockMatch(State s, ProductFilter filter, Bitmap out) {
+        if (filter.inStock() == null) {
+            return s.live;
+        }
+        if (filter.inStock()) {
+            return s.inStock;
+        }
+        out.copyOf(s.live);
+        for (int w = 0; w < out.words.length && w < s.inStock.words.length; w++) {
+            out.words[w] &= ~s.inStock.words[w];
+        }
+        return out;
+    }
+
+    // Same semantics as the database filter: case-insensitive substring of the name
+    private Bitmap keywordMatch(State s, ProductFilter filter, Bitmap out) {
+        if (filter.keyword() == null) {
+            return s.live;
+        }
+        String keyword = filter.keyword().toLowerCase(Locale.ROOT);
+        out.copyOf(s.live);
+        for (int w = 0; w < out.words.length; w++) {
+            for (long bits = out.words[w]; bits != 0; bits &= bits - 1) {
+                int ord = (w << 6) + Long.numberOfTrailingZeros(bits);
+                if (!s.names[ord].contains(keyword)) {
+                    out.words[w] &= ~(1L << ord);
+                }
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,159 @@
+package com.ecommerce.search;
+
+import com.ecommerce.model.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Full-text product search over name, SKU, category name and description.
+ *
+ * The index is built from the database in the background at startup and kept
+ * current by {@code ProductService} calling {@link #index(Product)} and
+ * {@link #remove(Long)} after each write. When tombstones from updates and
+ * deletes pile up, the index is rebuilt and swapped in. Until the first build
+ * finishes {@link #isReady()} is false and callers fall back to the database.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private final CatalogLoader catalogLoader;
+    private final double compactRatio;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object rebuildMonitor = new Object();
+    private InvertedIndex index = new InvertedIndex();
+    private volatile boolean ready;
+    private volatile Set<Long> changedDuringRebuild;
+
+    public ProductSearchIndex(CatalogLoader catalogLoader,
+                              @Value("${search.compact-ratio:0.2}") double compactRatio) {
+        this.catalogLoader = catalogLoader;
+        this.compactRatio = compactRatio;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<Long> search(String query, int limit) {
+        lock.readLock().lock();
+        try {
+            return index.search(query, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Product must have its category loaded
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            markChanged(product.getProductId());
+            add(index, product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            markChanged(productId);
+            index.remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread.ofVirtual().name("search-index-build").start(this::rebuild);
+    }
+
+    // Drops tombstoned postings once they make up more than search.compact-ratio of the index
+    @Scheduled(fixedDelayString = "${search.compact-check-ms:60000}")
+    public void compactIfNeeded() {
+        int tombstones, size;
+        lock.readLock().lock();
+        try {
+            tombstones = index.tombstones();
+            size = index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (ready && tombstones > 1000 && tombstones > compactRatio * (size + tombstones)) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Builds a fresh index from the database and swaps it in. Writes that land while the
+     * build runs are recorded and replayed from the database after the swap.
+     */
+    public void rebuild() {
+        synchronized (rebuildMonitor) {
+            long start = System.nanoTime();
+            changedDuringRebuild = ConcurrentHashMap.newKeySet();
+            InvertedIndex fresh = new InvertedIndex();
+            try {
+                catalogLoader.forEachProduct(p -> add(fresh, p));
+            } catch (RuntimeException e) {
+                changedDuringRebuild = null;
+                log.error("Search index build failed", e);
+                return;
+            }
+
+            Set<Long> replay;
+            lock.writeLock().lock();
+            try {
+                index = fresh;
+                replay = changedDuringRebuild;
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            replay(replay);
+            ready = true;
+            log.info("Search index built: {} products in {} ms", fresh.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private void replay(Set<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<Product> current = catalogLoader.load(productIds);
+        lock.writeLock().lock();
+        try {
+            productIds.forEach(index::remove);
+            current.forEach(p -> add(index, p));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Called under the write lock, so a write is either replayed or lands in the swapped-in index
+    private void markChanged(Long productId) {
+        Set<Long> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.add(productId);
+        }
+    }
+
+    private static void add(InvertedIndex target, Product p) {
+        target.add(p.getProductId(), p.getProductName(), p.getProductDescription(), p.getSku(),
+                p.getCategory() != null ? p.getCategory().getName() : null);
+    }
+}
@@ -0,0 +1,428 @@
+package com.ecommerce.search;
+
+import com.ecommerce.dto.SuggestionResponse;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.ProductCategory;
+import com.ecommerce.repository.OrderItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Type-ahead suggestions over product names, SKUs and category names, ranked by units sold.
+ *
+ * Lookups never touch the database. Suggestions are served from an immutable
+ * {@link PrefixSnapshot} plus a small delta holding whatever {@code ProductService}
+ * and {@code CategoryService} wrote since the snapshot was built; the snapshot
+ * is rebuilt from memory on a schedule, or early once the delta grows past
+ * {@code suggest.max-delta}. Popularity comes from order history at startup and
+ * from inventory flushes afterwards. Until the startup load finishes, lookups
+ * see only what has been loaded so far.
+ */
+@Component
+public class SuggestIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(SuggestIndex.class);
+
+    // Kind of suggestion, kept in the top byte of a ref next to the product or category id
+    private static final long PRODUCT = 1L << 56;
+    private static final long SKU = 2L << 56;
+    private static final long CATEGORY = 3L << 56;
+    private static final long ID_MASK = (1L << 56) - 1;
+
+    private static final int MAX_WORD_KEYS = 4;    // a name is found from its first four words
+    private static final int MAX_KEY_LENGTH = 128;
+    private static final int LOAD_CHUNK = 1000;
+
+    private final CatalogLoader catalogLoader;
+    private final OrderItemRepository orderItemRepository;
+    private final int maxDelta;
+
+    private record ProductEntry(String name, String sku, Long categoryId) {
+    }
+
+    // One suggestion as it would be indexed: normalized key, word-start offsets into it, display text
+    private record Entry(String key, short[] offsets, String text, long score) {
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object rebuildMonitor = new Object();
+    private final Map<Long, ProductEntry> products = new HashMap<>();
+    private final Map<Long, String> categories = new HashMap<>();
+    private final Map<Long, Long> unitsSold = new HashMap<>();
+    private final Map<Long, Long> categoryUnits = new HashMap<>();
+
+    private PrefixSnapshot snapshot = PrefixSnapshot.EMPTY;
+    private final Map<Long, Long> changed = new HashMap<>();              // ref -> version, written since the snapshot
+    private final TreeMap<String, Set<Long>> deltaKeys = new TreeMap<>(); // keys of changed refs
+    private long version;
+    private boolean scoresChanged;
+    private Set<Long> deletedDuringLoad;
+    private volatile boolean rebuildPending;
+
+    public SuggestIndex(CatalogLoader catalogLoader,
+                        OrderItemRepository orderItemRepository,
+                        @Value("${suggest.max-delta:5000}") int maxDelta) {
+        this.catalogLoader = catalogLoader;
+        this.orderItemRepository = orderItemRepository;
+        this.maxDelta = maxDelta;
+    }
+
+    /**
+     * Best suggestions for a typed prefix. Every word but the last must match whole; the last may
+     * be partial. SKUs also match with separators left out ("iph15-1" finds "IPH15-128").
+     */
+    public List<SuggestionResponse> suggest(String prefix, int limit) {
+        String key = Tokenizer.key(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        // Typed with separators ("iph15-1"): SKUs are keyed without them
+        String compact = key.indexOf(' ') >= 0 ? Tokenizer.compact(prefix) : null;
+        if (Character.isWhitespace(prefix.charAt(prefix.length() - 1))) {
+            key = key + " "; // "iphone " wants the next word, not "iphones"
+        }
+
+        List<PrefixSnapshot.Hit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            hits.addAll(snapshot.top(key, limit, changed::containsKey));
+            addDeltaHits(key, hits);
+            if (compact != null) {
+                hits.addAll(snapshot.top(compact, limit, changed::containsKey));
+                addDeltaHits(compact, hits);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort(Comparator.comparingLong(PrefixSnapshot.Hit::score).reversed()
+                .thenComparingInt(h -> h.text().length())
+                .thenComparing(PrefixSnapshot.Hit::text));
+        Set<Long> seen = new HashSet<>();
+        List<SuggestionResponse> result = new ArrayList<>(limit);
+        for (PrefixSnapshot.Hit h : hits) {
+            if (result.size() < limit && seen.add(h.ref())) {
+                result.add(toResponse(h));
+            }
+        }
+        return result;
+    }
+
+    // Product must have its category id available (a lazy reference is fine)
+    public void index(Product product) {
+        Long id = product.getProductId();
+        Long categoryId = product.getCategory() != null ? product.getCategory().getCategoryId() : null;
+        lock.writeLock().lock();
+        try {
+            ProductEntry old = products.put(id, new ProductEntry(product.getProductName(), product.getSku(), categoryId));
+            long units = unitsSold.getOrDefault(id, 0L);
+            if (old != null) {
+                addCategoryUnits(old.categoryId(), -units);
+            }
+            addCategoryUnits(categoryId, units);
+            markChanged(PRODUCT | id);
+            markChanged(SKU | id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            ProductEntry old = products.remove(productId);
+            Long units = unitsSold.remove(productId);
+            if (old != null && units != null) {
+                addCategoryUnits(old.categoryId(), -units);
+            }
+            if (deletedDuringLoad != null) {
+                deletedDuringLoad.add(productId);
+            }
+            markChanged(PRODUCT | productId);
+            markChanged(SKU | productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void category(ProductCategory category) {
+        lock.writeLock().lock();
+        try {
+            categories.put(category.getCategoryId(), category.getName());
+            markChanged(CATEGORY | category.getCategoryId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Committed sales (productId -> units); new ranks show up with the next rebuild
+    public void sold(Map<Long, Integer> unitsByProduct) {
+        lock.writeLock().lock();
+        try {
+            unitsByProduct.forEach((productId, qty) -> {
+                unitsSold.merge(productId, (long) qty, Long::sum);
+                ProductEntry p = products.get(productId);
+                if (p != null) {
+                    addCategoryUnits(p.categoryId(), qty);
+                }
+            });
+            scoresChanged = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread.ofVirtual().name("suggest-index-build").start(this::load);
+    }
+
+    @Scheduled(fixedDelayString = "${suggest.rebuild-interval-ms:300000}")
+    public void refresh() {
+        boolean stale;
+        lock.readLock().lock();
+        try {
+            stale = deletedDuringLoad == null && (scoresChanged || !changed.isEmpty());
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (stale) {
+            rebuild();
+        }
+    }
+
+    // Re-reads the catalog after products were written without index(), e.g. by a bulk import
+    public void reload() {
+        load();
+    }
+
+    // Reads the catalog and sales history; writes that race with it win, deletes are remembered
+    private void load() {
+        long start = System.nanoTime();
+        int loaded;
+        lock.writeLock().lock();
+        try {
+            deletedDuringLoad = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            List<Object[]> sales = orderItemRepository.sumUnitsSoldByProduct();
+            List<ProductCategory> allCategories = catalogLoader.categories();
+            lock.writeLock().lock();
+            try {
+                for (Object[] row : sales) {
+                    unitsSold.putIfAbsent((Long) row[0], ((Number) row[1]).longValue());
+                }
+                for (ProductCategory c : allCategories) {
+                    categories.putIfAbsent(c.getCategoryId(), c.getName());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            List<Product> chunk = new ArrayList<>(LOAD_CHUNK);
+            catalogLoader.forEachProduct(p -> {
+                chunk.add(p);
+                if (chunk.size() == LOAD_CHUNK) {
+                    putLoaded(chunk);
+                }
+            });
+            putLoaded(chunk);
+        } catch (RuntimeException e) {
+            log.error("Suggest index load failed", e);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                deletedDuringLoad = null;
+                categoryUnits.clear();
+                products.forEach((id, p) -> addCategoryUnits(p.categoryId(), unitsSold.getOrDefault(id, 0L)));
+                loaded = products.size();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        rebuild();
+        log.info("Suggest index loaded: {} products in {} ms", loaded, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void putLoaded(List<Product> chunk) {
+        lock.writeLock().lock();
+        try {
+            for (Product p : chunk) {
+                if (!deletedDuringLoad.contains(p.getProductId())) {
+                    Long categoryId = p.getCategory() != null ? p.getCategory().getCategoryId() : null;
+                    products.putIfAbsent(p.getProductId(), new ProductEntry(p.getProductName(), p.getSku(), categoryId));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        chunk.clear();
+    }
+
+    /**
+     * Builds a fresh snapshot from the in-memory catalog and swaps it in. Only the copy of the
+     * maps runs under the lock; changes made after the copy stay in the delta.
+     */
+    public void rebuild() {
+        synchronized (rebuildMonitor) {
+            rebuildPending = false;
+            long start = System.nanoTime();
+            Map<Long, ProductEntry> productsCopy;
+            Map<Long, String> categoriesCopy;
+            Map<Long, Long> unitsCopy;
+            Map<Long, Long> categoryUnitsCopy;
+            long builtVersion;
+            lock.writeLock().lock();
+            try {
+                productsCopy = new HashMap<>(products);
+                categoriesCopy = new HashMap<>(categories);
+                unitsCopy = new HashMap<>(unitsSold);
+                categoryUnitsCopy = new HashMap<>(categoryUnits);
+                builtVersion = version;
+                scoresChanged = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            PrefixSnapshot.Builder builder = new PrefixSnapshot.Builder();
+            productsCopy.forEach((id, p) -> {
+                long units = unitsCopy.getOrDefault(id, 0L);
+                add(builder, PRODUCT | id, nameEntry(p.name(), units));
+                add(builder, SKU | id, skuEntry(p.sku(), units));
+            });
+            categoriesCopy.forEach((id, name) ->
+                    add(builder, CATEGORY | id, nameEntry(name, categoryUnitsCopy.getOrDefault(id, 0L))));
+            PrefixSnapshot fresh = builder.build();
+
+            lock.writeLock().lock();
+            try {
+                snapshot = fresh;
+                changed.values().removeIf(v -> v <= builtVersion);
+                deltaKeys.clear();
+                changed.keySet().forEach(this::addDeltaKeys);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.debug("Suggest snapshot built: {} suggestions, {} keys in {} ms",
+                    fresh.size(), fresh.keys(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    // Called under the write lock
+    private void markChanged(long ref) {
+        changed.put(ref, ++version);
+        addDeltaKeys(ref);
+        if (changed.size() > maxDelta && deletedDuringLoad == null && !rebuildPending) {
+            rebuildPending = true;
+            Thread.ofVirtual().name("suggest-index-rebuild").start(this::rebuild);
+        }
+    }
+
+    // Stale keys of earlier versions may stay behind; lookups re-check the current entry
+    private void addDeltaKeys(long ref) {
+        Entry e = currentEntry(ref);
+        if (e != null) {
+            for (short offset : e.offsets()) {
+                deltaKeys.computeIfAbsent(e.key().substring(offset), k -> new HashSet<>()).add(ref);
+            }
+        }
+    }
+
+    // Called under the read lock
+    private void addDeltaHits(String prefix, List<PrefixSnapshot.Hit> hits) {
+        Set<Long> refs = new HashSet<>();
+        deltaKeys.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values().forEach(refs::addAll);
+        for (long ref : refs) {
+            Entry e = currentEntry(ref);
+            if (e != null && matches(e, prefix)) {
+                hits.add(new PrefixSnapshot.Hit(ref, e.text(), e.score()));
+            }
+        }
+    }
+
+    private static boolean matches(Entry e, String prefix) {
+        for (short offset : e.offsets()) {
+            if (e.key().startsWith(prefix, offset)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Entry currentEntry(long ref) {
+        long id = ref & ID_MASK;
+        long kind = ref & ~ID_MASK;
+        if (kind == CATEGORY) {
+            String name = categories.get(id);
+            return name == null ? null : nameEntry(name, categoryUnits.getOrDefault(id, 0L));
+        }
+        ProductEntry p = products.get(id);
+        if (p == null) {
+            return null;
+        }
+        long units = unitsSold.getOrDefault(id, 0L);
+        return kind == PRODUCT ? nameEntry(p.name(), units) : skuEntry(p.sku(), units);
+    }
+
+    // Indexed from the start of each of its first words
+    private static Entry nameEntry(String name, long score) {
+        String key = Tokenizer.key(name);
+        if (key.isEmpty()) {
+            return null;
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            key = key.substring(0, MAX_KEY_LENGTH);
+        }
+        short[] offsets = new short[MAX_WORD_KEYS];
+        int count = 0;
+        offsets[count++] = 0;
+        for (int i = key.indexOf(' '); i >= 0 && count < MAX_WORD_KEYS; i = key.indexOf(' ', i + 1)) {
+            offsets[count++] = (short) (i + 1);
+        }
+        return new Entry(key, Arrays.copyOf(offsets, count), name, score);
+    }
+
+    private static Entry skuEntry(String sku, long score) {
+        String key = Tokenizer.compact(sku);
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            return null;
+        }
+        return new Entry(key, new short[]{0}, sku, score);
+    }
+
+    private static void add(PrefixSnapshot.Builder builder, long ref, Entry e) {
+        if (e != null) {
+            builder.add(e.key(), e.offsets(), e.text(), ref, e.score());
+        }
+    }
+
+    private void addCategoryUnits(Long categoryId, long units) {
+        if (categoryId != null && units != 0) {
+            categoryUnits.merge(categoryId, units, Long::sum);
+        }
+    }
+
+    private static SuggestionResponse toResponse(PrefixSnapshot.Hit h) {
+        long kind = h.ref() & ~ID_MASK;
+        String type = kind == PRODUCT ? "PRODUCT" : kind == SKU ? "SKU" : "CATEGORY";
+        return new SuggestionResponse(h.text(), type, h.ref() & ID_MASK, h.score());
+    }
+}
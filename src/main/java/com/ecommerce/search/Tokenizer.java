@@ -0,0 +1,48 @@
+package com.ecommerce.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// Lower-cases, strips accents and splits on anything that is not a letter or digit
+final class Tokenizer {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private Tokenizer() {
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        for (String token : SEPARATORS.split(normalize(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // SKUs are also indexed as one compact token, so "IPH15-128" matches "iph15128"
+    static String compact(String text) {
+        if (text == null) {
+            return "";
+        }
+        return SEPARATORS.matcher(normalize(text)).replaceAll("");
+    }
+
+    // Tokens joined by single spaces: the form suggestion keys and typed prefixes are compared in
+    static String key(String text) {
+        return String.join(" ", tokenize(text));
+    }
+
+    private static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
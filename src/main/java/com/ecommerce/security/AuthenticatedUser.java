@@ -0,0 +1,40 @@
+package com.ecommerce.security;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+
+/**
+ * Lightweight, immutable principal placed in the SecurityContext by the JWT filter.
+ * It carries the user id so controllers don't have to look the user up again,
+ * and deliberately holds no password so it is safe to cache.
+ */
+public final class AuthenticatedUser implements AuthenticatedPrincipal {
+
+    private final Long userId;
+    private final String email;
+    private final List<GrantedAuthority> authorities;
+
+    public AuthenticatedUser(Long userId, String email, List<GrantedAuthority> authorities) {
+        this.userId = userId;
+        this.email = email;
+        this.authorities = List.copyOf(authorities);
+    }
+
+    public Long getUserId() { return userId; }
+
+    public String getEmail() { return email; }
+
+    public List<GrantedAuthority> getAuthorities() { return authorities; }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    @Override
+    public String toString() {
+        return email;
+    }
+}
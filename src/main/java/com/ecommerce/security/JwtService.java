@@ -1,24 +1,57 @@
 package com.ecommerce.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
 
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private final Key signingKey;
+    private final JwtParser parser;
+    private final long expiration;
 
-    @Value("${jwt.expiration}")
-    private long expiration;
+    // SHA-256(token) -> verified claims, each entry dropped when its token expires
+    private final Cache<ByteBuffer, VerifiedToken> verifiedTokens;
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    public JwtService(@Value("${jwt.secret}") String secret,
+                      @Value("${jwt.expiration}") long expiration,
+                      @Value("${jwt.cache.max-size:100000}") long cacheMaxSize) {
+        // Key and parser are immutable and thread-safe, so both are built once
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.expiration = expiration;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(Expiry.creating((ByteBuffer key, VerifiedToken token) ->
+                        Duration.between(Instant.now(), token.expiresAt())))
+                .build();
+    }
+
+    public record VerifiedToken(String subject, Instant expiresAt) {
     }
 
     public String generateToken(String username) {
@@ -26,17 +59,40 @@ public class JwtService {
                 .setSubject(username)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Verifies the token once and returns its subject and expiry.
+     * Repeat calls with the same token are served from the verified-token cache.
+     *
+     * @throws ExpiredJwtException if the token has expired
+     * @throws JwtException        if the token is malformed or the signature does not match
+     */
+    public VerifiedToken authenticate(String token) {
+        ByteBuffer key = hash(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null && cached.expiresAt().isAfter(Instant.now())) {
+            return cached;
+        }
+
+        Claims claims = parseClaims(token);
+        Instant expiresAt = claims.getExpiration() != null
+                ? claims.getExpiration().toInstant()
+                : Instant.now().plusMillis(expiration);
+        VerifiedToken verified = new VerifiedToken(claims.getSubject(), expiresAt);
+        verifiedTokens.put(key, verified);
+        return verified;
+    }
+
     public String extractUsername(String token) {
-        return parseClaims(token).getSubject();
+        return authenticate(token).subject();
     }
 
     public boolean validateToken(String token) {
         try {
-            parseClaims(token);
+            authenticate(token);
             return true;
         } catch (JwtException e) {
             return false;
@@ -44,10 +100,12 @@ public class JwtService {
     }
 
     private Claims parseClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    private static ByteBuffer hash(String token) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        return ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
     }
 }
@@ -33,6 +33,7 @@ public class SecurityConfig {
                 .requestMatchers("/api/products/**").permitAll()
                 .requestMatchers("/api/categories/**").permitAll()
                 .requestMatchers("/api/reviews/**").permitAll()
+                .requestMatchers("/api/payments/webhook").permitAll() // authenticated by its HMAC signature
 
                 // user/customer access
                 .requestMatchers("/api/cart/**").hasAnyRole("CUSTOMER", "ADMIN")
@@ -43,6 +44,7 @@ public class SecurityConfig {
                 // admin only
                 .requestMatchers("/api/orders/all").hasRole("ADMIN")
                 .requestMatchers("/api/orders/*/status").hasRole("ADMIN")
+                .requestMatchers("/api/admin/**").hasRole("ADMIN")
 
                 // fallback
                 .anyRequest().authenticated()
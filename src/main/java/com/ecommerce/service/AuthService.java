@@ -23,13 +23,16 @@ public class AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final RoleRepository roleRepository;
+    private final UserService userService;
 
     public AuthService(UserRepository userRepository,
                        PasswordEncoder passwordEncoder,
-                       RoleRepository roleRepository) {
+                       RoleRepository roleRepository,
+                       UserService userService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.roleRepository = roleRepository;
+        this.userService = userService;
     }
 
     public void register(RegisterRequest request) {
@@ -50,6 +53,7 @@ public class AuthService {
         user.setRoles(List.of(userRole));
 
         userRepository.save(user);
+        userService.evictPrincipal(user.getEmail());
     }
 
     public String login(LoginRequest request, AuthenticationManager authenticationManager, JwtService jwtService) {
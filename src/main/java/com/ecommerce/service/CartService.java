@@ -1,130 +1,521 @@
 package com.ecommerce.service;
 
+import com.ecommerce.dto.CartItemOperation;
 import com.ecommerce.dto.CartItemRequest;
 import com.ecommerce.dto.CartItemResponse;
+import com.ecommerce.dto.CartItemRow;
 import com.ecommerce.dto.CartResponse;
+import com.ecommerce.dto.ProductResponse;
 import com.ecommerce.model.Cart;
 import com.ecommerce.model.CartItem;
 import com.ecommerce.model.Product;
-import com.ecommerce.model.User;
 import com.ecommerce.repository.CartItemRepository;
 import com.ecommerce.repository.CartRepository;
 import com.ecommerce.repository.ProductRepository;
 import com.ecommerce.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
+/**
+ * Carts served from memory and written to {@code cart}/{@code cart_item} behind the request.
+ *
+ * Active carts live in a bounded map keyed by user id; a cart is loaded from the
+ * database the first time it is touched (so carts survive restarts) and its total
+ * is kept up to date as lines change. Changes only mark the cart dirty; {@link #flush()}
+ * writes all dirty carts in one transaction every {@code cart.flush-interval-ms},
+ * so a burst of adds costs one write. A dirty cart that is evicted is set aside for
+ * the next flush (and taken back if its user returns first), so neither an eviction
+ * nor a failed write loses it. Carts are also written on shutdown and by checkout
+ * inside the order transaction ({@link #flushForCheckout}).
+ *
+ * Carts live in this JVM, so the app must run as a single instance.
+ */
 @Service
 public class CartService {
 
+    private static final Logger log = LoggerFactory.getLogger(CartService.class);
+    private static final int FLUSH_CHUNK = 500;
+    private static final int MAX_BATCH_OPERATIONS = 200;
+
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final ProductService productService;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<Long, ActiveCart> carts;
+    private final ConcurrentHashMap<Long, ActiveCart> evictedDirty = new ConcurrentHashMap<>(); // by userId
 
     public CartService(CartRepository cartRepository,
                        CartItemRepository cartItemRepository,
                        ProductRepository productRepository,
-                       UserRepository userRepository) {
+                       UserRepository userRepository,
+                       ProductService productService,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${cart.max-active:100000}") long maxActive,
+                       @Value("${cart.idle-minutes:30}") long idleMinutes) {
         this.cartRepository = cartRepository;
         this.cartItemRepository = cartItemRepository;
         this.productRepository = productRepository;
         this.userRepository = userRepository;
+        this.productService = productService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.carts = Caffeine.newBuilder()
+                .maximumSize(maxActive)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                // Runs inside the eviction, so a reload of the same user finds the cart already set aside
+                .evictionListener((Long userId, ActiveCart cart, RemovalCause cause) -> evicted(cart))
+                .build();
     }
 
-    public CartResponse addToCart(Long userId, CartItemRequest request) {
+    record Line(Long productId, String productName, int qty, double priceAtAdd) {
+    }
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    // Lines as of one version, handed to a writer
+    record Snapshot(ActiveCart cart, Long cartId, long version, List<Line> lines) {
+    }
 
-        Cart cart = cartRepository.findByUser_UserId(userId)
-                .orElseGet(() -> {
-                    Cart c = new Cart();
-                    c.setUser(user);
-                    c.setCreatedAt(LocalDateTime.now());
-                    c.setUpdatedAt(LocalDateTime.now());
-                    return cartRepository.save(c);
-                });
+    static final class ActiveCart {
+        final Long userId;
+        final ReentrantLock flushLock = new ReentrantLock(); // one writer per cart, held until its transaction ends
+        private Long cartId;
+        private final LinkedHashMap<Long, Line> lines = new LinkedHashMap<>();
+        private double total;
+        private long version;        // bumped by every change
+        private long flushedVersion; // last version written to the database
+        private boolean evicted;
 
-        Product product = productRepository.findById(request.getProductId())
-                .orElseThrow(() -> new RuntimeException("Product not found"));
+        ActiveCart(Long userId) {
+            this.userId = userId;
+        }
 
-        List<CartItem> items = cartItemRepository.findByCart_CartId(cart.getCartId());
+        synchronized boolean isDirty() {
+            return version != flushedVersion;
+        }
 
-        CartItem existingItem = items.stream()
-                .filter(i -> i.getProduct().getProductId().equals(product.getProductId()))
-                .findFirst()
-                .orElse(null);
+        void add(Long productId, String productName, int qty, double price) {
+            Line line = lines.get(productId);
+            // An existing line keeps the price it was added at
+            lines.put(productId, line == null
+                    ? new Line(productId, productName, qty, price)
+                    : new Line(productId, line.productName(), line.qty() + qty, line.priceAtAdd()));
+            total += qty * (line == null ? price : line.priceAtAdd());
+            version++;
+        }
 
-        if (existingItem != null) {
-            existingItem.setQty(existingItem.getQty() + request.getQty());
-            cartItemRepository.save(existingItem);
-        } else {
-            CartItem item = new CartItem();
-            item.setCart(cart);
-            item.setProduct(product);
-            item.setQty(request.getQty());
-            item.setPriceAtAdd(product.getBasePrice());
-            cartItemRepository.save(item);
+        void set(Long productId, String productName, int qty, double price) {
+            Line line = lines.get(productId);
+            if (qty == 0) {
+                remove(productId);
+                return;
+            }
+            if (line == null) {
+                add(productId, productName, qty, price);
+                return;
+            }
+            lines.put(productId, new Line(productId, line.productName(), qty, line.priceAtAdd()));
+            total += (qty - line.qty()) * line.priceAtAdd();
+            version++;
         }
 
-        cart.setUpdatedAt(LocalDateTime.now());
-        cartRepository.save(cart);
+        boolean remove(Long productId) {
+            Line line = lines.remove(productId);
+            if (line == null) {
+                return false;
+            }
+            total -= line.qty() * line.priceAtAdd();
+            version++;
+            return true;
+        }
+
+        void clear() {
+            if (!lines.isEmpty()) {
+                lines.clear();
+                total = 0;
+                version++;
+            }
+        }
+
+        synchronized Snapshot snapshot() {
+            return new Snapshot(this, cartId, version, List.copyOf(lines.values()));
+        }
+
+        // Lines of products deleted since they were added: never written, so dropped without a new version
+        synchronized void productsGone(Set<Long> productIds) {
+            for (Long productId : productIds) {
+                Line line = lines.remove(productId);
+                if (line != null) {
+                    total -= line.qty() * line.priceAtAdd();
+                }
+            }
+            if (lines.isEmpty()) {
+                total = 0;
+            }
+        }
+
+        synchronized void flushed(long writtenVersion) {
+            flushedVersion = Math.max(flushedVersion, writtenVersion);
+        }
+
+        // The checkout that read this snapshot committed: its lines are now an order and gone from the database
+        synchronized void checkedOut(Snapshot snapshot) {
+            boolean untouched = version == snapshot.version();
+            for (Line taken : snapshot.lines()) {
+                Line line = lines.get(taken.productId());
+                if (line == null) {
+                    continue;
+                }
+                int left = line.qty() - taken.qty();
+                total -= Math.min(line.qty(), taken.qty()) * line.priceAtAdd();
+                if (left > 0) {
+                    lines.put(line.productId(), new Line(line.productId(), line.productName(), left, line.priceAtAdd()));
+                } else {
+                    lines.remove(line.productId());
+                }
+            }
+            if (lines.isEmpty()) {
+                total = 0;
+            }
+            if (untouched) {
+                flushedVersion = version;
+            } else {
+                version++; // lines added during checkout still have to be written
+            }
+        }
 
-        return getCart(userId);
+        CartResponse response() {
+            List<CartItemResponse> items = new ArrayList<>(lines.size());
+            for (Line line : lines.values()) {
+                CartItemResponse resp = new CartItemResponse();
+                resp.setProductId(line.productId());
+                resp.setProductName(line.productName());
+                resp.setQty(line.qty());
+                resp.setPriceAtAdd(line.priceAtAdd());
+                resp.setSubtotal(line.qty() * line.priceAtAdd());
+                items.add(resp);
+            }
+            CartResponse response = new CartResponse();
+            response.setCartId(cartId);
+            response.setItems(items);
+            response.setTotalAmount(total);
+            return response;
+        }
+    }
+
+    public CartResponse addToCart(Long userId, CartItemRequest request) {
+        // Cached product lookup; no product row is read for the add itself
+        ProductResponse product = productService.getProductById(request.getProductId());
+        return mutate(userId, cart -> {
+            if (cart.cartId == null) {
+                cart.cartId = createCart(userId); // once per user; lines are written behind
+            }
+            cart.add(product.getProductId(), product.getProductName(), request.getQty(), product.getBasePrice());
+        });
+    }
+
+    /**
+     * Applies a list of adds, quantity sets and removes as one change: every product is
+     * read in a single query up front, the cart changes only if all operations are valid,
+     * and the flush writes the resulting lines together. Removing a line that is not in
+     * the cart is a no-op here, unlike {@link #removeItem}.
+     */
+    public CartResponse applyBatch(Long userId, List<CartItemOperation> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new RuntimeException("At least one cart operation is required");
+        }
+        if (operations.size() > MAX_BATCH_OPERATIONS) {
+            throw new RuntimeException("At most " + MAX_BATCH_OPERATIONS + " cart operations per request");
+        }
+        Set<Long> productIds = new HashSet<>();
+        for (CartItemOperation op : operations) {
+            if (op.getOp() == null || op.getProductId() == null) {
+                throw new RuntimeException("Each cart operation needs op and productId");
+            }
+            if (op.getOp() == CartItemOperation.Type.ADD ? op.getQty() < 1 : op.getQty() < 0) {
+                throw new RuntimeException("Invalid qty " + op.getQty() + " for " + op.getOp() + " of product " + op.getProductId());
+            }
+            if (op.getOp() != CartItemOperation.Type.REMOVE) {
+                productIds.add(op.getProductId());
+            }
+        }
+        Map<Long, Product> products = new HashMap<>();
+        if (!productIds.isEmpty()) {
+            for (Product product : productRepository.findAllWithCategory(productIds)) {
+                products.put(product.getProductId(), product);
+            }
+        }
+        for (Long id : productIds) {
+            if (!products.containsKey(id)) {
+                throw new RuntimeException("Product not found with ID: " + id);
+            }
+        }
+        return mutate(userId, cart -> {
+            if (cart.cartId == null) {
+                cart.cartId = createCart(userId);
+            }
+            for (CartItemOperation op : operations) {
+                Product product = products.get(op.getProductId());
+                switch (op.getOp()) {
+                    case ADD -> cart.add(product.getProductId(), product.getProductName(), op.getQty(), product.getBasePrice());
+                    case SET -> cart.set(product.getProductId(), product.getProductName(), op.getQty(), product.getBasePrice());
+                    case REMOVE -> cart.remove(op.getProductId());
+                }
+            }
+        });
     }
 
     public CartResponse getCart(Long userId) {
+        ActiveCart cart = carts.get(userId, this::load);
+        synchronized (cart) {
+            if (cart.cartId == null) {
+                throw new RuntimeException("Cart not found");
+            }
+            return cart.response();
+        }
+    }
 
-        Cart cart = cartRepository.findByUser_UserId(userId)
-                .orElseThrow(() -> new RuntimeException("Cart not found"));
+    public void removeItem(Long userId, Long productId) {
+        mutate(userId, cart -> {
+            if (cart.cartId == null) {
+                throw new RuntimeException("Cart not found");
+            }
+            if (!cart.remove(productId)) {
+                throw new RuntimeException("Item not found");
+            }
+        });
+    }
 
-        List<CartItem> items = cartItemRepository.findByCart_CartId(cart.getCartId());
+    public void clearCart(Long userId) {
+        mutate(userId, ActiveCart::clear);
+    }
 
-        List<CartItemResponse> itemResponses = items.stream().map(item -> {
-            CartItemResponse resp = new CartItemResponse();
-            resp.setProductId(item.getProduct().getProductId());
-            resp.setProductName(item.getProduct().getProductName());
-            resp.setQty(item.getQty());
-            resp.setPriceAtAdd(item.getPriceAtAdd());
-            resp.setSubtotal(item.getQty() * item.getPriceAtAdd());
-            return resp;
-        }).collect(Collectors.toList());
+    /**
+     * Writes the user's cart inside the caller's checkout transaction, so the order is
+     * built from exactly what the user sees. No other writer touches the cart until that
+     * transaction ends; if it commits, the checked-out lines leave the in-memory cart too.
+     */
+    public void flushForCheckout(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Checkout flush needs the order transaction");
+        }
+        ActiveCart cart = carts.get(userId, this::load);
+        cart.flushLock.lock();
+        Snapshot snapshot = cart.snapshot();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        cart.checkedOut(snapshot);
+                    }
+                } finally {
+                    cart.flushLock.unlock();
+                }
+            }
+        });
+        persist(List.of(snapshot));
+    }
 
-        double total = itemResponses.stream()
-                .mapToDouble(CartItemResponse::getSubtotal)
-                .sum();
+    // Write-behind: all dirty carts, active or evicted, one transaction per chunk
+    @Scheduled(fixedDelayString = "${cart.flush-interval-ms:2000}")
+    public void flush() {
+        List<Snapshot> chunk = new ArrayList<>();
+        chunk = collectDirty(carts.asMap().values(), chunk);
+        chunk = collectDirty(evictedDirty.values(), chunk);
+        if (!chunk.isEmpty()) {
+            write(chunk);
+        }
+        // Written evicted carts are done with; a failed one stays for the next run
+        evictedDirty.values().removeIf(cart -> !cart.isDirty());
+    }
 
-        CartResponse response = new CartResponse();
-        response.setCartId(cart.getCartId());
-        response.setItems(itemResponses);
-        response.setTotalAmount(total);
+    // Runs pending evictions on the calling thread instead of Caffeine's maintenance executor
+    void cleanUp() {
+        carts.cleanUp();
+    }
 
-        return response;
+    // Carts being checked out are written by the checkout
+    private List<Snapshot> collectDirty(Iterable<ActiveCart> candidates, List<Snapshot> chunk) {
+        for (ActiveCart cart : candidates) {
+            if (cart.isDirty() && cart.flushLock.tryLock()) {
+                chunk.add(cart.snapshot());
+                if (chunk.size() == FLUSH_CHUNK) {
+                    write(chunk);
+                    chunk = new ArrayList<>();
+                }
+            }
+        }
+        return chunk;
     }
 
-    public void removeItem(Long userId, Long productId) {
-        Cart cart = cartRepository.findByUser_UserId(userId)
-                .orElseThrow(() -> new RuntimeException("Cart not found"));
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
 
-        List<CartItem> items = cartItemRepository.findByCart_CartId(cart.getCartId());
+    private CartResponse mutate(Long userId, Consumer<ActiveCart> change) {
+        while (true) {
+            ActiveCart cart = carts.get(userId, this::load);
+            synchronized (cart) {
+                if (cart.evicted) {
+                    continue; // already written out; change the reloaded copy instead
+                }
+                change.accept(cart);
+                return cart.response();
+            }
+        }
+    }
 
-        CartItem item = items.stream()
-                .filter(i -> i.getProduct().getProductId().equals(productId))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Item not found"));
+    private ActiveCart load(Long userId) {
+        // Evicted with changes not yet written: the database is behind, so take the cart itself back
+        ActiveCart parked = evictedDirty.remove(userId);
+        if (parked != null) {
+            synchronized (parked) {
+                parked.evicted = false;
+            }
+            return parked;
+        }
+        ActiveCart cart = new ActiveCart(userId);
+        cartRepository.findByUser_UserId(userId).ifPresent(c -> {
+            cart.cartId = c.getCartId();
+            for (CartItem item : cartItemRepository.findByCart_CartId(c.getCartId())) {
+                cart.add(item.getProduct().getProductId(), item.getProduct().getProductName(),
+                        item.getQty(), item.getPriceAtAdd());
+            }
+            cart.flushedVersion = cart.version;
+        });
+        return cart;
+    }
 
-        cartItemRepository.delete(item);
+    private Long createCart(Long userId) {
+        Cart cart = new Cart();
+        cart.setUser(userRepository.getReferenceById(userId));
+        cart.setCreatedAt(LocalDateTime.now());
+        cart.setUpdatedAt(LocalDateTime.now());
+        return cartRepository.save(cart).getCartId();
     }
 
-    public void clearCart(Long userId) {
-        cartRepository.findByUser_UserId(userId).ifPresent(cart -> {
-            cartItemRepository.deleteAll(cartItemRepository.findByCart_CartId(cart.getCartId()));
-            // Optionally, delete the cart itself if it should not exist when empty
-            // cartRepository.delete(cart);
+    // No database work here: Caffeine calls this while evicting, and a write could fail or block
+    private void evicted(ActiveCart cart) {
+        synchronized (cart) {
+            cart.evicted = true;
+            if (cart.version != cart.flushedVersion) {
+                evictedDirty.put(cart.userId, cart);
+            }
+        }
+    }
+
+    // Caller holds every cart's flushLock
+    private void write(List<Snapshot> chunk) {
+        try {
+            if (!tryWrite(chunk) && chunk.size() > 1) {
+                // One cart that cannot be written must not hold back the rest: retry them one by one
+                for (Snapshot snapshot : chunk) {
+                    tryWrite(List.of(snapshot));
+                }
+            }
+        } finally {
+            chunk.forEach(s -> s.cart().flushLock.unlock());
+        }
+    }
+
+    private boolean tryWrite(List<Snapshot> snapshots) {
+        try {
+            Set<Long> goneProducts = transactionTemplate.execute(status -> persist(snapshots));
+            for (Snapshot s : snapshots) {
+                s.cart().productsGone(goneProducts);
+                s.cart().flushed(s.version());
+            }
+            return true;
+        } catch (RuntimeException e) {
+            if (snapshots.size() == 1) {
+                log.warn("Cart flush for user {} failed, will retry: {}", snapshots.get(0).cart().userId, e.getMessage());
+            } else {
+                log.warn("Cart flush of {} carts failed: {}", snapshots.size(), e.getMessage());
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Makes cart_item match the snapshots: one read for all carts, then only the lines that differ.
+     * Lines of products that no longer exist are not written.
+     *
+     * @return ids of those products
+     */
+    private Set<Long> persist(List<Snapshot> snapshots) {
+        Map<Long, Snapshot> byCart = new HashMap<>();
+        Set<Long> productIds = new HashSet<>();
+        for (Snapshot s : snapshots) {
+            if (s.cartId() != null) {
+                byCart.put(s.cartId(), s);
+                s.lines().forEach(line -> productIds.add(line.productId()));
+            }
+        }
+        if (byCart.isEmpty()) {
+            return Set.of();
+        }
+        Set<Long> goneProducts = new HashSet<>(productIds);
+        if (!productIds.isEmpty()) {
+            goneProducts.removeAll(productRepository.findExistingIds(productIds));
+        }
+        Map<Long, Map<Long, CartItemRow>> stored = new HashMap<>();
+        List<Long> deletes = new ArrayList<>();
+        for (CartItemRow row : cartItemRepository.findRowsByCartIds(byCart.keySet())) {
+            CartItemRow duplicate = stored.computeIfAbsent(row.cartId(), id -> new HashMap<>()).putIfAbsent(row.productId(), row);
+            if (duplicate != null) {
+                deletes.add(row.cartItemId());
+            }
+        }
+
+        List<CartItemRow> upserts = new ArrayList<>();
+        byCart.forEach((cartId, snapshot) -> {
+            Map<Long, CartItemRow> rows = stored.getOrDefault(cartId, new HashMap<>());
+            for (Line line : snapshot.lines()) {
+                CartItemRow row = rows.remove(line.productId());
+                if (goneProducts.contains(line.productId())) {
+                    if (row != null) {
+                        deletes.add(row.cartItemId());
+                    }
+                } else if (row == null) {
+                    upserts.add(new CartItemRow(null, cartId, line.productId(), line.qty(), line.priceAtAdd()));
+                } else if (row.qty() != line.qty() || row.priceAtAdd() != line.priceAtAdd()) {
+                    upserts.add(new CartItemRow(row.cartItemId(), cartId, line.productId(), line.qty(), line.priceAtAdd()));
+                }
+            }
+            rows.values().forEach(row -> deletes.add(row.cartItemId()));
         });
+        if (!deletes.isEmpty()) {
+            cartItemRepository.deleteByIds(deletes);
+        }
+        if (!upserts.isEmpty()) {
+            cartItemRepository.upsertLines(upserts);
+        }
+        cartRepository.touch(byCart.keySet(), LocalDateTime.now());
+        return goneProducts;
     }
 }
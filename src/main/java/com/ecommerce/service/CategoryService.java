@@ -1,9 +1,13 @@
 package com.ecommerce.service;
 
+import com.ecommerce.config.CacheConfig;
 import com.ecommerce.dto.CategoryRequest;
 import com.ecommerce.dto.CategoryResponse;
 import com.ecommerce.model.ProductCategory;
 import com.ecommerce.repository.ProductCategoryRepository;
+import com.ecommerce.search.SuggestIndex;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -13,11 +17,14 @@ import java.util.stream.Collectors;
 public class CategoryService {
 
     private final ProductCategoryRepository categoryRepository;
+    private final SuggestIndex suggestIndex;
 
-    public CategoryService(ProductCategoryRepository categoryRepository) {
+    public CategoryService(ProductCategoryRepository categoryRepository, SuggestIndex suggestIndex) {
         this.categoryRepository = categoryRepository;
+        this.suggestIndex = suggestIndex;
     }
 
+    @CacheEvict(value = CacheConfig.CATEGORIES, allEntries = true)
     public CategoryResponse createCategory(CategoryRequest request) {
         ProductCategory category = new ProductCategory();
         category.setName(request.getName());
@@ -25,9 +32,11 @@ public class CategoryService {
         category.setPicture(request.getPicture());
 
         ProductCategory saved = categoryRepository.save(category);
+        suggestIndex.category(saved);
         return mapToResponse(saved);
     }
 
+    @Cacheable(value = CacheConfig.CATEGORIES, sync = true)
     public List<CategoryResponse> getAllCategories() {
         return categoryRepository.findAll()
                 .stream()
@@ -0,0 +1,123 @@
+package com.ecommerce.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * {@code Idempotency-Key} handling for endpoints a client may retry after a timeout.
+ *
+ * The first request with a key claims it and runs; a duplicate that arrives while it
+ * is running waits for its result instead of running again, and a later retry gets
+ * the stored response back. Only 2xx responses are kept: a failure releases the key
+ * (waiting duplicates still see it) so the next retry runs for real. Keys are scoped
+ * by the caller, and reusing one for a different request is rejected.
+ *
+ * The store is a bounded in-memory cache, so a key is honoured for {@code ttl} or
+ * until evicted by size, and only within this instance.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final ConcurrentMap<String, Entry> entries;
+    private final long waitMs;
+
+    private record Entry(String fingerprint, CompletableFuture<ResponseEntity<?>> response) {
+    }
+
+    public IdempotencyService(@Value("${idempotency.max-entries:50000}") long maxEntries,
+                              @Value("${idempotency.ttl-minutes:60}") long ttlMinutes,
+                              @Value("${idempotency.wait-ms:10000}") long waitMs) {
+        Cache<String, Entry> cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+        this.entries = cache.asMap();
+        this.waitMs = waitMs;
+    }
+
+    /**
+     * Runs the action once per key.
+     *
+     * @param scope       who and what the key belongs to, e.g. {@code "checkout:" + userId}
+     * @param key         the client's header value; null runs the action unprotected
+     * @param fingerprint the request's parameters; the same key with other parameters is a 422
+     */
+    public ResponseEntity<?> execute(String scope, String key, String fingerprint, Supplier<ResponseEntity<?>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return error(HttpStatus.BAD_REQUEST, HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = scope + ":" + key;
+        Entry mine = new Entry(fingerprint, new CompletableFuture<>());
+        Entry first = entries.putIfAbsent(id, mine);
+        if (first != null) {
+            return awaitFirst(first, fingerprint);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (Throwable e) {
+            // Errors too: a key left holding a never-completed future would stall every retry until it expires
+            entries.remove(id, mine);
+            mine.response().completeExceptionally(e);
+            throw e;
+        }
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            entries.remove(id, mine);
+        }
+        mine.response().complete(response);
+        return response;
+    }
+
+    private ResponseEntity<?> awaitFirst(Entry first, String fingerprint) {
+        if (!first.fingerprint().equals(fingerprint)) {
+            return error(HttpStatus.UNPROCESSABLE_CONTENT, HEADER + " was already used for a different request");
+        }
+        ResponseEntity<?> response;
+        try {
+            response = first.response().get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return error(HttpStatus.CONFLICT, "A request with this " + HEADER + " is still in progress");
+        } catch (ExecutionException e) {
+            // Same failure the first caller got; the key is free again for the next retry
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the original request");
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(response.getHeaders());
+        headers.set("Idempotent-Replayed", "true");
+        return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
+    }
+
+    private static ResponseEntity<?> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status).body(Map.of("error", message));
+    }
+}
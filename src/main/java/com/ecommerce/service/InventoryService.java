@@ -0,0 +1,295 @@
+package com.ecommerce.service;
+
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.search.CatalogSnapshot;
+import com.ecommerce.search.ProductFacetIndex;
+import com.ecommerce.search.SuggestIndex;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * In-memory stock reservation engine.
+ *
+ * Each product gets an {@link AtomicInteger} of sellable units that checkouts take
+ * with a compare-and-set loop, so concurrent buyers of a hot SKU never block each
+ * other and can never drive it below zero. A checkout holds a reservation for
+ * {@code inventory.reservation.ttl-minutes}; payment success commits it, and the
+ * sold quantity is written to {@code product.stock_qty} in batches by
+ * {@link #flush()} (write-behind). Expired reservations are released and the
+ * unpaid order is cancelled.
+ *
+ * Counters live in this JVM, so the app must run as a single instance. Committed sales
+ * exist only in memory until the next flush: a crash in between (up to
+ * {@code inventory.flush-interval-ms}) leaves product.stock_qty too high by what was
+ * sold, and the counters rebuilt from it after restart can oversell by that much.
+ * A clean shutdown flushes first.
+ */
+@Service
+public class InventoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryService.class);
+
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final ProductCacheEvictor productCacheEvictor;
+    private final ProductFacetIndex facetIndex;
+    private final SuggestIndex suggestIndex;
+    private final CatalogSnapshot catalogSnapshot;
+    private final Duration reservationTtl;
+
+    private final ConcurrentHashMap<Long, StockCounter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Reservation> reservations = new ConcurrentHashMap<>(); // by orderId
+    private final ConcurrentHashMap<Long, AtomicInteger> pendingDecrements = new ConcurrentHashMap<>();
+    // Held by a flush from taking its batch until the batch is written, and by absolute stock writes
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public InventoryService(ProductRepository productRepository,
+                            OrderRepository orderRepository,
+                            ProductCacheEvictor productCacheEvictor,
+                            ProductFacetIndex facetIndex,
+                            SuggestIndex suggestIndex,
+                            CatalogSnapshot catalogSnapshot,
+                            @Value("${inventory.reservation.ttl-minutes:30}") long ttlMinutes) {
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+        this.productCacheEvictor = productCacheEvictor;
+        this.facetIndex = facetIndex;
+        this.suggestIndex = suggestIndex;
+        this.catalogSnapshot = catalogSnapshot;
+        this.reservationTtl = Duration.ofMinutes(ttlMinutes);
+    }
+
+    static final class StockCounter {
+        final AtomicInteger available;   // sellable units: stock - reserved - sold but not yet flushed
+        final AtomicInteger reserved = new AtomicInteger();
+
+        StockCounter(int available) {
+            this.available = new AtomicInteger(available);
+        }
+
+        boolean tryTake(int qty) {
+            while (true) {
+                int current = available.get();
+                if (current < qty) {
+                    return false;
+                }
+                if (available.compareAndSet(current, current - qty)) {
+                    reserved.addAndGet(qty);
+                    return true;
+                }
+            }
+        }
+
+        void giveBack(int qty) {
+            reserved.addAndGet(-qty);
+            available.addAndGet(qty);
+        }
+    }
+
+    record Reservation(Long orderId, Map<Long, Integer> quantities, Instant expiresAt) {
+    }
+
+    /**
+     * Takes stock for every product of an order, all or nothing.
+     * If called inside a transaction that later rolls back, the stock is given back.
+     *
+     * @return ids of products that were short; empty when the reservation succeeded
+     */
+    public List<Long> reserve(Long orderId, Map<Long, Integer> quantities) {
+        loadCounters(quantities.keySet());
+
+        Map<Long, Integer> taken = new LinkedHashMap<>();
+        for (Map.Entry<Long, Integer> e : quantities.entrySet()) {
+            StockCounter counter = counters.get(e.getKey());
+            if (counter == null || !counter.tryTake(e.getValue())) {
+                taken.forEach((productId, qty) -> counters.get(productId).giveBack(qty));
+                return List.of(e.getKey());
+            }
+            taken.put(e.getKey(), e.getValue());
+        }
+
+        reservations.put(orderId, new Reservation(orderId, Map.copyOf(taken), Instant.now().plus(reservationTtl)));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        release(orderId);
+                    }
+                }
+            });
+        }
+        return List.of();
+    }
+
+    /**
+     * Turns the order's reservation into a sale; the decrement reaches the database on the next flush.
+     * If the reservation already expired (or was lost on restart) the stock is taken again, and this
+     * fails when it is no longer available.
+     */
+    public void commit(Long orderId, Supplier<Map<Long, Integer>> orderQuantities) {
+        Reservation reservation = reservations.remove(orderId);
+        if (reservation == null) {
+            List<Long> shortItems = reserve(orderId, orderQuantities.get());
+            if (!shortItems.isEmpty()) {
+                throw new RuntimeException("Stock reservation expired and product " + shortItems.get(0) + " is sold out");
+            }
+            reservation = reservations.remove(orderId);
+        }
+
+        reservation.quantities().forEach((productId, qty) -> {
+            counters.get(productId).reserved.addAndGet(-qty);
+            pendingDecrements.computeIfAbsent(productId, id -> new AtomicInteger()).addAndGet(qty);
+        });
+    }
+
+    // Gives reserved stock back, e.g. on cancellation; no-op if the order holds no reservation
+    public void release(Long orderId) {
+        Reservation reservation = reservations.remove(orderId);
+        if (reservation != null) {
+            reservation.quantities().forEach((productId, qty) -> counters.get(productId).giveBack(qty));
+        }
+    }
+
+    /**
+     * Runs an absolute stock write (committed by the time it returns) with no flush in progress,
+     * so decrements a flush has already taken cannot land on top of the new value. Call
+     * {@link #stockSet} for the written products from inside {@code write}.
+     */
+    public <T> T withFlushHeld(Supplier<T> write) {
+        flushLock.lock();
+        try {
+            return write.get();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Re-bases a product's counter after an admin sets an absolute stock value.
+     * The new value is treated as authoritative, so unflushed sales for it are dropped.
+     * Must run inside {@link #withFlushHeld}, together with the write.
+     */
+    public void stockSet(Long productId, int newStockQty) {
+        pendingDecrements.remove(productId);
+        StockCounter counter = counters.get(productId);
+        if (counter != null) {
+            counter.available.set(Math.max(0, newStockQty - counter.reserved.get()));
+        }
+    }
+
+    // Product deleted
+    public void forget(Long productId) {
+        pendingDecrements.remove(productId);
+        counters.remove(productId);
+    }
+
+    // Write-behind: push committed sales to product.stock_qty in one batch
+    @Scheduled(fixedDelayString = "${inventory.flush-interval-ms:1000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushBatch();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushBatch() {
+        Map<Long, Integer> batch = new HashMap<>();
+        pendingDecrements.forEach((productId, pending) -> {
+            int qty = pending.getAndSet(0);
+            if (qty > 0) {
+                batch.put(productId, qty);
+            }
+        });
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Long> notApplied;
+        try {
+            notApplied = productRepository.applyStockDecrements(batch);
+        } catch (RuntimeException e) {
+            // Nothing was written (one transaction): put the quantities back so the next run retries them
+            batch.forEach((productId, qty) ->
+                    pendingDecrements.computeIfAbsent(productId, id -> new AtomicInteger()).addAndGet(qty));
+            log.warn("Inventory flush failed, will retry: {}", e.getMessage());
+            return;
+        }
+        if (!notApplied.isEmpty()) {
+            // The counter let these sales through but the row could not take them; not retried
+            Map<Long, Integer> dropped = new HashMap<>();
+            notApplied.forEach(productId -> dropped.put(productId, batch.remove(productId)));
+            log.error("Stock decrements not applied, product.stock_qty too low or product gone: {}", dropped);
+        }
+        updateView("catalog snapshot", () -> catalogSnapshot.stockDecremented(batch));
+        updateView("product caches", () -> productCacheEvictor.stockChanged(batch.keySet()));
+        updateView("facet index", () -> facetIndex.stockDecremented(batch));
+        updateView("suggest index", () -> suggestIndex.sold(batch));
+    }
+
+    // The decrements are committed by now, so a failing view is logged and never re-queues them
+    private void updateView(String view, Runnable update) {
+        try {
+            update.run();
+        } catch (RuntimeException e) {
+            log.error("Stock flushed but the {} was not updated: {}", view, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservation.sweep-interval-ms:60000}")
+    public void expireReservations() {
+        Instant now = Instant.now();
+        List<Long> expired = new ArrayList<>();
+        reservations.forEach((orderId, reservation) -> {
+            if (reservation.expiresAt().isBefore(now) && reservations.remove(orderId, reservation)) {
+                reservation.quantities().forEach((productId, qty) -> counters.get(productId).giveBack(qty));
+                expired.add(orderId);
+            }
+        });
+        if (!expired.isEmpty()) {
+            orderRepository.cancelUnpaid(expired);
+            log.info("Released {} expired stock reservations", expired.size());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void loadCounters(Iterable<Long> productIds) {
+        List<Long> missing = new ArrayList<>();
+        for (Long id : productIds) {
+            if (!counters.containsKey(id)) {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        for (Object[] row : productRepository.findStockByIds(missing)) {
+            counters.putIfAbsent((Long) row[0], new StockCounter((Integer) row[1]));
+        }
+    }
+}
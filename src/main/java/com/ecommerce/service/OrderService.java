@@ -1,7 +1,13 @@
 package com.ecommerce.service;
 
 import com.ecommerce.dto.CartItemResponse;
+import com.ecommerce.dto.CursorPageResponse;
+import com.ecommerce.dto.OrderLineView;
 import com.ecommerce.dto.OrderResponse;
+import com.ecommerce.dto.OrderSummaryView;
+import com.ecommerce.dto.TransactionView;
+import com.ecommerce.event.OrderEvent;
+import com.ecommerce.event.OrderEventOutbox;
 import com.ecommerce.model.Cart;
 import com.ecommerce.model.CartItem;
 import com.ecommerce.model.Order;
@@ -16,41 +22,58 @@ import com.ecommerce.repository.OrderItemRepository;
 import com.ecommerce.repository.OrderRepository;
 import com.ecommerce.repository.ProductRepository;
 import com.ecommerce.repository.TransactionRepository; // Added import
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal; // Added import for Order totalAmount
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
 public class OrderService {
 
+    private static final int IN_LIST_CHUNK = 1000;
+
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final ProductRepository productRepository;
     private final TransactionRepository transactionRepository; // Injected
+    private final InventoryService inventoryService;
+    private final OrderEventOutbox orderEventOutbox;
+    private final CartService cartService;
 
     public OrderService(CartRepository cartRepository,
                         CartItemRepository cartItemRepository,
                         OrderRepository orderRepository,
                         OrderItemRepository orderItemRepository,
                         ProductRepository productRepository,
-                        TransactionRepository transactionRepository) { // Injected
+                        TransactionRepository transactionRepository, // Injected
+                        InventoryService inventoryService,
+                        OrderEventOutbox orderEventOutbox,
+                        CartService cartService) {
         this.cartRepository = cartRepository;
         this.cartItemRepository = cartItemRepository;
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
         this.productRepository = productRepository;
         this.transactionRepository = transactionRepository; // Injected
+        this.inventoryService = inventoryService;
+        this.orderEventOutbox = orderEventOutbox;
+        this.cartService = cartService;
     }
 
     @Transactional
     public OrderResponse placeOrder(User user) {
+        // The cart is written behind; bring cart_item up to date in this transaction first
+        cartService.flushForCheckout(user.getUserId());
+
         Cart cart = cartRepository.findByUser_UserId(user.getUserId())
                 .orElseThrow(() -> new RuntimeException("Cart not found"));
 
@@ -65,19 +88,16 @@ public class OrderService {
         order.setPaymentStatus("PENDING");  // Payment status - initially pending
         order.setOrderDate(LocalDateTime.now());
         order.setShippingAddress(user.getAddress());
-        // order = orderRepository.save(order); // Removed this save
 
         double total = 0; // Reverted to double
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        Map<Long, Product> productsById = new HashMap<>();
+        List<OrderItem> orderItems = new ArrayList<>(cartItems.size());
 
         for (CartItem ci : cartItems) {
             Product p = ci.getProduct();
-
-            if (p.getStockQty() < ci.getQty()) {
-                throw new RuntimeException("Out of stock: " + p.getProductName());
-            }
-
-            p.setStockQty(p.getStockQty() - ci.getQty());
-            productRepository.save(p);
+            quantities.merge(p.getProductId(), ci.getQty(), Integer::sum);
+            productsById.put(p.getProductId(), p);
 
             OrderItem oi = new OrderItem();
             oi.setOrder(order);
@@ -87,11 +107,19 @@ public class OrderService {
             oi.setSubtotal(ci.getQty() * ci.getPriceAtAdd()); // Reverted calculation to use double
 
             total += oi.getSubtotal(); // Reverted to double arithmetic
-            orderItemRepository.save(oi);
+            orderItems.add(oi);
         }
 
         order.setTotalAmount(BigDecimal.valueOf(total)); // Convert to BigDecimal for Order's totalAmount
-        order = orderRepository.save(order); // Moved save here
+        order = orderRepository.save(order);
+
+        // Hold the stock until payment; released automatically if this transaction rolls back
+        List<Long> outOfStock = inventoryService.reserve(order.getOrderId(), quantities);
+        if (!outOfStock.isEmpty()) {
+            throw new RuntimeException("Out of stock: " + productsById.get(outOfStock.get(0)).getProductName());
+        }
+
+        orderItemRepository.saveAll(orderItems); // JDBC-batched inserts (sequence ids)
 
         Transaction tx = new Transaction();
         tx.setUser(user);
@@ -102,27 +130,51 @@ public class OrderService {
         tx.setTransactionDate(LocalDateTime.now());
         tx = transactionRepository.save(tx);
 
+        // Managed entity: the link is written by dirty checking at commit, no second save needed
         order.setTransaction(tx);
-        orderRepository.save(order);
 
-        // Clear cart
-        cartItemRepository.deleteAll(cartItems);
+        // Clear cart with a single bulk delete
+        cartItemRepository.deleteByCartId(cart.getCartId());
+
+        orderEventOutbox.append(new OrderEvent.OrderPlaced(order.getOrderId(), user.getUserId(),
+                order.getTotalAmount(), quantities));
 
         return mapToResponse(order);
     }
 
-    public List<OrderResponse> getOrdersForUser(User user) {
-        return orderRepository.findByUser_UserIdOrderByOrderIdDesc(user.getUserId())
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<OrderResponse> getOrdersForUser(Long userId) {
+        return toResponses(orderRepository.findSummariesByUser(userId));
     }
 
+    @Transactional(readOnly = true)
     public List<OrderResponse> getAllOrders() {
-        return orderRepository.findAllByOrderByOrderIdDesc()
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return toResponses(orderRepository.findAllSummaries());
+    }
+
+    // Admin listing: newest first, keyset-paged on orderId, every filter optional ("to" is exclusive)
+    @Transactional(readOnly = true)
+    public CursorPageResponse<OrderResponse> getOrderPage(OrderStatus status, String paymentStatus, Long userId,
+                                                          LocalDateTime from, LocalDateTime to,
+                                                          String cursor, Integer limit) {
+        long lastId = PageCursor.decode(cursor);
+        long beforeId = lastId == 0 ? Long.MAX_VALUE : lastId;
+        int size = PageCursor.clampLimit(limit);
+
+        // Fetch one extra row to know whether another page exists
+        List<OrderSummaryView> rows = orderRepository.findSummaryPage(
+                status, paymentStatus, userId, from, to, beforeId, Limit.of(size + 1));
+
+        boolean hasMore = rows.size() > size;
+        List<OrderSummaryView> page = hasMore ? rows.subList(0, size) : rows;
+
+        String nextCursor = hasMore ? PageCursor.encode(page.get(page.size() - 1).orderId()) : null;
+        return new CursorPageResponse<>(toResponses(page), nextCursor);
+    }
+
+    public long countOrders(OrderStatus status, String paymentStatus, Long userId,
+                            LocalDateTime from, LocalDateTime to) {
+        return orderRepository.countFiltered(status, paymentStatus, userId, from, to);
     }
 
     public OrderResponse getOrderById(Long orderId) {
@@ -131,14 +183,104 @@ public class OrderService {
         return mapToResponse(order);
     }
 
+    @Transactional
     public OrderResponse updateStatus(Long orderId, OrderStatus status) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
+        OrderStatus previous = order.getStatus();
         order.setStatus(status);
         orderRepository.save(order);
+        if (previous != status) {
+            orderEventOutbox.append(new OrderEvent.OrderStatusChanged(orderId, previous, status));
+        }
+        if (status == OrderStatus.CANCELLED) {
+            inventoryService.release(orderId);
+        }
         return mapToResponse(order);
     }
 
+    /**
+     * Builds responses for a list of orders from flat projections: the order rows already carry
+     * the user and linked transaction, and items (plus transactions of unlinked orders) are
+     * loaded with one IN-list query per chunk instead of one query per order.
+     */
+    private List<OrderResponse> toResponses(List<OrderSummaryView> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+        List<Long> orderIds = new ArrayList<>(orders.size());
+        List<Long> unlinkedIds = new ArrayList<>();
+        for (OrderSummaryView o : orders) {
+            orderIds.add(o.orderId());
+            if (o.transactionId() == null) {
+                unlinkedIds.add(o.orderId());
+            }
+        }
+
+        Map<Long, List<CartItemResponse>> itemsByOrder = new HashMap<>();
+        for (List<Long> chunk : chunks(orderIds)) {
+            for (OrderLineView line : orderItemRepository.findLinesByOrderIds(chunk)) {
+                CartItemResponse r = new CartItemResponse();
+                r.setProductId(line.productId());
+                r.setProductName(line.productName());
+                r.setQty(line.qty());
+                r.setPriceAtAdd(line.priceAtPurchase());
+                r.setSubtotal(line.subtotal());
+                itemsByOrder.computeIfAbsent(line.orderId(), id -> new ArrayList<>()).add(r);
+            }
+        }
+
+        // Older orders may have a transaction row without the order -> transaction link
+        Map<Long, TransactionView> fallbackTxns = new HashMap<>();
+        for (List<Long> chunk : chunks(unlinkedIds)) {
+            for (TransactionView t : transactionRepository.findViewsByOrderIds(chunk)) {
+                fallbackTxns.putIfAbsent(t.orderId(), t); // newest first
+            }
+        }
+
+        List<OrderResponse> responses = new ArrayList<>(orders.size());
+        for (OrderSummaryView o : orders) {
+            OrderResponse response = new OrderResponse();
+            response.setOrderId(o.orderId());
+            response.setTotalAmount(o.totalAmount().doubleValue());
+            response.setStatus(o.status().name());
+            response.setPaymentStatus(o.paymentStatus() != null ? o.paymentStatus() : "PENDING");
+            response.setOrderDate(o.orderDate() != null ? o.orderDate() : LocalDateTime.now());
+            response.setUserId(o.userId());
+            response.setUserEmail(o.userEmail());
+
+            if (o.transactionId() != null) {
+                response.setPaymentMode(o.paymentMode());
+                response.setTransactionRef(o.paymentGatewayRef());
+                response.setTransactionStatus(o.transactionStatus());
+                response.setTransactionId(o.transactionId());
+                response.setTransactionDate(o.transactionDate());
+            } else {
+                TransactionView t = fallbackTxns.get(o.orderId());
+                if (t != null) {
+                    response.setPaymentMode(t.paymentMode());
+                    response.setTransactionRef(t.paymentGatewayRef());
+                    response.setTransactionStatus(t.paymentStatus());
+                    response.setTransactionId(t.transactionId());
+                    response.setTransactionDate(t.transactionDate());
+                }
+            }
+
+            response.setItems(itemsByOrder.getOrDefault(o.orderId(), new ArrayList<>()));
+            responses.add(response);
+        }
+        return responses;
+    }
+
+    // Keeps IN lists within what every database accepts as bind parameters
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += IN_LIST_CHUNK) {
+            chunks.add(ids.subList(i, Math.min(ids.size(), i + IN_LIST_CHUNK)));
+        }
+        return chunks;
+    }
+
     private OrderResponse mapToResponse(Order order) {
         OrderResponse response = new OrderResponse();
         response.setOrderId(order.getOrderId());
@@ -0,0 +1,77 @@
+package com.ecommerce.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation tokens for keyset (seek) pagination.
+ * The token wraps the last id returned so the next page can start with
+ * {@code WHERE id > :afterId} instead of an OFFSET scan.
+ */
+public final class PageCursor {
+
+    public static final int DEFAULT_LIMIT = 24;
+    public static final int MAX_LIMIT = 200;
+
+    private static final String PREFIX = "k1:";
+    private static final String SORTED_PREFIX = "k2:";
+
+    // Position in a listing ordered by (value, id)
+    public record Keyset(double value, long id) {
+    }
+
+    private PageCursor() {
+    }
+
+    public static String encode(long lastId) {
+        byte[] raw = (PREFIX + lastId).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    // Returns 0 for a missing cursor, i.e. start from the first row
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(PREFIX)) {
+                throw new RuntimeException("Invalid cursor");
+            }
+            return Long.parseLong(raw.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    // Cursor for a listing sorted on a value; the sort name is kept so a cursor cannot be reused with another sort
+    public static String encode(String sort, double lastValue, long lastId) {
+        byte[] raw = (SORTED_PREFIX + sort + ":" + Double.doubleToLongBits(lastValue) + ":" + lastId)
+                .getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    // Returns null for a missing cursor, i.e. start from the first row
+    public static Keyset decode(String cursor, String sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 4 || !raw.startsWith(SORTED_PREFIX) || !parts[1].equals(sort)) {
+                throw new RuntimeException("Invalid cursor");
+            }
+            return new Keyset(Double.longBitsToDouble(Long.parseLong(parts[2])), Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    public static int clampLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+}
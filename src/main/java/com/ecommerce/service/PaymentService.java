@@ -1,5 +1,7 @@
 package com.ecommerce.service;
 
+import com.ecommerce.event.OrderEvent;
+import com.ecommerce.event.OrderEventOutbox;
 import com.ecommerce.model.Order;
 import com.ecommerce.model.OrderItem;
 import com.ecommerce.model.OrderStatus;
@@ -7,24 +9,35 @@ import com.ecommerce.model.Transaction;
 import com.ecommerce.repository.OrderItemRepository;
 import com.ecommerce.repository.OrderRepository;
 import com.ecommerce.repository.TransactionRepository;
-import com.razorpay.RazorpayClient;
-import com.razorpay.RazorpayException;
+import com.ecommerce.payment.PaymentGateway;
+import com.ecommerce.payment.WebhookEvent;
 import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import jakarta.annotation.PostConstruct;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class PaymentService {
 
-    @Value("${razorpay.key.id}")
-    private String razorpayKeyId;
+    private static final Logger log = LoggerFactory.getLogger(PaymentService.class);
+
+    // Transaction status of a captured payment that the order could not take
+    static final String REFUND_REQUIRED = "REFUND_REQUIRED";
 
     @Value("${razorpay.key.secret}")
     private String razorpayKeySecret;
@@ -32,33 +45,28 @@ public class PaymentService {
     @Value("${payment.demo.mode:false}")
     private boolean demoMode;
 
-    private RazorpayClient razorpayClient;
-
     private final OrderRepository orderRepository;
     private final TransactionRepository transactionRepository;
     private final OrderItemRepository orderItemRepository; // Inject OrderItemRepository
+    private final InventoryService inventoryService;
+    private final PaymentGateway paymentGateway;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderEventOutbox orderEventOutbox;
 
     public PaymentService(OrderRepository orderRepository,
                           TransactionRepository transactionRepository,
-                          OrderItemRepository orderItemRepository) { // Inject OrderItemRepository
+                          OrderItemRepository orderItemRepository, // Inject OrderItemRepository
+                          InventoryService inventoryService,
+                          PaymentGateway paymentGateway,
+                          PlatformTransactionManager transactionManager,
+                          OrderEventOutbox orderEventOutbox) {
         this.orderRepository = orderRepository;
         this.transactionRepository = transactionRepository;
         this.orderItemRepository = orderItemRepository; // Initialize
-    }
-
-    @PostConstruct
-    public void init() {
-        if (!demoMode) {
-            try {
-                if (razorpayKeyId == null || razorpayKeyId.isEmpty() ||
-                    razorpayKeySecret == null || razorpayKeySecret.isEmpty()) {
-                    throw new RuntimeException("Razorpay credentials not configured. Set razorpay.key.id and razorpay.key.secret in application.properties or use demo mode");
-                }
-                this.razorpayClient = new RazorpayClient(razorpayKeyId, razorpayKeySecret);
-            } catch (RazorpayException e) {
-                throw new RuntimeException("Failed to initialize RazorpayClient: " + e.getMessage(), e);
-            }
-        }
+        this.inventoryService = inventoryService;
+        this.paymentGateway = paymentGateway;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.orderEventOutbox = orderEventOutbox;
     }
 
     public String pay(Long orderId, String paymentMode) {
@@ -77,115 +85,220 @@ public class PaymentService {
             throw new RuntimeException("Order already paid or payment failed");
         }
 
-        try {
-            JSONObject orderRequest = new JSONObject();
-            orderRequest.put("amount", order.getTotalAmount().multiply(new BigDecimal("100")).intValue());
-            orderRequest.put("currency", "INR");
-            orderRequest.put("receipt", order.getOrderId().toString());
-            orderRequest.put("payment_capture", 1);
-
-            // Construct notes for Razorpay transaction
-            JSONObject notes = new JSONObject();
-            notes.put("order_id", order.getOrderId());
-            notes.put("total_amount", order.getTotalAmount()); // Adding total amount to notes
-
-            List<OrderItem> orderItems = orderItemRepository.findByOrder_OrderId(order.getOrderId());
-            org.json.JSONArray itemsArray = new org.json.JSONArray();
-            for (OrderItem item : orderItems) {
-                // Modified to create a human-readable string for each item
-                String itemDetails = String.format("%s (Qty: %d, Price: %.2f, Subtotal: %.2f)",
-                                                    item.getProduct().getProductName(),
-                                                    item.getQty(),
-                                                    item.getPriceAtPurchase(),
-                                                    item.getSubtotal());
-                itemsArray.put(itemDetails);
-            }
-            notes.put("items", itemsArray);
-
-            orderRequest.put("notes", notes); // Add notes to the order request
+        // Construct notes for Razorpay transaction
+        Map<String, Object> notes = new LinkedHashMap<>();
+        notes.put("order_id", order.getOrderId());
+        notes.put("total_amount", order.getTotalAmount()); // Adding total amount to notes
+
+        List<OrderItem> orderItems = orderItemRepository.findByOrder_OrderId(order.getOrderId());
+        List<String> items = new ArrayList<>();
+        for (OrderItem item : orderItems) {
+            // Modified to create a human-readable string for each item
+            String itemDetails = String.format("%s (Qty: %d, Price: %.2f, Subtotal: %.2f)",
+                                                item.getProduct().getProductName(),
+                                                item.getQty(),
+                                                item.getPriceAtPurchase(),
+                                                item.getSubtotal());
+            items.add(itemDetails);
+        }
+        notes.put("items", items);
 
-            com.razorpay.Order razorpayOrder = razorpayClient.orders.create(orderRequest);
+        // Bounded by the gateway's deadline, bulkhead and circuit breaker; no transaction is held meanwhile
+        String razorpayOrderId = paymentGateway.createOrder(new PaymentGateway.OrderRequest(
+                order.getTotalAmount().multiply(new BigDecimal("100")).longValue(),
+                "INR",
+                order.getOrderId().toString(),
+                notes));
 
-            String razorpayOrderId = razorpayOrder.get("id");
-            order.setRazorpayOrderId(razorpayOrderId);
-            orderRepository.save(order);
-
-            return razorpayOrderId;
+        order.setRazorpayOrderId(razorpayOrderId);
+        orderRepository.save(order);
 
-        } catch (RazorpayException e) {
-            throw new RuntimeException("Failed to create Razorpay order", e);
-        }
+        return razorpayOrderId;
     }
 
     public void verifyPayment(String razorpayOrderId, String razorpayPaymentId, String razorpaySignature) {
         Order order = orderRepository.findByRazorpayOrderId(razorpayOrderId)
                 .orElseThrow(() -> new RuntimeException("Order not found with razorpay_order_id: " + razorpayOrderId));
 
+        boolean isValid;
         try {
             JSONObject options = new JSONObject();
             options.put("razorpay_order_id", razorpayOrderId);
             options.put("razorpay_payment_id", razorpayPaymentId);
             options.put("razorpay_signature", razorpaySignature);
 
-            boolean isValid = com.razorpay.Utils.verifyPaymentSignature(options, razorpayKeySecret);
-
-            if (isValid) {
-                order.setPaymentStatus("SUCCESS");
-                order.setStatus(OrderStatus.CONFIRMED);
-                orderRepository.save(order);
+            isValid = com.razorpay.Utils.verifyPaymentSignature(options, razorpayKeySecret);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to verify payment: " + e.getMessage(), e);
+        }
 
-                // Create transaction with complete details and timestamp
-                Transaction transaction = new Transaction();
-                transaction.setOrder(order);
-                transaction.setUser(order.getUser());
-                transaction.setPaymentGatewayRef(razorpayPaymentId);
-                transaction.setPaymentMode("Razorpay");
-                transaction.setPaymentStatus("SUCCESS");
-                transaction.setAmount(order.getTotalAmount().doubleValue());
-                transaction.setTransactionDate(LocalDateTime.now()); // Transaction timestamp with date and time
-                transaction = transactionRepository.save(transaction);
-
-                order.setTransaction(transaction);
-                orderRepository.save(order);
-            } else {
+        if (!isValid) {
+            // A webhook may already have confirmed the order; a bad browser callback must not undo that
+            if ("PENDING".equals(order.getPaymentStatus())) {
                 order.setPaymentStatus("FAILED");
                 orderRepository.save(order);
-                throw new RuntimeException("Payment verification failed: Invalid signature from Razorpay");
             }
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to verify payment: " + e.getMessage(), e);
+            throw new RuntimeException("Failed to verify payment: Payment verification failed: Invalid signature from Razorpay");
+        }
+
+        // Same path as the webhook, so whichever arrives second finds the payment recorded and does nothing
+        transactionTemplate.executeWithoutResult(status -> recordOutcomes(List.of(
+                new WebhookEvent(WebhookEvent.Type.CAPTURED, razorpayPaymentId, razorpayOrderId, "", 0))));
+
+        boolean refundRequired = transactionRepository.findByPaymentGatewayRef(razorpayPaymentId)
+                .map(transaction -> REFUND_REQUIRED.equals(transaction.getPaymentStatus()))
+                .orElse(false);
+        if (refundRequired) {
+            throw new RuntimeException("Order " + order.getOrderId() + " can no longer be paid; payment "
+                    + razorpayPaymentId + " will be refunded");
         }
     }
 
-    private String demoPayment(Long orderId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
+    /**
+     * Applies a batch of webhook events in one transaction. Payments that are already
+     * recorded are skipped, so a batch replayed after a crash changes nothing.
+     */
+    public void applyWebhookEvents(List<WebhookEvent> events) {
+        transactionTemplate.executeWithoutResult(status -> recordOutcomes(events));
+    }
 
-        if (!"PENDING".equals(order.getPaymentStatus())) {
-            throw new RuntimeException("Order already paid or payment failed");
+    private void recordOutcomes(List<WebhookEvent> events) {
+        // One event per payment id; a capture wins over a failure report for the same payment
+        Map<String, WebhookEvent> byPayment = new LinkedHashMap<>();
+        for (WebhookEvent event : events) {
+            byPayment.merge(event.paymentId(), event,
+                    (first, next) -> first.type() == WebhookEvent.Type.CAPTURED ? first : next);
+        }
+        // Lock the orders first: a concurrent recorder of the same payment waits here and then sees its transaction
+        Set<String> razorpayOrderIds = new HashSet<>();
+        byPayment.values().forEach(event -> razorpayOrderIds.add(event.razorpayOrderId()));
+        Map<String, Order> orders = new HashMap<>();
+        for (Order order : orderRepository.lockByRazorpayOrderIds(razorpayOrderIds)) {
+            orders.put(order.getRazorpayOrderId(), order);
+        }
+        byPayment.keySet().removeAll(transactionRepository.findRecordedGatewayRefs(byPayment.keySet()));
+
+        List<Transaction> transactions = new ArrayList<>();
+        List<Long> paidOrderIds = new ArrayList<>();
+        for (WebhookEvent event : byPayment.values()) {
+            Order order = orders.get(event.razorpayOrderId());
+            if (order == null) {
+                log.warn("Payment {} refers to unknown Razorpay order {}", event.paymentId(), event.razorpayOrderId());
+                continue;
+            }
+            if (event.type() == WebhookEvent.Type.FAILED) {
+                // A failed attempt; the customer can still pay the same order again
+                transactions.add(transaction(order, event.paymentId(), "FAILED"));
+                continue;
+            }
+            if (!isPayable(order)) {
+                // Captured after the order was paid, or cancelled when its reservation expired: the money
+                // goes back and the order stays as it is, so released stock is not sold a second time
+                log.warn("Order {} is {} / {} but payment {} was captured; needs a refund",
+                        order.getOrderId(), order.getStatus(), order.getPaymentStatus(), event.paymentId());
+                transactions.add(transaction(order, event.paymentId(), REFUND_REQUIRED));
+                orderEventOutbox.append(new OrderEvent.RefundRequired(order.getOrderId(), event.paymentId(),
+                        order.getTotalAmount()));
+                continue;
+            }
+            Transaction transaction = transaction(order, event.paymentId(), "SUCCESS");
+            transactions.add(transaction);
+            order.setPaymentStatus("SUCCESS");
+            order.setStatus(OrderStatus.CONFIRMED);
+            order.setTransaction(transaction);
+            paidOrderIds.add(order.getOrderId());
+            orderEventOutbox.append(new OrderEvent.PaymentSucceeded(order.getOrderId(), event.paymentId(),
+                    transaction.getPaymentMode(), order.getTotalAmount()));
         }
+        transactionRepository.saveAll(transactions);
 
-        order.setPaymentStatus("SUCCESS");
-        order.setStatus(OrderStatus.CONFIRMED);
-        orderRepository.save(order);
+        if (!paidOrderIds.isEmpty()) {
+            // Stock moves only once the payment is committed, so a rolled back batch cannot sell twice on retry
+            commitStockAfterCommit(paidOrderIds);
+        }
+    }
 
-        // Create transaction with complete details and timestamp for demo mode
+    // A failed attempt may be retried; a paid, cancelled or expired order takes no more payments
+    private static boolean isPayable(Order order) {
+        return order.getStatus() != OrderStatus.CANCELLED
+                && !"SUCCESS".equals(order.getPaymentStatus())
+                && !"EXPIRED".equals(order.getPaymentStatus());
+    }
+
+    // Turns the orders' checkout reservations into sales once the surrounding transaction commits
+    private void commitStockAfterCommit(List<Long> paidOrderIds) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (Long orderId : paidOrderIds) {
+                    try {
+                        inventoryService.commit(orderId, () -> orderQuantities(orderId));
+                    } catch (RuntimeException e) {
+                        log.error("Order {} is paid but its stock could not be taken: {}", orderId, e.getMessage());
+                    }
+                }
+            }
+        });
+    }
+
+    private static Transaction transaction(Order order, String paymentId, String status) {
         Transaction transaction = new Transaction();
         transaction.setOrder(order);
         transaction.setUser(order.getUser());
-        transaction.setPaymentGatewayRef("DEMO_TRANSACTION_" + orderId);
-        transaction.setPaymentMode("DEMO");
-        transaction.setPaymentStatus("SUCCESS");
+        transaction.setPaymentGatewayRef(paymentId);
+        transaction.setPaymentMode("Razorpay");
+        transaction.setPaymentStatus(status);
         transaction.setAmount(order.getTotalAmount().doubleValue());
         transaction.setTransactionDate(LocalDateTime.now()); // Transaction timestamp with date and time
-        transaction = transactionRepository.save(transaction);
+        return transaction;
+    }
 
-        order.setTransaction(transaction);
-        orderRepository.save(order);
+    private String demoPayment(Long orderId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Locked until commit: a concurrent payment of the same order waits here and then sees SUCCESS
+            Order order = orderRepository.lockById(orderId)
+                    .orElseThrow(() -> new RuntimeException("Order not found"));
+
+            if (!"PENDING".equals(order.getPaymentStatus())) {
+                throw new RuntimeException("Order already paid or payment failed");
+            }
+
+            order.setPaymentStatus("SUCCESS");
+            order.setStatus(OrderStatus.CONFIRMED);
+
+            // Create transaction with complete details and timestamp for demo mode
+            Transaction transaction = new Transaction();
+            transaction.setOrder(order);
+            transaction.setUser(order.getUser());
+            transaction.setPaymentGatewayRef("DEMO_TRANSACTION_" + orderId);
+            transaction.setPaymentMode("DEMO");
+            transaction.setPaymentStatus("SUCCESS");
+            transaction.setAmount(order.getTotalAmount().doubleValue());
+            transaction.setTransactionDate(LocalDateTime.now()); // Transaction timestamp with date and time
+            transaction = transactionRepository.save(transaction);
+
+            order.setTransaction(transaction);
+            orderRepository.save(order);
+
+            orderEventOutbox.append(new OrderEvent.PaymentSucceeded(orderId, transaction.getPaymentGatewayRef(),
+                    transaction.getPaymentMode(), order.getTotalAmount()));
+
+            // As for gateway payments, stock moves only once the payment is committed
+            commitStockAfterCommit(List.of(orderId));
+        });
 
         return "demo_payment_success";
     }
 
+    // productId -> quantity for an order; only needed when its reservation has to be re-taken
+    private Map<Long, Integer> orderQuantities(Long orderId) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (OrderItem item : orderItemRepository.findByOrder_OrderId(orderId)) {
+            quantities.merge(item.getProduct().getProductId(), item.getQty(), Integer::sum);
+        }
+        return quantities;
+    }
+
     public Map<String, Object> getPaymentStatus(Long orderId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
@@ -0,0 +1,100 @@
+package com.ecommerce.service;
+
+import com.ecommerce.payment.WebhookEvent;
+import com.ecommerce.payment.WebhookJournal;
+import com.ecommerce.payment.WebhookSignature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Razorpay webhook intake.
+ *
+ * The request thread only checks the signature, appends the event to the local
+ * {@link WebhookJournal} and acknowledges; journal workers hand events to
+ * {@link PaymentService#applyWebhookEvents} in batches, one database transaction per
+ * batch. A burst of payments during a sale therefore costs the request threads an
+ * HMAC and a shared fsync each, not a round of order and transaction writes.
+ */
+@Service
+public class PaymentWebhookService {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentWebhookService.class);
+
+    private final PaymentService paymentService;
+    private final WebhookSignature signature;
+    private final WebhookJournal journal;
+    private final long retryDelayMs;
+    private final int maxAttempts;
+
+    private final Counter accepted;
+    private final Counter ignored;
+
+    public PaymentWebhookService(PaymentService paymentService,
+                                 MeterRegistry registry,
+                                 @Value("${razorpay.webhook.secret:}") String secret,
+                                 @Value("${payment.webhook.journal-dir:data/payment-webhooks}") String journalDir,
+                                 @Value("${payment.webhook.workers:2}") int workers,
+                                 @Value("${payment.webhook.batch-size:200}") int batchSize,
+                                 @Value("${payment.webhook.retry-delay-ms:1000}") long retryDelayMs,
+                                 @Value("${payment.webhook.max-attempts:5}") int maxAttempts) throws IOException {
+        this.paymentService = paymentService;
+        this.signature = new WebhookSignature(secret);
+        this.journal = new WebhookJournal(Path.of(journalDir), Math.max(1, workers), Math.max(1, batchSize));
+        this.retryDelayMs = retryDelayMs;
+        this.maxAttempts = maxAttempts;
+
+        Gauge.builder("payment.webhook.backlog", journal, WebhookJournal::backlog)
+                .description("Webhook events acknowledged but not yet applied")
+                .register(registry);
+        FunctionCounter.builder("payment.webhook.dead.lettered", journal, WebhookJournal::deadLettered)
+                .description("Webhook events that kept failing and were moved to a dead-letter file")
+                .register(registry);
+        this.accepted = Counter.builder("payment.webhook.events").tag("outcome", "accepted").register(registry);
+        this.ignored = Counter.builder("payment.webhook.events").tag("outcome", "ignored").register(registry);
+        if (!signature.isConfigured()) {
+            log.warn("razorpay.webhook.secret is not set; payment webhooks will be rejected");
+        }
+    }
+
+    /**
+     * Verifies and queues one webhook delivery; returns once it is safe to acknowledge.
+     *
+     * @return false when the event is valid but not one this app acts on
+     */
+    public boolean receive(byte[] body, String signatureHeader) {
+        if (!signature.matches(body, signatureHeader)) {
+            throw new RuntimeException("Invalid webhook signature");
+        }
+        WebhookEvent event = WebhookEvent.parse(body);
+        if (event == null) {
+            ignored.increment();
+            return false;
+        }
+        journal.append(event);
+        accepted.increment();
+        return true;
+    }
+
+    // Start applying only once the app is up; events from before a restart are replayed first
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        journal.start(paymentService::applyWebhookEvents, retryDelayMs, maxAttempts);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        journal.close();
+    }
+}
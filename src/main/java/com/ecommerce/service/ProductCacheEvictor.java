@@ -0,0 +1,69 @@
+package com.ecommerce.service;
+
+import com.ecommerce.config.CacheConfig;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Targeted invalidation of the catalog caches.
+ * A product write only drops the entries it can affect (its own id, its
+ * categories, the full list and short-lived filter results) instead of
+ * clearing every product-related cache.
+ */
+@Component
+public class ProductCacheEvictor {
+
+    private final CacheManager cacheManager;
+
+    public ProductCacheEvictor(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public void productChanged(Long productId, Long... categoryIds) {
+        evict(CacheConfig.PRODUCT_BY_ID, productId);
+        for (Long categoryId : categoryIds) {
+            evict(CacheConfig.PRODUCTS_BY_CATEGORY, categoryId);
+        }
+        listingsChanged();
+    }
+
+    public void productsChanged(Collection<Long> productIds, Collection<Long> categoryIds) {
+        productIds.forEach(id -> evict(CacheConfig.PRODUCT_BY_ID, id));
+        categoryIds.forEach(id -> evict(CacheConfig.PRODUCTS_BY_CATEGORY, id));
+        listingsChanged();
+    }
+
+    // Stock-only change where the categories are not at hand
+    public void stockChanged(Collection<Long> productIds) {
+        productIds.forEach(id -> evict(CacheConfig.PRODUCT_BY_ID, id));
+        clear(CacheConfig.PRODUCTS_BY_CATEGORY);
+        listingsChanged();
+    }
+
+    // Full list and filter results can contain any product, so they are cleared as a whole
+    public void listingsChanged() {
+        clear(CacheConfig.PRODUCTS);
+        clear(CacheConfig.PRODUCT_FILTER);
+    }
+
+    public void categoriesChanged() {
+        clear(CacheConfig.CATEGORIES);
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.evict(key);
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
@@ -1,32 +1,85 @@
 package com.ecommerce.service;
 
+import com.ecommerce.config.CacheConfig;
+import com.ecommerce.dto.BulkUpdateReport;
+import com.ecommerce.dto.CursorPageResponse;
+import com.ecommerce.dto.ProductFacets;
+import com.ecommerce.dto.ProductFilter;
+import com.ecommerce.dto.ProductFilterResponse;
+import com.ecommerce.dto.ProductPatch;
 import com.ecommerce.dto.ProductRequest;
 import com.ecommerce.dto.ProductResponse;
+import com.ecommerce.dto.ProductSort;
+import com.ecommerce.dto.RatingSummary;
+import com.ecommerce.dto.SuggestionResponse;
 import com.ecommerce.model.Product;
 import com.ecommerce.model.ProductCategory;
 import com.ecommerce.repository.ProductRepository;
 import com.ecommerce.repository.ProductCategoryRepository;
-import org.springframework.cache.annotation.CacheEvict;
+import com.ecommerce.search.CatalogSnapshot;
+import com.ecommerce.search.ProductFacetIndex;
+import com.ecommerce.search.ProductSearchIndex;
+import com.ecommerce.search.SuggestIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Comparator;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class ProductService {
 
+    private static final Logger log = LoggerFactory.getLogger(ProductService.class);
+
+    private static final int STREAM_CHUNK = 500;
+    private static final int MAX_BULK_UPDATE_ROWS = 100_000;
+    private static final int DEFAULT_SUGGESTIONS = 10;
+    private static final int MAX_SUGGESTIONS = 50;
+
     private final ProductRepository productRepository;
     private final ProductCategoryRepository categoryRepository;
+    private final EntityManager entityManager;
+    private final ProductCacheEvictor cacheEvictor;
+    private final InventoryService inventoryService;
+    private final ReviewService reviewService;
+    private final ProductSearchIndex searchIndex;
+    private final ProductFacetIndex facetIndex;
+    private final SuggestIndex suggestIndex;
+    private final CatalogSnapshot catalogSnapshot;
 
     public ProductService(ProductRepository productRepository,
-                          ProductCategoryRepository categoryRepository) {
+                          ProductCategoryRepository categoryRepository,
+                          EntityManager entityManager,
+                          ProductCacheEvictor cacheEvictor,
+                          InventoryService inventoryService,
+                          ReviewService reviewService,
+                          ProductSearchIndex searchIndex,
+                          ProductFacetIndex facetIndex,
+                          SuggestIndex suggestIndex,
+                          CatalogSnapshot catalogSnapshot) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
+        this.entityManager = entityManager;
+        this.cacheEvictor = cacheEvictor;
+        this.inventoryService = inventoryService;
+        this.reviewService = reviewService;
+        this.searchIndex = searchIndex;
+        this.facetIndex = facetIndex;
+        this.suggestIndex = suggestIndex;
+        this.catalogSnapshot = catalogSnapshot;
     }
 
-    @CacheEvict(value = "products", allEntries = true)
     public ProductResponse createProduct(ProductRequest request) {
 
         ProductCategory category = categoryRepository.findById(request.getCategoryId())
@@ -42,19 +95,26 @@ public class ProductService {
         product.setCategory(category);
 
         Product saved = productRepository.save(product);
+        // Snapshot first, so a listing rebuilt right after the eviction already sees the product
+        catalogSnapshot.index(saved);
+        cacheEvictor.productChanged(saved.getProductId(), category.getCategoryId());
+        searchIndex.index(saved);
+        facetIndex.index(saved);
+        suggestIndex.index(saved);
         return mapToResponse(saved);
     }
 
+    @Cacheable(value = CacheConfig.PRODUCT_BY_ID, key = "#id", sync = true)
     public ProductResponse getProductById(Long id) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found with ID: " + id));
         return mapToResponse(product);
     }
 
-    @CacheEvict(value = "products", allEntries = true)
     public ProductResponse updateProduct(Long id, ProductRequest request) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found with ID: " + id));
+        Long previousCategoryId = product.getCategory().getCategoryId();
 
         ProductCategory category = categoryRepository.findById(request.getCategoryId())
                 .orElseThrow(() -> new RuntimeException("Category not found"));
@@ -67,61 +127,288 @@ public class ProductService {
         product.setStockQty(request.getStockQty());
         product.setCategory(category);
 
-        Product updated = productRepository.save(product);
+        Product updated = inventoryService.withFlushHeld(() -> {
+            Product saved = productRepository.save(product);
+            inventoryService.stockSet(id, request.getStockQty());
+            return saved;
+        });
+        catalogSnapshot.index(updated);
+        // Evict both categories in case the product moved
+        cacheEvictor.productChanged(id, previousCategoryId, category.getCategoryId());
+        searchIndex.index(updated);
+        facetIndex.index(updated);
+        suggestIndex.index(updated);
         return mapToResponse(updated);
     }
 
-    @CacheEvict(value = "products", allEntries = true)
     public void deleteProduct(Long id) {
-        if (!productRepository.existsById(id)) {
-            throw new RuntimeException("Product not found with ID: " + id);
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Product not found with ID: " + id));
+        productRepository.delete(product);
+        inventoryService.forget(id);
+        searchIndex.remove(id);
+        facetIndex.remove(id);
+        suggestIndex.remove(id);
+        catalogSnapshot.remove(id);
+        cacheEvictor.productChanged(id, product.getCategory().getCategoryId());
+    }
+
+    /**
+     * Sets price and/or stock of many products with batched partial UPDATEs in one
+     * transaction. Invalid rows are reported and skipped; the rest are applied. Only the
+     * touched products and their categories are invalidated in the caches and indexes.
+     */
+    public BulkUpdateReport bulkUpdate(List<ProductPatch> patches) {
+        if (patches == null || patches.isEmpty()) {
+            throw new RuntimeException("At least one product update is required");
+        }
+        if (patches.size() > MAX_BULK_UPDATE_ROWS) {
+            throw new RuntimeException("At most " + MAX_BULK_UPDATE_ROWS + " product updates per request");
+        }
+        long start = System.nanoTime();
+        BulkUpdateReport.RowResult[] results = new BulkUpdateReport.RowResult[patches.size()];
+        List<ProductPatch> valid = new ArrayList<>(patches.size());
+        List<Integer> validRows = new ArrayList<>(patches.size());
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < patches.size(); i++) {
+            ProductPatch patch = patches.get(i);
+            String problem = validate(patch, seen);
+            if (problem != null) {
+                results[i] = new BulkUpdateReport.RowResult(patch == null ? null : patch.productId(),
+                        BulkUpdateReport.Status.INVALID, problem);
+            } else {
+                valid.add(patch);
+                validRows.add(i);
+            }
+        }
+
+        List<ProductPatch> applied = new ArrayList<>(valid.size());
+        if (!valid.isEmpty()) {
+            int[] counts = inventoryService.withFlushHeld(() -> {
+                int[] updated = productRepository.updatePriceAndStock(valid);
+                for (int n = 0; n < valid.size(); n++) {
+                    ProductPatch patch = valid.get(n);
+                    if (updated[n] > 0 && patch.stockQty() != null) {
+                        inventoryService.stockSet(patch.productId(), patch.stockQty());
+                    }
+                }
+                return updated;
+            });
+            for (int n = 0; n < valid.size(); n++) {
+                ProductPatch patch = valid.get(n);
+                if (counts[n] > 0) {
+                    applied.add(patch);
+                    results[validRows.get(n)] = new BulkUpdateReport.RowResult(patch.productId(),
+                            BulkUpdateReport.Status.UPDATED, null);
+                } else {
+                    results[validRows.get(n)] = new BulkUpdateReport.RowResult(patch.productId(),
+                            BulkUpdateReport.Status.NOT_FOUND, "Product not found with ID: " + patch.productId());
+                }
+            }
+        }
+
+        if (!applied.isEmpty()) {
+            List<Long> ids = applied.stream().map(ProductPatch::productId).toList();
+            // Snapshot first, so listings rebuilt right after the eviction already see the new values
+            catalogSnapshot.pricesAndStockSet(applied);
+            facetIndex.pricesAndStockSet(applied);
+            Set<Long> categoryIds = catalogSnapshot.categoriesOf(ids);
+            if (categoryIds != null) {
+                cacheEvictor.productsChanged(ids, categoryIds);
+            } else {
+                // Categories are not at hand before the snapshot is built
+                cacheEvictor.stockChanged(ids);
+            }
+        }
+
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Bulk product update: {} rows, {} updated in {} ms", patches.size(), applied.size(), durationMs);
+        return new BulkUpdateReport(patches.size(), applied.size(), patches.size() - applied.size(),
+                durationMs, List.of(results));
+    }
+
+    private static String validate(ProductPatch patch, Set<Long> seen) {
+        if (patch == null || patch.productId() == null) {
+            return "productId is required";
+        }
+        if (patch.basePrice() == null && patch.stockQty() == null) {
+            return "basePrice or stockQty is required";
+        }
+        if (patch.basePrice() != null && !(patch.basePrice() > 0)) {
+            return "basePrice must be positive";
+        }
+        if (patch.stockQty() != null && patch.stockQty() < 0) {
+            return "stockQty must not be negative";
+        }
+        if (!seen.add(patch.productId())) {
+            return "Duplicate productId in request";
         }
-        productRepository.deleteById(id);
+        return null;
     }
 
-    @Cacheable("products")
+    // sync = true: on a miss only one caller rebuilds the list, the others wait for it
+    @Cacheable(value = CacheConfig.PRODUCTS, sync = true)
     public List<ProductResponse> getAllProducts() {
-        return productRepository.findAll()
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        if (catalogSnapshot.isReady()) {
+            return catalogSnapshot.products(null);
+        }
+        return toResponses(productRepository.findAll());
     }
 
+    @Cacheable(value = CacheConfig.PRODUCTS_BY_CATEGORY, key = "#categoryId", sync = true)
     public List<ProductResponse> getProductsByCategory(Long categoryId) {
-        return productRepository.findByCategory_CategoryId(categoryId)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        if (catalogSnapshot.isReady()) {
+            return catalogSnapshot.products(categoryId);
+        }
+        return toResponses(productRepository.findByCategory_CategoryId(categoryId));
+    }
+
+    // Keyset page over the catalog (optionally one category), ordered by productId
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ProductResponse> getProductPage(Long categoryId, String cursor, Integer limit) {
+        long afterId = PageCursor.decode(cursor);
+        int size = PageCursor.clampLimit(limit);
+
+        // Fetch one extra row to know whether another page exists
+        List<Product> rows = categoryId == null
+                ? productRepository.findPageAfter(afterId, Limit.of(size + 1))
+                : productRepository.findCategoryPageAfter(categoryId, afterId, Limit.of(size + 1));
+
+        boolean hasMore = rows.size() > size;
+        List<Product> page = hasMore ? rows.subList(0, size) : rows;
+
+        List<ProductResponse> items = toResponses(page);
+
+        String nextCursor = hasMore
+                ? PageCursor.encode(page.get(page.size() - 1).getProductId())
+                : null;
+        return new CursorPageResponse<>(items, nextCursor);
+    }
+
+    // Streams the catalog row by row; entities are detached once mapped so heap stays flat.
+    // Rows are mapped in chunks so ratings come from one lookup per chunk.
+    @Transactional(readOnly = true)
+    public void streamProducts(Long categoryId, Consumer<ProductResponse> sink) {
+        List<Product> chunk = new ArrayList<>(STREAM_CHUNK);
+        try (Stream<Product> rows = categoryId == null
+                ? productRepository.streamAll()
+                : productRepository.streamByCategory(categoryId)) {
+            rows.forEach(p -> {
+                chunk.add(p);
+                if (chunk.size() == STREAM_CHUNK) {
+                    emit(chunk, sink);
+                }
+            });
+        }
+        emit(chunk, sink);
+    }
+
+    private void emit(List<Product> chunk, Consumer<ProductResponse> sink) {
+        toResponses(chunk).forEach(sink);
+        chunk.forEach(entityManager::detach);
+        chunk.clear();
+    }
+
+    // Ranked full-text search; falls back to a name LIKE scan while the index is still building
+    public List<ProductResponse> searchProducts(String keyword, Integer limit) {
+        if (!searchIndex.isReady()) {
+            return toResponses(productRepository.findByProductNameContainingIgnoreCase(keyword));
+        }
+        // Callers predating the limit parameter got every match, so no limit means the cap rather than a page
+        int size = limit == null ? PageCursor.MAX_LIMIT : PageCursor.clampLimit(limit);
+        return getProductsInOrder(searchIndex.search(keyword, size));
+    }
+
+    // Type-ahead over names, SKUs and categories, served from memory
+    public List<SuggestionResponse> suggest(String prefix, Integer limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return new ArrayList<>();
+        }
+        int size = limit == null || limit < 1 ? DEFAULT_SUGGESTIONS : Math.min(limit, MAX_SUGGESTIONS);
+        return suggestIndex.suggest(prefix, size);
     }
 
-    public List<ProductResponse> searchProducts(String keyword) {
-        return productRepository.findByProductNameContainingIgnoreCase(keyword)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    // Loads products by id in one query and keeps the given order
+    private List<ProductResponse> getProductsInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Product> byId = new HashMap<>();
+        for (Product p : productRepository.findAllWithCategory(ids)) {
+            byId.put(p.getProductId(), p);
+        }
+        List<Product> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Product p = byId.get(id);
+            if (p != null) {
+                ordered.add(p);
+            }
+        }
+        return toResponses(ordered);
     }
 
+    @Cacheable(value = CacheConfig.PRODUCT_FILTER,
+               key = "{#keyword, #categoryId, #minPrice, #maxPrice, #sort}", sync = true)
+    @Transactional(readOnly = true)
     public List<ProductResponse> filterProducts(String keyword,
                                                Long categoryId,
                                                Double minPrice,
                                                Double maxPrice,
                                                String sort) {
-        List<Product> products = productRepository.filterProducts(
-                keyword, categoryId, minPrice, maxPrice
-        );
+        ProductFilter filter = new ProductFilter(keyword, categoryId, minPrice, maxPrice, null);
+        if (catalogSnapshot.isReady()) {
+            return catalogSnapshot.filter(filter, ProductSort.fromParam(sort));
+        }
+        List<Object[]> rows = productRepository.findFiltered(filter, ProductSort.fromParam(sort), null, null, 0);
+        return toResponses(rows.stream().map(r -> (Product) r[0]).toList());
+    }
+
+    /**
+     * One page of a filtered listing. Sorting and the page limit run in the database;
+     * facet counts come from the in-memory bitmap index.
+     */
+    @Transactional(readOnly = true)
+    public ProductFilterResponse filterPage(ProductFilter filter, String sortParam, String cursor, Integer limit) {
+        ProductSort sort = ProductSort.fromParam(sortParam);
+        PageCursor.Keyset after = PageCursor.decode(cursor, sort.name());
+        int size = PageCursor.clampLimit(limit);
+
+        // Fetch one extra row to know whether another page exists
+        List<Object[]> rows = productRepository.findFiltered(filter, sort,
+                after != null ? after.value() : null,
+                after != null ? after.id() : null,
+                size + 1);
 
-        if ("asc".equalsIgnoreCase(sort)) {
-            products.sort(Comparator.comparing(Product::getBasePrice));
-        } else if ("desc".equalsIgnoreCase(sort)) {
-            products.sort(Comparator.comparing(Product::getBasePrice).reversed());
+        boolean hasMore = rows.size() > size;
+        List<Object[]> page = hasMore ? rows.subList(0, size) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            Object[] last = page.get(page.size() - 1);
+            nextCursor = PageCursor.encode(sort.name(), ((Number) last[1]).doubleValue(), ((Product) last[0]).getProductId());
         }
+        ProductFacets facets = facetIndex.isReady() ? facetIndex.facets(filter) : null;
+        return new ProductFilterResponse(toResponses(page.stream().map(r -> (Product) r[0]).toList()), nextCursor, facets);
+    }
 
-        return products.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    private List<ProductResponse> toResponses(List<Product> products) {
+        if (products.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, RatingSummary> ratings = reviewService.getRatingSummaries(
+                products.stream().map(Product::getProductId).toList());
+        List<ProductResponse> responses = new ArrayList<>(products.size());
+        for (Product p : products) {
+            responses.add(mapToResponse(p, ratings.get(p.getProductId())));
+        }
+        return responses;
     }
 
     private ProductResponse mapToResponse(Product product) {
+        return mapToResponse(product, reviewService.getRatingSummary(product.getProductId()));
+    }
+
+    private ProductResponse mapToResponse(Product product, RatingSummary rating) {
         ProductResponse response = new ProductResponse();
         response.setProductId(product.getProductId());
         response.setProductName(product.getProductName());
@@ -132,6 +419,8 @@ public class ProductService {
         response.setStockQty(product.getStockQty());
         response.setCategoryId(product.getCategory().getCategoryId());
         response.setCategoryName(product.getCategory().getName());
+        response.setAverageRating(rating.getAverageRating());
+        response.setReviewCount(rating.getReviewCount());
         return response;
     }
 }
@@ -1,27 +1,54 @@
 package com.ecommerce.service;
 
+import com.ecommerce.config.CacheConfig;
+import com.ecommerce.dto.CursorPageResponse;
+import com.ecommerce.dto.RatingSummary;
 import com.ecommerce.dto.ReviewRequest;
 import com.ecommerce.dto.ReviewResponse;
 import com.ecommerce.model.*;
 import com.ecommerce.repository.*;
+import com.ecommerce.search.CatalogSnapshot;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
 public class ReviewService {
 
+    private static final int IN_LIST_CHUNK = 1000;
+
     private final ReviewRepository reviewRepository;
     private final ProductRepository productRepository;
+    private final ProductRatingStatsRepository ratingStatsRepository;
+    private final ProductCacheEvictor cacheEvictor;
+    private final CatalogSnapshot catalogSnapshot;
 
     public ReviewService(ReviewRepository reviewRepository,
-                         ProductRepository productRepository) {
+                         ProductRepository productRepository,
+                         ProductRatingStatsRepository ratingStatsRepository,
+                         ProductCacheEvictor cacheEvictor,
+                         CatalogSnapshot catalogSnapshot) {
         this.reviewRepository = reviewRepository;
         this.productRepository = productRepository;
+        this.ratingStatsRepository = ratingStatsRepository;
+        this.cacheEvictor = cacheEvictor;
+        this.catalogSnapshot = catalogSnapshot;
     }
 
+    @Transactional
+    @CacheEvict(value = CacheConfig.REVIEW_STATS, key = "#request.productId")
     public void addReview(User user, ReviewRequest request) {
 
         Product product = productRepository.findById(request.getProductId())
@@ -38,25 +65,88 @@ public class ReviewService {
         review.setCreatedAt(LocalDateTime.now());
 
         reviewRepository.save(review);
+
+        // Bump the aggregate in place; the first review of a product builds its row from the review table
+        if (ratingStatsRepository.addRating(product.getProductId(), review.getRating()) == 0) {
+            // Concurrent first reviews would each insert the row: take turns on the product, then look again
+            productRepository.lockById(product.getProductId());
+            if (ratingStatsRepository.addRating(product.getProductId(), review.getRating()) == 0) {
+                ratingStatsRepository.rebuildMissing(product.getProductId());
+            }
+        }
+        ratingStatsRepository.findById(product.getProductId()).ifPresent(this::publishAfterCommit);
+        // Product responses carry the rating
+        cacheEvictor.productChanged(product.getProductId(), product.getCategory().getCategoryId());
+    }
+
+    // Registered before the cache eviction, so evicted listings are rebuilt from the new rating
+    private void publishAfterCommit(ProductRatingStats stats) {
+        long count = stats.getReviewCount();
+        double average = count == 0 ? 0.0 : (double) stats.getRatingSum() / count;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                catalogSnapshot.ratingChanged(stats.getProductId(), count, average);
+            }
+        });
     }
 
     public List<ReviewResponse> getReviews(Long productId) {
-        return reviewRepository.findByProduct_ProductId(productId)
-                .stream()
-                .map(r -> {
-                    ReviewResponse resp = new ReviewResponse();
-                    resp.setUserEmail(r.getUser().getEmail());
-                    resp.setRating(r.getRating());
-                    resp.setComment(r.getComment());
-                    return resp;
-                }).collect(Collectors.toList());
+        return reviewRepository.findViewsByProduct(productId);
+    }
+
+    // Keyset page of reviews, newest first
+    public CursorPageResponse<ReviewResponse> getReviewPage(Long productId, String cursor, Integer limit) {
+        long lastId = PageCursor.decode(cursor);
+        long beforeId = lastId == 0 ? Long.MAX_VALUE : lastId;
+        int size = PageCursor.clampLimit(limit);
+
+        // Fetch one extra row to know whether another page exists
+        List<ReviewResponse> rows = reviewRepository.findViewPageBefore(productId, beforeId, Limit.of(size + 1));
+
+        boolean hasMore = rows.size() > size;
+        List<ReviewResponse> page = hasMore ? rows.subList(0, size) : rows;
+
+        String nextCursor = hasMore ? PageCursor.encode(page.get(page.size() - 1).getReviewId()) : null;
+        return new CursorPageResponse<>(page, nextCursor);
+    }
+
+    @Cacheable(value = CacheConfig.REVIEW_STATS, key = "#productId")
+    public RatingSummary getRatingSummary(Long productId) {
+        return ratingStatsRepository.findById(productId)
+                .map(this::toSummary)
+                .orElseGet(() -> RatingSummary.empty(productId));
+    }
+
+    // One query per 1000 products for a listing page; products without reviews get an empty summary
+    public Map<Long, RatingSummary> getRatingSummaries(Collection<Long> productIds) {
+        Map<Long, RatingSummary> summaries = new HashMap<>();
+        List<Long> ids = List.copyOf(productIds);
+        for (int i = 0; i < ids.size(); i += IN_LIST_CHUNK) {
+            List<Long> chunk = ids.subList(i, Math.min(ids.size(), i + IN_LIST_CHUNK));
+            for (ProductRatingStats stats : ratingStatsRepository.findAllById(chunk)) {
+                summaries.put(stats.getProductId(), toSummary(stats));
+            }
+        }
+        for (Long id : productIds) {
+            summaries.computeIfAbsent(id, RatingSummary::empty);
+        }
+        return summaries;
     }
 
     public double getAverageRating(Long productId) {
-        List<Review> reviews = reviewRepository.findByProduct_ProductId(productId);
-        return reviews.stream()
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0.0);
+        return getRatingSummary(productId).getAverageRating();
+    }
+
+    // Fills in aggregates for reviews written before the stats table existed
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillRatingStats() {
+        ratingStatsRepository.rebuildMissing(null);
+        ratingStatsRepository.fillMissingAverages();
+    }
+
+    private RatingSummary toSummary(ProductRatingStats s) {
+        return new RatingSummary(s.getProductId(), s.getReviewCount(), s.getRatingSum(),
+                s.getStars1(), s.getStars2(), s.getStars3(), s.getStars4(), s.getStars5());
     }
 }
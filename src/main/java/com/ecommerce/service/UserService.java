@@ -1,9 +1,18 @@
 package com.ecommerce.service;
 
+import com.ecommerce.config.CacheConfig;
 import com.ecommerce.model.User;
 import com.ecommerce.repository.UserRepository;
+import com.ecommerce.security.AuthenticatedUser;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 @Service
 public class UserService {
 
@@ -22,4 +31,26 @@ public class UserService {
         return userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with ID: " + id));
     }
+
+    // Proxy for associations (order.user, review.user) without a SELECT
+    public User getUserReference(Long id) {
+        return userRepository.getReferenceById(id);
+    }
+
+    // Cached email -> (userId, authorities), shared with JwtAuthenticationFilter
+    @Cacheable(value = CacheConfig.USER_DETAILS, key = "#email")
+    public AuthenticatedUser loadPrincipal(String email) {
+        User user = getUserByEmail(email);
+        List<GrantedAuthority> authorities = user.getRoles() == null
+                ? List.of()
+                : user.getRoles().stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority("ROLE_" + role.getName()))
+                .collect(Collectors.toList());
+        return new AuthenticatedUser(user.getUserId(), user.getEmail(), authorities);
+    }
+
+    // Call whenever a user or its roles change
+    @CacheEvict(value = CacheConfig.USER_DETAILS, key = "#email")
+    public void evictPrincipal(String email) {
+    }
 }
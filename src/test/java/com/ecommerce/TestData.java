@@ -0,0 +1,59 @@
+package com.ecommerce;
+
+import com.ecommerce.model.Product;
+import com.ecommerce.model.ProductCategory;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.ProductCategoryRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.UserRepository;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creates the rows tests start from. Every call makes new rows with unique names, so tests
+ * sharing one application context do not see each other's data.
+ */
+@TestComponent
+public class TestData {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final ProductRepository productRepository;
+    private final ProductCategoryRepository categoryRepository;
+    private final UserRepository userRepository;
+
+    public TestData(ProductRepository productRepository,
+                    ProductCategoryRepository categoryRepository,
+                    UserRepository userRepository) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.userRepository = userRepository;
+    }
+
+    public Product product(double price, int stock) {
+        long n = SEQUENCE.incrementAndGet();
+        ProductCategory category = new ProductCategory();
+        category.setName("Category " + n);
+        category = categoryRepository.save(category);
+
+        Product product = new Product();
+        product.setProductName("Product " + n);
+        product.setSku("SKU-" + n);
+        product.setBasePrice(price);
+        product.setStockQty(stock);
+        product.setCategory(category);
+        return productRepository.save(product);
+    }
+
+    public User user() {
+        long n = SEQUENCE.incrementAndGet();
+        User user = new User();
+        user.setEmail("user" + n + "@test.com");
+        user.setPassword("password");
+        user.setAddress("Street " + n);
+        user.setCreatedAt(LocalDateTime.now());
+        return userRepository.save(user);
+    }
+}
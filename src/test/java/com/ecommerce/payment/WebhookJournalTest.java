@@ -0,0 +1,55 @@
+package com.ecommerce.payment;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A webhook event the handler always rejects is dead-lettered after its attempts run out,
+ * and the events around it in the same partition are still applied.
+ */
+class WebhookJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void poisonedEventIsDeadLetteredAndTheRestApplied() throws IOException, InterruptedException {
+        Set<String> applied = ConcurrentHashMap.newKeySet();
+        try (WebhookJournal journal = new WebhookJournal(dir, 1, 10)) {
+            for (int i = 0; i < 5; i++) {
+                journal.append(new WebhookEvent(WebhookEvent.Type.CAPTURED, "pay_" + i, "order_" + i, "upi", 100));
+            }
+            journal.start(batch -> {
+                if (batch.stream().anyMatch(event -> event.paymentId().equals("pay_2"))) {
+                    throw new IllegalStateException("cannot apply pay_2");
+                }
+                batch.forEach(event -> applied.add(event.paymentId()));
+            }, 1, 3);
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (journal.backlog() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertThat(journal.backlog()).isZero();
+            assertThat(journal.deadLettered()).isEqualTo(1);
+        }
+        assertThat(applied).containsExactlyInAnyOrder("pay_0", "pay_1", "pay_3", "pay_4");
+
+        // The dead-letter file holds the record exactly as it was journalled
+        byte[] dead = Files.readAllBytes(dir.resolve("webhooks-0.dead"));
+        byte[] payload = new byte[dead.length - 8];
+        System.arraycopy(dead, 8, payload, 0, payload.length);
+        assertThat(WebhookEvent.decode(payload).paymentId()).isEqualTo("pay_2");
+        assertThat(ByteBuffer.wrap(dead).getInt()).isEqualTo(payload.length);
+    }
+}
@@ -0,0 +1,89 @@
+package com.ecommerce.service;
+
+import com.ecommerce.TestData;
+import com.ecommerce.dto.CartItemRequest;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.CartItemRepository;
+import com.ecommerce.repository.CartRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A cart evicted before its changes were written is neither written nor lost by the
+ * eviction: its user gets it back as it was, and the next flush writes it.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+class CartServiceEvictionTest {
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void evictedDirtyCartIsKeptUntilWritten() {
+        // Room for one active cart, so touching a second one evicts the first
+        CartService cartService = new CartService(cartRepository, cartItemRepository, productRepository,
+                userRepository, productService, transactionManager, 1, 30);
+        Product product = testData.product(40, 100);
+        User first = testData.user();
+        User second = testData.user();
+
+        cartService.addToCart(first.getUserId(), item(product, 2));
+        cartService.addToCart(second.getUserId(), item(product, 1));
+        cartService.addToCart(second.getUserId(), item(product, 1));
+        cartService.cleanUp();
+
+        assertThat(linesInDatabase(first)).isZero();
+        assertThat(cartService.getCart(first.getUserId()).getItems())
+                .singleElement().satisfies(line -> assertThat(line.getQty()).isEqualTo(2));
+
+        cartService.flush();
+        assertThat(linesInDatabase(first)).isEqualTo(1);
+        assertThat(linesInDatabase(second)).isEqualTo(1);
+    }
+
+    private static CartItemRequest item(Product product, int qty) {
+        CartItemRequest item = new CartItemRequest();
+        item.setProductId(product.getProductId());
+        item.setQty(qty);
+        return item;
+    }
+
+    private int linesInDatabase(User user) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM cart_item ci JOIN cart c ON c.cart_id = ci.cart_id WHERE c.user_id = ?",
+                Integer.class, user.getUserId());
+    }
+}
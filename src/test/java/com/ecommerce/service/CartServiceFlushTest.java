@@ -0,0 +1,72 @@
+package com.ecommerce.service;
+
+import com.ecommerce.TestData;
+import com.ecommerce.dto.CartItemRequest;
+import com.ecommerce.dto.CartItemResponse;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A cart holding a product deleted before its line was written neither fails the flush nor
+ * holds back the other carts written with it.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+class CartServiceFlushTest {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void lineOfDeletedProductDoesNotBlockTheFlush() {
+        Product kept = testData.product(25, 50);
+        Product deleted = testData.product(35, 50);
+        User holder = testData.user();
+        User other = testData.user();
+        cartService.addToCart(holder.getUserId(), item(kept, 1));
+        cartService.addToCart(holder.getUserId(), item(deleted, 2));
+        cartService.addToCart(other.getUserId(), item(kept, 3));
+
+        productService.deleteProduct(deleted.getProductId());
+        cartService.flush();
+
+        assertThat(productsInDatabase(other)).containsExactly(kept.getProductId());
+        assertThat(productsInDatabase(holder)).containsExactly(kept.getProductId());
+        assertThat(cartService.getCart(holder.getUserId()).getItems())
+                .extracting(CartItemResponse::getProductId).containsExactly(kept.getProductId());
+        assertThat(cartService.getCart(holder.getUserId()).getTotalAmount()).isEqualTo(25.0);
+    }
+
+    private static CartItemRequest item(Product product, int qty) {
+        CartItemRequest item = new CartItemRequest();
+        item.setProductId(product.getProductId());
+        item.setQty(qty);
+        return item;
+    }
+
+    private List<Long> productsInDatabase(User user) {
+        return jdbcTemplate.queryForList(
+                "SELECT ci.product_id FROM cart_item ci JOIN cart c ON c.cart_id = ci.cart_id WHERE c.user_id = ?",
+                Long.class, user.getUserId());
+    }
+}
@@ -0,0 +1,91 @@
+package com.ecommerce.service;
+
+import com.ecommerce.TestData;
+import com.ecommerce.dto.CartItemRequest;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrent demo payments of one order: exactly one succeeds and the order's
+ * stock is sold once.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+class DemoPaymentConcurrencyTest {
+
+    private static final int PAYERS = 8;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentPaymentsOfOneOrderSellItsStockOnce() throws InterruptedException {
+        Product product = testData.product(250, 10);
+        User user = testData.user();
+        CartItemRequest item = new CartItemRequest();
+        item.setProductId(product.getProductId());
+        item.setQty(3);
+        cartService.addToCart(user.getUserId(), item);
+        Long orderId = orderService.placeOrder(user).getOrderId();
+
+        AtomicInteger paid = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService payers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < PAYERS; i++) {
+                payers.submit(() -> {
+                    start.await();
+                    try {
+                        paymentService.pay(orderId, "DEMO");
+                        paid.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        assertThat(e).hasMessageContaining("already paid");
+                        refused.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            payers.shutdown();
+            assertThat(payers.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        }
+        inventoryService.flush();
+
+        assertThat(paid.get()).isEqualTo(1);
+        assertThat(refused.get()).isEqualTo(PAYERS - 1);
+        assertThat(jdbcTemplate.queryForObject("SELECT stock_qty FROM product WHERE product_id = ?",
+                Integer.class, product.getProductId())).isEqualTo(7);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transaction WHERE payment_gateway_ref = ?",
+                Integer.class, "DEMO_TRANSACTION_" + orderId)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,126 @@
+package com.ecommerce.service;
+
+import com.ecommerce.TestData;
+import com.ecommerce.dto.CartItemRequest;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderStatus;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.User;
+import com.ecommerce.payment.WebhookEvent;
+import com.ecommerce.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A payment captured after the order's reservation expired is recorded for refund and
+ * does not bring the cancelled order back or take the released stock again.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+class ExpiredOrderPaymentTest {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${razorpay.key.secret}")
+    private String razorpayKeySecret;
+
+    @Test
+    void webhookCaptureOfExpiredOrderIsFlaggedForRefund() {
+        Product product = testData.product(120, 5);
+        Long orderId = expiredOrder(product, "order_expired_webhook");
+
+        paymentService.applyWebhookEvents(List.of(new WebhookEvent(
+                WebhookEvent.Type.CAPTURED, "pay_expired_webhook", "order_expired_webhook", "upi", 24000)));
+
+        assertStillCancelled(orderId, product, "pay_expired_webhook");
+    }
+
+    @Test
+    void checkoutCallbackOfExpiredOrderIsRefusedAndFlaggedForRefund() throws GeneralSecurityException {
+        Product product = testData.product(120, 5);
+        Long orderId = expiredOrder(product, "order_expired_callback");
+
+        String signature = hmacHex(razorpayKeySecret, "order_expired_callback|pay_expired_callback");
+        assertThatThrownBy(() -> paymentService.verifyPayment("order_expired_callback", "pay_expired_callback", signature))
+                .hasMessageContaining("will be refunded");
+        // The webhook for the same capture arrives afterwards and changes nothing
+        paymentService.applyWebhookEvents(List.of(new WebhookEvent(
+                WebhookEvent.Type.CAPTURED, "pay_expired_callback", "order_expired_callback", "upi", 24000)));
+
+        assertStillCancelled(orderId, product, "pay_expired_callback");
+    }
+
+    // Places an order for 2 units and lets its reservation expire before any payment arrives
+    private Long expiredOrder(Product product, String razorpayOrderId) {
+        User user = testData.user();
+        CartItemRequest item = new CartItemRequest();
+        item.setProductId(product.getProductId());
+        item.setQty(2);
+        cartService.addToCart(user.getUserId(), item);
+        Long orderId = orderService.placeOrder(user).getOrderId();
+
+        Order order = orderRepository.findById(orderId).orElseThrow();
+        order.setRazorpayOrderId(razorpayOrderId);
+        orderRepository.save(order);
+
+        inventoryService.release(orderId);
+        orderRepository.cancelUnpaid(List.of(orderId));
+        return orderId;
+    }
+
+    private void assertStillCancelled(Long orderId, Product product, String paymentId) {
+        inventoryService.flush();
+        Order order = orderRepository.findById(orderId).orElseThrow();
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(order.getPaymentStatus()).isEqualTo("EXPIRED");
+        assertThat(jdbcTemplate.queryForList("SELECT payment_status FROM transaction WHERE payment_gateway_ref = ?",
+                String.class, paymentId)).containsExactly(PaymentService.REFUND_REQUIRED);
+        assertThat(jdbcTemplate.queryForObject("SELECT stock_qty FROM product WHERE product_id = ?",
+                Integer.class, product.getProductId())).isEqualTo(5);
+        // The released units are on sale again
+        assertThat(inventoryService.reserve(orderId + 5_000_000L, Map.of(product.getProductId(), 5))).isEmpty();
+        inventoryService.release(orderId + 5_000_000L);
+    }
+
+    private static String hmacHex(String secret, String payload) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+    }
+}
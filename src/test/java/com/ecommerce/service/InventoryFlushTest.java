@@ -0,0 +1,53 @@
+package com.ecommerce.service;
+
+import com.ecommerce.TestData;
+import com.ecommerce.search.SuggestIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * Once the flushed decrements are committed, a failing index update does not put them
+ * back, so the next flush cannot take the same stock a second time.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+class InventoryFlushTest {
+
+    @MockitoSpyBean
+    private SuggestIndex suggestIndex;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void failingViewUpdateDoesNotReapplyTheDecrement() {
+        Long productId = testData.product(60, 10).getProductId();
+        assertThat(inventoryService.reserve(4_000_000L, Map.of(productId, 3))).isEmpty();
+        inventoryService.commit(4_000_000L, Map::of);
+        doThrow(new IllegalStateException("index unavailable")).when(suggestIndex).sold(any());
+
+        inventoryService.flush();
+        inventoryService.flush();
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT stock_qty FROM product WHERE product_id = ?", Integer.class, productId)).isEqualTo(7);
+    }
+}
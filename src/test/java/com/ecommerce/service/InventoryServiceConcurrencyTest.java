@@ -0,0 +1,111 @@
+package com.ecommerce.service;
+
+import com.ecommerce.TestData;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 10k checkouts race for one SKU: every unit is either sold once or still in stock,
+ * both in the counters and in product.stock_qty after the write-behind flush.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+class InventoryServiceConcurrencyTest {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryServiceConcurrencyTest.class);
+
+    private static final int INITIAL_STOCK = 1000;
+    private static final int CHECKOUTS = 10_000;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void parallelCheckoutsOfOneSkuNeverOversell() throws InterruptedException {
+        Long productId = testData.product(499, INITIAL_STOCK).getProductId();
+
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger abandoned = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        long elapsedNanos;
+        try (ExecutorService buyers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CHECKOUTS; i++) {
+                long orderId = 1_000_000L + i;
+                boolean abandons = i % 4 == 0;
+                buyers.submit(() -> {
+                    start.await();
+                    if (!inventoryService.reserve(orderId, Map.of(productId, 1)).isEmpty()) {
+                        rejected.incrementAndGet();
+                    } else if (abandons) {
+                        // Cart abandoned before paying: the unit goes back on sale
+                        inventoryService.release(orderId);
+                        abandoned.incrementAndGet();
+                    } else {
+                        inventoryService.commit(orderId, Map::of);
+                        sold.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            long startedAt = System.nanoTime();
+            start.countDown();
+            buyers.shutdown();
+            assertThat(buyers.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+            elapsedNanos = System.nanoTime() - startedAt;
+        }
+        // Counter path only: reserve plus commit or release, the stock write happens in flush below
+        log.info("{} checkouts of one SKU on virtual threads ({} CPUs, {} units in stock) in {} ms: {} checkouts/s",
+                CHECKOUTS, Runtime.getRuntime().availableProcessors(), INITIAL_STOCK,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), Math.round(CHECKOUTS / (elapsedNanos / 1e9)));
+        inventoryService.flush();
+
+        int remaining = jdbcTemplate.queryForObject(
+                "SELECT stock_qty FROM product WHERE product_id = ?", Integer.class, productId);
+        assertThat(sold.get() + abandoned.get() + rejected.get()).isEqualTo(CHECKOUTS);
+        assertThat(sold.get()).isPositive().isLessThanOrEqualTo(INITIAL_STOCK);
+        assertThat(remaining).isGreaterThanOrEqualTo(0);
+        assertThat(sold.get() + remaining).isEqualTo(INITIAL_STOCK);
+        // Nothing left reserved: the next buyer can take exactly what the database holds
+        assertThat(inventoryService.reserve(2_000_000L, Map.of(productId, remaining)))
+                .as("remaining stock reservable").isEmpty();
+        assertThat(inventoryService.reserve(2_000_001L, Map.of(productId, 1))).containsExactly(productId);
+        inventoryService.release(2_000_000L);
+    }
+
+    @Test
+    void flushNeverTakesStockTheRowDoesNotHave() {
+        Long productId = testData.product(499, 10).getProductId();
+        assertThat(inventoryService.reserve(3_000_000L, Map.of(productId, 8))).isEmpty();
+        // Changed behind the counter's back, e.g. by hand in the database
+        jdbcTemplate.update("UPDATE product SET stock_qty = 5 WHERE product_id = ?", productId);
+
+        inventoryService.commit(3_000_000L, Map::of);
+        inventoryService.flush();
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT stock_qty FROM product WHERE product_id = ?", Integer.class, productId)).isEqualTo(5);
+    }
+}
@@ -0,0 +1,111 @@
+package com.ecommerce.service;
+
+import com.ecommerce.TestData;
+import com.ecommerce.dto.CartItemRequest;
+import com.ecommerce.dto.OrderResponse;
+import com.ecommerce.event.OrderEventOutbox;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Order listings load in a fixed number of statements however many orders there are:
+ * the summaries (with user and linked transaction) and the items of all orders.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+class OrderListingQueryCountTest {
+
+    private static final long LISTING_STATEMENTS = 2;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderEventOutbox orderEventOutbox;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TestData testData;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void restartOutbox() {
+        orderEventOutbox.start();
+    }
+
+    @Test
+    void ordersForUserTakeTheSameStatementsForOneOrManyOrders() {
+        Product product = testData.product(80, 1000);
+        User few = testData.user();
+        User many = testData.user();
+        placeOrders(few, product, 1);
+        placeOrders(many, product, 25);
+
+        assertThat(statementsFor(() -> orderService.getOrdersForUser(few.getUserId()))).isEqualTo(LISTING_STATEMENTS);
+        assertThat(statementsFor(() -> orderService.getOrdersForUser(many.getUserId()))).isEqualTo(LISTING_STATEMENTS);
+    }
+
+    @Test
+    void allOrdersTakeTheSameStatementsAsTheTableGrows() {
+        Product product = testData.product(80, 1000);
+        placeOrders(testData.user(), product, 1);
+        long before = statementsFor(orderService::getAllOrders);
+
+        placeOrders(testData.user(), product, 25);
+        long after = statementsFor(orderService::getAllOrders);
+
+        assertThat(before).isEqualTo(LISTING_STATEMENTS);
+        assertThat(after).isEqualTo(LISTING_STATEMENTS);
+    }
+
+    private void placeOrders(User user, Product product, int count) {
+        for (int i = 0; i < count; i++) {
+            CartItemRequest item = new CartItemRequest();
+            item.setProductId(product.getProductId());
+            item.setQty(1);
+            cartService.addToCart(user.getUserId(), item);
+            orderService.placeOrder(user);
+        }
+        inventoryService.flush();
+    }
+
+    // Statements run by the listing, with the outbox dispatcher stopped so it cannot add its own
+    private long statementsFor(Supplier<List<OrderResponse>> listing) {
+        orderEventOutbox.stop();
+        statistics.clear();
+        List<OrderResponse> orders = listing.get();
+        long statements = statistics.getPrepareStatementCount();
+        assertThat(orders).isNotEmpty().allSatisfy(order -> assertThat(order.getItems()).isNotEmpty());
+        return statements;
+    }
+}
@@ -0,0 +1,72 @@
+package com.ecommerce.service;
+
+import com.ecommerce.TestData;
+import com.ecommerce.dto.CartItemRequest;
+import com.ecommerce.dto.CursorPageResponse;
+import com.ecommerce.dto.OrderResponse;
+import com.ecommerce.model.OrderStatus;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The admin order listing applies exactly the filters that are given, and pages through
+ * the matches newest first.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+class OrderPageFilterTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private TestData testData;
+
+    @Test
+    void filtersAndPagesTheOrdersOfOneUser() {
+        Product product = testData.product(30, 100);
+        User user = testData.user();
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            CartItemRequest item = new CartItemRequest();
+            item.setProductId(product.getProductId());
+            item.setQty(1);
+            cartService.addToCart(user.getUserId(), item);
+            orderIds.add(orderService.placeOrder(user).getOrderId());
+        }
+        paymentService.pay(orderIds.get(1), "DEMO");
+        paymentService.pay(orderIds.get(3), "DEMO");
+
+        assertThat(orderService.countOrders(null, null, user.getUserId(), null, null)).isEqualTo(5);
+        assertThat(orderService.countOrders(OrderStatus.CONFIRMED, "SUCCESS", user.getUserId(), null, null)).isEqualTo(2);
+        assertThat(orderService.countOrders(null, "PENDING", user.getUserId(), null, LocalDateTime.now().minusDays(1)))
+                .isZero();
+
+        CursorPageResponse<OrderResponse> first = orderService.getOrderPage(null, "PENDING", user.getUserId(),
+                LocalDateTime.now().minusDays(1), null, null, 2);
+        assertThat(first.getItems()).extracting(OrderResponse::getOrderId)
+                .containsExactly(orderIds.get(4), orderIds.get(2));
+        CursorPageResponse<OrderResponse> second = orderService.getOrderPage(null, "PENDING", user.getUserId(),
+                LocalDateTime.now().minusDays(1), null, first.getNextCursor(), 2);
+        assertThat(second.getItems()).extracting(OrderResponse::getOrderId).containsExactly(orderIds.get(0));
+        assertThat(second.getNextCursor()).isNull();
+    }
+}
@@ -0,0 +1,114 @@
+package com.ecommerce.service;
+
+import com.ecommerce.TestData;
+import com.ecommerce.dto.ProductResponse;
+import com.ecommerce.dto.RatingSummary;
+import com.ecommerce.dto.ReviewRequest;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.ProductRatingStatsRepository;
+import com.ecommerce.search.CatalogSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Simultaneous first reviews of a product all land in its rating aggregate; none fails
+ * because another one created the aggregate row first. The catalog snapshot ends on the
+ * latest stats whatever order the after-commit updates run in.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+class ReviewServiceConcurrencyTest {
+
+    private static final int REVIEWERS = 8;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private ProductRatingStatsRepository ratingStatsRepository;
+
+    @Autowired
+    private CatalogSnapshot catalogSnapshot;
+
+    @Autowired
+    private TestData testData;
+
+    @Test
+    void concurrentFirstReviewsAreAllCounted() throws InterruptedException {
+        Product product = testData.product(99, 10);
+        Long productId = product.getProductId();
+        catalogSnapshot.index(product);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < REVIEWERS; i++) {
+            users.add(testData.user());
+        }
+
+        List<Throwable> failures = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService reviewers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < REVIEWERS; i++) {
+                User user = users.get(i);
+                int rating = i % 5 + 1;
+                reviewers.submit(() -> {
+                    start.await();
+                    ReviewRequest request = new ReviewRequest();
+                    request.setProductId(productId);
+                    request.setRating(rating);
+                    request.setComment("Review by " + user.getEmail());
+                    try {
+                        reviewService.addReview(user, request);
+                    } catch (RuntimeException e) {
+                        synchronized (failures) {
+                            failures.add(e);
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            reviewers.shutdown();
+            assertThat(reviewers.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        }
+
+        assertThat(failures).isEmpty();
+        RatingSummary summary = reviewService.getRatingSummary(productId);
+        assertThat(summary.getReviewCount()).isEqualTo(REVIEWERS);
+        // 1..5 then 1..3
+        assertThat(ratingStatsRepository.findById(productId).orElseThrow().getRatingSum()).isEqualTo(21);
+        assertThat(snapshotEntry(product).getReviewCount()).isEqualTo(REVIEWERS);
+        assertThat(snapshotEntry(product).getAverageRating()).isEqualTo(21.0 / REVIEWERS);
+    }
+
+    @Test
+    void lateUpdateWithOlderStatsDoesNotOverwriteTheSnapshot() {
+        Product product = testData.product(99, 10);
+        catalogSnapshot.index(product);
+
+        catalogSnapshot.ratingChanged(product.getProductId(), 2, 4.5);
+        // The first review's callback runs after the second's
+        catalogSnapshot.ratingChanged(product.getProductId(), 1, 5.0);
+
+        assertThat(snapshotEntry(product).getReviewCount()).isEqualTo(2);
+        assertThat(snapshotEntry(product).getAverageRating()).isEqualTo(4.5);
+    }
+
+    private ProductResponse snapshotEntry(Product product) {
+        return catalogSnapshot.products(product.getCategory().getCategoryId()).stream()
+                .filter(p -> p.getProductId().equals(product.getProductId()))
+                .findFirst().orElseThrow();
+    }
+}